@@ -1,12 +1,29 @@
 package com.store;
 
 import com.store.gui.InventoryApp;
+import com.store.server.InventoryConnection;
+import com.store.server.InventoryDaemon;
+import com.store.server.InventoryHttpServer;
+import com.store.service.InventoryExporter;
+import com.store.service.InventoryFormat;
 import com.store.service.StoreService;
 import com.store.util.JavaFxUtil;
 import com.store.util.InventoryFileManager;
 import javafx.application.Application;
 import javafx.application.Platform;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 /**
  * Application launcher that determines whether to run in GUI or console mode.
  */
@@ -14,14 +31,22 @@ public class AppLauncher {
     
     // Static flag to track if console mode is requested after GUI exits
     private static volatile boolean switchToConsoleMode = false;
+    private static volatile long consoleModeRequestedNanos;
     
     // Static method for InventoryApp to request console mode
     public static void requestConsoleMode() {
+        consoleModeRequestedNanos = System.nanoTime();
         switchToConsoleMode = true;
     }
     
     public static void main(String[] args) {
-        logSystemInfo();
+        // Batch results are read by other programs, so everything else is logged to stderr
+        if (shouldRunBatch(args)) {
+            PrintStream results = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+            System.setOut(System.err);
+            InventoryFileManager.fixUserInventoryFile();
+            System.exit(runBatch(args, results));
+        }
         
         // Special flag handling for "reset" option
         if (shouldResetInventory(args)) {
@@ -30,12 +55,39 @@ public class AppLauncher {
             System.exit(0); // Exit after reset
         }
         
-        // Directly fix user inventory file first - this is critical
-        InventoryFileManager.fixUserInventoryFile();
+        // Directly fix user inventory file first - this is critical. The console and GUI
+        // fix and load it in the background while JavaFX is detected and started up;
+        // a manual refresh replaces the file first, so it is loaded afterwards as before
+        if (isInteractive(args) && !shouldForceRefresh(args)) {
+            InventoryConnection.startLoading(InventoryFileManager::fixUserInventoryFile);
+        } else {
+            InventoryFileManager.fixUserInventoryFile();
+        }
+        
+        logSystemInfo();
         
         // Register shutdown hook to ensure clean exit in all scenarios
         registerShutdownHook();
         
+        // Headless HTTP API mode needs neither JavaFX nor a console
+        if (shouldRunServer(args)) {
+            System.out.println("Starting in server mode...");
+            launchServerMode(args);
+            return;
+        }
+        
+        // Headless export writes the inventory to a file and exits
+        if (shouldExport(args)) {
+            System.exit(runExport(args) ? 0 : 1);
+        }
+        
+        // Daemon mode keeps the inventory in memory for thin console/GUI clients
+        if (shouldRunDaemon(args)) {
+            System.out.println("Starting in daemon mode...");
+            launchDaemonMode();
+            return;
+        }
+        
         // Configure JavaFX module path if needed
         JavaFxUtil.configureJavaFxEnvironment();
         
@@ -129,6 +181,13 @@ public class AppLauncher {
         return false; // Default to GUI mode when no args provided
     }
     
+    /**
+     * Check if the console or GUI will run, rather than one of the headless modes
+     */
+    private static boolean isInteractive(String[] args) {
+        return !shouldRunServer(args) && !shouldExport(args) && !shouldRunDaemon(args);
+    }
+    
     /**
      * Check if user requested a complete inventory reset
      */
@@ -143,6 +202,127 @@ public class AppLauncher {
         return false;
     }
     
+    /**
+     * Check if the embedded HTTP API was requested ("server", "--server" or "-s")
+     */
+    private static boolean shouldRunServer(String[] args) {
+        if (args != null && args.length > 0) {
+            String mode = args[0].toLowerCase();
+            return mode.equals("server") || mode.equals("--server") || mode.equals("-s");
+        }
+        return false;
+    }
+    
+    /**
+     * Check if daemon mode was requested ("daemon" or "--daemon")
+     */
+    private static boolean shouldRunDaemon(String[] args) {
+        if (args != null && args.length > 0) {
+            String mode = args[0].toLowerCase();
+            return mode.equals("daemon") || mode.equals("--daemon");
+        }
+        return false;
+    }
+    
+    /**
+     * Check if batch mode was requested ("batch [FILE]" or "--batch [FILE]")
+     */
+    private static boolean shouldRunBatch(String[] args) {
+        if (args != null && args.length > 0) {
+            String mode = args[0].toLowerCase();
+            return mode.equals("batch") || mode.equals("--batch");
+        }
+        return false;
+    }
+    
+    /**
+     * Runs the commands in the file named after the batch flag, or on standard
+     * input if there is none (or it is "-"), then saves the inventory.
+     * @return The exit status: 0 if every command succeeded, 1 if some failed, 2 if the script could not be read
+     */
+    private static int runBatch(String[] args, PrintStream results) {
+        long start = System.nanoTime();
+        StoreService service = StoreService.getInstance();
+        BatchMode batch = new BatchMode(service, results, System.err);
+        int status;
+        try (BufferedReader script = args.length < 2 || args[1].equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+                : Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            status = batch.run(script) ? 0 : 1;
+        } catch (IOException e) {
+            System.err.println("Failed to read batch script: " + e.getMessage());
+            status = 2;
+        }
+        service.saveAndCloseInventory();
+        System.err.printf("Batch: %d commands, %d failed, in %.1f ms%n", batch.getOperationCount(),
+                batch.getFailureCount(), (System.nanoTime() - start) / 1_000_000.0);
+        return status;
+    }
+    
+    /**
+     * Check if a headless export was requested ("export FILE" or "--export FILE")
+     */
+    private static boolean shouldExport(String[] args) {
+        if (args != null && args.length > 0) {
+            String mode = args[0].toLowerCase();
+            return mode.equals("export") || mode.equals("--export");
+        }
+        return false;
+    }
+    
+    /**
+     * Exports the inventory to the file named after the export flag. The format
+     * follows the file extension unless "--format=json|ndjson|csv" is given.
+     * @return true if the export succeeded
+     */
+    private static boolean runExport(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: export FILE [--format=json|ndjson|csv]");
+            return false;
+        }
+        Path file = Paths.get(args[1]);
+        InventoryFormat format = InventoryFormat.of(file);
+        for (String arg : args) {
+            if (arg.startsWith("--format=")) {
+                try {
+                    format = InventoryFormat.valueOf(arg.substring("--format=".length()).toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Unknown export format " + arg.substring("--format=".length()));
+                    return false;
+                }
+            }
+        }
+        try {
+            new InventoryExporter(InventoryConnection.productManager()).export(file, format);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to export inventory: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Reads the HTTP port from "--port=N" or "--port N", defaulting to 8080
+     */
+    private static int getServerPort(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String value = null;
+            if (args[i].startsWith("--port=")) {
+                value = args[i].substring("--port=".length());
+            } else if (args[i].equals("--port") && i + 1 < args.length) {
+                value = args[i + 1];
+            }
+            if (value != null) {
+                try {
+                    return Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid port " + value + ", using " + InventoryHttpServer.DEFAULT_PORT);
+                }
+            }
+        }
+        return InventoryHttpServer.DEFAULT_PORT;
+    }
+    
     private static boolean shouldForceRefresh(String[] args) {
         for (String arg : args) {
             if (arg.equalsIgnoreCase("--refresh") || arg.equalsIgnoreCase("-r")) {
@@ -167,6 +347,11 @@ public class AppLauncher {
      * Clean up any application-wide resources that need to be released
      */
     private static void cleanupResources() {
+        // Thin clients have nothing to save; the daemon owns the inventory
+        if (InventoryConnection.isRemote()) {
+            InventoryConnection.saveAndClose();
+            return;
+        }
         try {
             // Initialize StoreService if not already done to ensure proper template loading
             StoreService service = StoreService.getInstance();
@@ -187,9 +372,16 @@ public class AppLauncher {
                 InventoryFileManager.refreshUserInventoryFromTemplate(false);  // Keep confirmation for manual refresh
             }
             
-            // Make sure StoreService is initialized with correct template path before Main runs
-            StoreService.getInstance();
-            System.out.println("StoreService initialized with template from resources directory");
+            // Connect to the daemon, or initialize StoreService with the correct template path before Main runs.
+            // After the GUI this is the inventory it left behind, still in memory
+            InventoryConnection.productManager();
+            if (switchToConsoleMode) {
+                System.out.printf("Console took over the inventory from the GUI in %.1f ms%n",
+                        (System.nanoTime() - consoleModeRequestedNanos) / 1_000_000.0);
+            } else {
+                System.out.println(InventoryConnection.isRemote() ? "Using inventory daemon"
+                        : "StoreService initialized with template from resources directory");
+            }
             
             // Console mode cleanup is handled by Main.java
             Main.main(args);
@@ -199,19 +391,52 @@ public class AppLauncher {
         }
     }
     
-    private static void launchGuiMode(String[] args) {
+    private static void launchServerMode(String[] args) {
+        try {
+            StoreService service = StoreService.getInstance();
+            InventoryHttpServer server = new InventoryHttpServer(service, getServerPort(args));
+            server.start();
+            
+            // The server's dispatcher thread keeps the JVM running until it is interrupted
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+            System.out.println("Press Ctrl+C to stop the server.");
+        } catch (IOException e) {
+            System.err.println("Failed to start HTTP server: " + e.getMessage());
+        }
+    }
+    
+    private static void launchDaemonMode() {
         try {
-            // IMPORTANT: Initialize StoreService FIRST before checking for refresh
             StoreService service = StoreService.getInstance();
-            System.out.println("StoreService initialized with template from resources directory");
+            InventoryDaemon daemon = new InventoryDaemon(service, InventoryDaemon.defaultSocketPath());
+            daemon.start();
             
-            // Only after loading, check if a refresh is requested
+            // The daemon's accept thread keeps the JVM running until it is interrupted
+            Runtime.getRuntime().addShutdownHook(new Thread(daemon::stop));
+            System.out.println("Console and GUI sessions now connect to this daemon. Press Ctrl+C to stop it.");
+        } catch (IOException e) {
+            System.err.println("Failed to start inventory daemon: " + e.getMessage());
+        }
+    }
+    
+    private static void launchGuiMode(String[] args) {
+        try {
+            // A refresh needs the inventory loaded FIRST. Otherwise InventoryApp waits for the
+            // background load itself, so loading overlaps the JavaFX toolkit startup
             if (shouldForceRefresh(args)) {
-                // Create a backup of current inventory before refreshing
-                InventoryFileManager.createInventoryBackup();
-                InventoryFileManager.refreshUserInventoryFromTemplate(false);  // Keep confirmation for manual refresh
-                // Re-initialize StoreService to reload the refreshed data
-                service.loadInventory(); // Reload inventory data after refresh
+                InventoryConnection.productManager();
+                System.out.println(InventoryConnection.isRemote() ? "Using inventory daemon"
+                        : "StoreService initialized with template from resources directory");
+                
+                // Only after loading, refresh (the daemon's file is not refreshed)
+                if (!InventoryConnection.isRemote()) {
+                    StoreService service = StoreService.getInstance();
+                    // Create a backup of current inventory before refreshing
+                    InventoryFileManager.createInventoryBackup();
+                    InventoryFileManager.refreshUserInventoryFromTemplate(false);  // Keep confirmation for manual refresh
+                    // Re-initialize StoreService to reload the refreshed data
+                    service.loadInventory(); // Reload inventory data after refresh
+                }
             }
             
             System.out.println("Starting GUI application...");
@@ -0,0 +1,336 @@
+package com.store;
+
+import com.store.model.NameDictionary;
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+import com.store.service.StoreService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Non-interactive console mode: runs a script of inventory operations, one per
+ * line, and prints the results for other programs to read.
+ *
+ * Commands (names containing spaces go in double quotes; blank lines and lines
+ * starting with # are skipped):
+ * <pre>
+ * add NAME PRICE QUANTITY [DISCOUNT_PERCENT [EXPIRATION_DATE|- [CATEGORY]]]
+ * remove NAME
+ * adjust NAME DELTA
+ * query NAME
+ * summary
+ * </pre>
+ * Queries and summaries print one tab-separated line each. A failed command is
+ * reported with its line number on the error stream and does not stop the script.
+ *
+ * The interactive console saves after every add. Here, consecutive adds and
+ * consecutive removes are collected and applied as one change with one save,
+ * up to {@link #BATCH_SIZE} at a time. Stock adjustments apply immediately,
+ * and the inventory coalesces their background saves. Pending adds or removes
+ * are applied before any other command, so each command sees every command
+ * before it.
+ */
+public final class BatchMode {
+    static final int BATCH_SIZE = 10_000;
+
+    private final StoreService service;
+    private final PrintStream out;
+    private final PrintStream err;
+
+    private final List<Product> pendingAdds = new ArrayList<>();
+    private final List<Removal> pendingRemovals = new ArrayList<>();
+    private int operations;
+    private int failures;
+
+    /**
+     * @param service The inventory to change
+     * @param out     Where query and summary results go
+     * @param err     Where failed commands are reported
+     */
+    public BatchMode(StoreService service, PrintStream out, PrintStream err) {
+        this.service = service;
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * Runs every command of a script. The inventory's own saving applies the
+     * changes to its file; call {@link StoreService#saveAndCloseInventory()} afterwards.
+     *
+     * @param script The commands, read to the end
+     * @return true if every command succeeded
+     * @throws IOException if the script cannot be read; commands before the error were run
+     */
+    public boolean run(BufferedReader script) throws IOException {
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = script.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                    execute(lineNumber, trimmed);
+                }
+            }
+        } finally {
+            flush();
+            out.flush();
+        }
+        return failures == 0;
+    }
+
+    /**
+     * @return How many commands were run
+     */
+    public int getOperationCount() {
+        return operations;
+    }
+
+    /**
+     * @return How many commands failed
+     */
+    public int getFailureCount() {
+        return failures;
+    }
+
+    private void execute(int lineNumber, String line) {
+        operations++;
+        List<String> args = tokenize(line);
+        if (args == null) {
+            fail(lineNumber, "unterminated quote");
+            return;
+        }
+        String command = args.get(0).toLowerCase();
+        // Keep collecting while the command is of the same kind as the pending ones
+        if (!command.equals("add")) {
+            flushAdds();
+        }
+        if (!command.equals("remove")) {
+            flushRemovals();
+        }
+        switch (command) {
+            case "add":
+                add(lineNumber, args);
+                break;
+            case "remove":
+                if (expectArguments(lineNumber, args, 1, 1)) {
+                    pendingRemovals.add(new Removal(lineNumber, args.get(1)));
+                    if (pendingRemovals.size() >= BATCH_SIZE) {
+                        flushRemovals();
+                    }
+                }
+                break;
+            case "adjust":
+                adjust(lineNumber, args);
+                break;
+            case "query":
+                if (expectArguments(lineNumber, args, 1, 1)) {
+                    query(lineNumber, args.get(1));
+                }
+                break;
+            case "summary":
+                if (expectArguments(lineNumber, args, 0, 0)) {
+                    out.println("summary\t" + service.getTotalQuantity()
+                            + "\t" + service.getTotalGrossPrice()
+                            + "\t" + service.getTotalPriceWithPerishableDiscount()
+                            + "\t" + service.getTotalNetPriceWithDiscount());
+                }
+                break;
+            default:
+                fail(lineNumber, "unknown command \"" + args.get(0) + "\"");
+        }
+    }
+
+    private void add(int lineNumber, List<String> args) {
+        if (!expectArguments(lineNumber, args, 3, 6)) {
+            return;
+        }
+        String name = args.get(1);
+        double price;
+        int quantity;
+        double discount = 0;
+        try {
+            price = Double.parseDouble(args.get(2));
+            quantity = Integer.parseInt(args.get(3));
+            if (args.size() > 4) {
+                discount = Double.parseDouble(args.get(4));
+            }
+        } catch (NumberFormatException e) {
+            fail(lineNumber, "invalid number " + e.getMessage());
+            return;
+        }
+        // The same limits as the interactive console
+        if (!(price >= 0.01) || quantity < 0 || !(discount >= 0 && discount <= 100)) {
+            fail(lineNumber, "price must be at least 0.01, quantity at least 0 and discount between 0 and 100");
+            return;
+        }
+        Product product;
+        String expirationDate = args.size() > 5 ? args.get(5) : "-";
+        if (expirationDate.equals("-")) {
+            product = new Product(name, price, quantity, discount / 100);
+        } else {
+            try {
+                product = new PerishableProduct(name, price, quantity, expirationDate, discount / 100);
+            } catch (DateTimeParseException e) {
+                fail(lineNumber, "invalid expiration date \"" + expirationDate + "\", use YYYY-MM-DD");
+                return;
+            }
+        }
+        if (args.size() > 6) {
+            product.setCategory(args.get(6));
+        }
+        pendingAdds.add(product);
+        if (pendingAdds.size() >= BATCH_SIZE) {
+            flushAdds();
+        }
+    }
+
+    private void adjust(int lineNumber, List<String> args) {
+        if (!expectArguments(lineNumber, args, 2, 2)) {
+            return;
+        }
+        int delta;
+        try {
+            delta = Integer.parseInt(args.get(2));
+        } catch (NumberFormatException e) {
+            fail(lineNumber, "invalid number " + e.getMessage());
+            return;
+        }
+        if (!service.adjustQuantity(args.get(1), delta)) {
+            fail(lineNumber, "cannot adjust \"" + args.get(1) + "\": no such product or not enough stock");
+        }
+    }
+
+    private void query(int lineNumber, String name) {
+        Optional<Product> found = service.findProductByName(name);
+        if (found.isEmpty()) {
+            fail(lineNumber, "no product named \"" + name + "\"");
+            return;
+        }
+        Product product = found.get();
+        LocalDate expirationDate = product instanceof PerishableProduct
+                ? ((PerishableProduct) product).getExpirationDate() : null;
+        out.println("product\t" + product.getName()
+                + "\t" + product.getPrice()
+                + "\t" + product.getQuantity()
+                + "\t" + product.getDiscount()
+                + "\t" + (expirationDate != null ? expirationDate : "-")
+                + "\t" + (product.getCategory() != null ? product.getCategory() : "-"));
+    }
+
+    private void flush() {
+        flushAdds();
+        flushRemovals();
+    }
+
+    private void flushAdds() {
+        if (!pendingAdds.isEmpty()) {
+            service.addProducts(pendingAdds);
+            pendingAdds.clear();
+        }
+    }
+
+    private void flushRemovals() {
+        if (pendingRemovals.isEmpty()) {
+            return;
+        }
+        Set<Integer> wanted = new HashSet<>();
+        for (Removal removal : pendingRemovals) {
+            removal.foldedNameId = NameDictionary.global().lookupFoldedId(removal.name);
+            if (removal.foldedNameId != NameDictionary.NO_NAME) {
+                wanted.add(removal.foldedNameId);
+            }
+        }
+        // The filter runs on this thread, so it can note which names it matched
+        Set<Integer> matched = new HashSet<>();
+        if (!wanted.isEmpty()) {
+            service.removeIf(product -> {
+                int foldedNameId = product.getFoldedNameId();
+                if (wanted.contains(foldedNameId)) {
+                    matched.add(foldedNameId);
+                    return true;
+                }
+                return false;
+            });
+        }
+        // As if run one by one: a name's first removal takes all its products, later ones find none
+        for (Removal removal : pendingRemovals) {
+            if (!matched.remove(removal.foldedNameId)) {
+                fail(removal.lineNumber, "no product named \"" + removal.name + "\"");
+            }
+        }
+        pendingRemovals.clear();
+    }
+
+    private boolean expectArguments(int lineNumber, List<String> args, int min, int max) {
+        int count = args.size() - 1;
+        if (count < min || count > max) {
+            fail(lineNumber, args.get(0) + " takes " + (min == max ? min : min + " to " + max)
+                    + " arguments, got " + count);
+            return false;
+        }
+        return true;
+    }
+
+    private void fail(int lineNumber, String reason) {
+        failures++;
+        err.println("line " + lineNumber + ": " + reason);
+    }
+
+    /**
+     * Splits a command at whitespace, keeping double-quoted parts together
+     * @return The words, or null if a quote is not closed
+     */
+    static List<String> tokenize(String line) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        boolean quoted = false;
+        boolean inWord = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                inWord = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inWord) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                    inWord = false;
+                }
+            } else {
+                word.append(c);
+                inWord = true;
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        if (inWord) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    /**
+     * A remove command waiting for its batch
+     */
+    private static final class Removal {
+        private final int lineNumber;
+        private final String name;
+        private int foldedNameId;
+
+        private Removal(int lineNumber, String name) {
+            this.lineNumber = lineNumber;
+            this.name = name;
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.store;
 
 import com.store.model.Product;
 import com.store.model.PerishableProduct;
-import com.store.service.StoreService;
+import com.store.server.InventoryConnection;
+import com.store.service.ProductManager;
 import com.store.util.InventoryFileManager;
+import com.store.util.StartupTimer;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -12,7 +14,7 @@ import java.time.format.DateTimeParseException;
 import java.util.Scanner;
 
 public class Main {
-    private static final StoreService storeService = new StoreService();
+    private static final ProductManager productManager = InventoryConnection.productManager();
     private static final Scanner scanner = new Scanner(System.in);
     private static final int MAX_RETRY_ATTEMPTS = 3;
 
@@ -36,6 +38,7 @@ public class Main {
         try {
             while (running) {
                 displayMenu();
+                StartupTimer.mark("first prompt");
                 int choice = getIntInput("Enter your selection: ", 1, 6);
 
                 switch (choice) {
@@ -80,9 +83,12 @@ public class Main {
         clearScreen();
         printHeader();
 
+        // Pick up changes saved by other instances (e.g. the GUI) since the last menu
+        InventoryConnection.refresh();
+
         // Display inventory status
-        int itemCount = storeService.getInventory().size();
-        BigDecimal totalValue = storeService.getTotalGrossPrice();  // Changed from double to BigDecimal
+        int itemCount = productManager.getInventory().size();
+        BigDecimal totalValue = productManager.getTotalGrossPrice();  // Changed from double to BigDecimal
         System.out.println("┌─────────────────────────────────────────────────────┐");
         System.out.printf("│ %s Current Inventory: %d items (Total value: $%s) %s│%n",
                 YELLOW, itemCount, totalValue.toString(), RESET);  // Changed %.2f to %s
@@ -139,9 +145,9 @@ public class Main {
         System.out.print("Is this a perishable product? (y/n): ");
         if (scanner.nextLine().trim().toLowerCase().startsWith("y")) {
             String expirationDate = getDateInput("Enter expiration date (YYYY-MM-DD): ");
-            storeService.addProduct(new PerishableProduct(name, price, quantity, expirationDate, discount));
+            productManager.addProduct(new PerishableProduct(name, price, quantity, expirationDate, discount));
         } else {
-            storeService.addProduct(new Product(name, price, quantity, discount));
+            productManager.addProduct(new Product(name, price, quantity, discount));
         }
         System.out.println(GREEN + "Product added successfully!" + RESET);
         pressEnterToContinue();
@@ -154,7 +160,7 @@ public class Main {
         System.out.println(GREEN + "└─────────────────────────────────┘" + RESET);
         System.out.println();
 
-        var inventory = storeService.getInventory();
+        var inventory = productManager.getInventory();
 
         if (inventory.isEmpty()) {
             System.out.println(YELLOW + "Inventory is empty." + RESET);
@@ -193,7 +199,7 @@ public class Main {
         String name = getStringInput("Enter product name to search: ");
         System.out.println("\nSearch Results:");
         System.out.println("---------------");
-        storeService.findProductByName(name)
+        productManager.findProductByName(name)
                 .ifPresentOrElse(
                         product -> System.out.println(product),
                         () -> System.out.println(YELLOW + "Product not found." + RESET)
@@ -209,24 +215,24 @@ public class Main {
         System.out.println(GREEN + "└─────────────────────────────────┘" + RESET);
         System.out.println();
         
-        System.out.println("Total Quantity: " + storeService.getTotalQuantity());
-        System.out.println("Total Gross Price: $" + storeService.getTotalGrossPrice());
-        System.out.println("Total Price With Perishable Discount: $" + storeService.getTotalPriceWithPerishableDiscount());
-        System.out.println("Total Price with additional 15% discount: $" + storeService.getTotalNetPriceWithDiscount());
+        System.out.println("Total Quantity: " + productManager.getTotalQuantity());
+        System.out.println("Total Gross Price: $" + productManager.getTotalGrossPrice());
+        System.out.println("Total Price With Perishable Discount: $" + productManager.getTotalPriceWithPerishableDiscount());
+        System.out.println("Total Price with additional 15% discount: $" + productManager.getTotalNetPriceWithDiscount());
         
         pressEnterToContinue();
     }
 
     private static void removeProduct() {
         viewInventory();
-        var inventory = storeService.getInventory();
+        var inventory = productManager.getInventory();
 
         if (inventory.isEmpty()) {
             return;
         }
 
         int index = getIntInput("Enter the index of the product to remove: ", 0, inventory.size() - 1);
-        storeService.removeProduct(index);
+        productManager.removeProduct(index);
         System.out.println(GREEN + "Product removed successfully!" + RESET);
         pressEnterToContinue();
     }
@@ -330,8 +336,8 @@ public class Main {
             System.out.println("Scanner closed.");
         }
         
-        if (storeService != null) {
-            storeService.saveAndCloseInventory();
+        if (productManager != null) {
+            InventoryConnection.saveAndClose();
             System.out.println("Inventory saved and file resources released.");
         }
         
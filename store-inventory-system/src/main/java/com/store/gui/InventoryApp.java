@@ -2,36 +2,73 @@ package com.store.gui;
 
 import com.store.model.PerishableProduct;
 import com.store.model.Product;
+import com.store.server.InventoryConnection;
+import com.store.service.AsyncProductManager;
+import com.store.service.CategoryRollup;
+import com.store.service.ExpiryScheduler;
+import com.store.service.ExpiryStage;
+import com.store.service.InventoryExporter;
+import com.store.service.InventoryImporter;
+import com.store.service.InventoryValueReport;
+import com.store.service.ProductManager;
+import com.store.service.ProductSort;
+import com.store.service.SalesProjection;
 import com.store.service.StoreService;
+import com.store.util.StartupTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.StringConverter;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
-import javafx.beans.property.SimpleObjectProperty;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 public class InventoryApp extends Application {
 
-    // Use the singleton instance instead of creating a new one
-    private final StoreService storeService = StoreService.getInstance();
+    // Row style classes by ExpiryStage ordinal; FRESH rows are not highlighted
+    private static final List<String> EXPIRY_STYLE_CLASSES =
+            List.of("expiry-fresh", "expiry-soon", "expiry-imminent", "expiry-expired");
+    // Selling products listed in the sales projection dialog
+    private static final int SALES_PROJECTION_ROWS = 200;
+
+    // Shared with the console: the inventory daemon if one is running, otherwise the local singleton.
+    // Set on the FX thread once the launcher's background load finished; null until then
+    private ProductManager productManager;
+    // Runs everything that may block (saves, daemon calls) off the FX thread
+    private AsyncProductManager asyncProducts;
+    private ProgressIndicator savingIndicator;
+    private boolean saved;
+    // Set when the console takes over the inventory in memory, which makes saving on exit unnecessary
+    private boolean handedOver;
     private TableView<Product> productTable;
-    private final ObservableList<Product> productData = FXCollections.observableArrayList();
+    // Follows inventory changes incrementally and pages rows in as they are shown
+    private InventoryTableModel tableModel;
 
     // Form fields
     private TextField nameField;
@@ -50,6 +87,22 @@ public class InventoryApp extends Application {
     // Summary section visibility control
     private VBox summaryBox;
     private boolean summaryVisible = false;
+    // Totals behind the summary labels; only followed while the summary is shown
+    private InventorySummaryModel summaryModel;
+    private boolean summaryRequested;
+    // Keeps per-product values between report runs
+    private InventoryValueReport valueReport;
+    // Only a local inventory records sales; null when connected to another process
+    private SalesProjection salesProjection;
+    
+    // Display strings of the products in the table, made once per product rather than per redraw
+    private final ProductDisplayCache displayCache = new ProductDisplayCache();
+    
+    // Knows each perishable product's expiry stage, so rows are highlighted without date math
+    private ExpiryScheduler expiryScheduler;
+    private boolean highlightExpiring = true;
+    private final AtomicBoolean expiryRefreshScheduled = new AtomicBoolean();
+    private Runnable expiryReportUpdate; // Refreshes the open expiration report, if any
 
     @Override
     public void start(Stage primaryStage) {
@@ -57,18 +110,12 @@ public class InventoryApp extends Application {
             BorderPane root = new BorderPane();
             root.setPadding(new Insets(10));
             
-            // Create main sections
-            VBox leftPanel = createLeftPanel();
-            VBox centerPanel = createCenterPanel();
-            HBox topPanel = createTopPanel();
-            
-            root.setLeft(leftPanel);
-            root.setCenter(centerPanel);
-            root.setTop(topPanel);
-            
-            // Load data
-            refreshTableData();
-            updateSummary();
+            // Show the window right away; the inventory may still be loading in the background
+            ProgressIndicator loadingIndicator = new ProgressIndicator();
+            loadingIndicator.setMaxSize(48, 48);
+            VBox loadingBox = new VBox(10, loadingIndicator, new Label("Loading inventory..."));
+            loadingBox.setAlignment(Pos.CENTER);
+            root.setCenter(loadingBox);
             
             Scene scene = new Scene(root, 1000, 700);
             scene.getStylesheets().add(getClass().getResource("/css/styles.css").toExternalForm());
@@ -76,38 +123,120 @@ public class InventoryApp extends Application {
             primaryStage.setTitle("Store Inventory Management System");
             primaryStage.setScene(scene);
             
-            // Simplified window close handler
-            primaryStage.setOnCloseRequest(event -> saveInventory());
+            // Log when the first frame is laid out, which only happens once the window is shown
+            scene.addPostLayoutPulseListener(new Runnable() {
+                @Override
+                public void run() {
+                    scene.removePostLayoutPulseListener(this);
+                    StartupTimer.mark("first frame");
+                }
+            });
             
             primaryStage.show();
             System.out.println("GUI window displayed successfully");
+            
+            // Fill the window once the inventory is there
+            InventoryConnection.productManagerFuture().whenComplete((manager, error) -> Platform.runLater(() -> {
+                if (error != null) {
+                    handleError("Error loading inventory", error, true);
+                } else {
+                    showInventory(primaryStage, root, manager);
+                }
+            }));
         } catch (Exception e) {
             handleError("Error initializing GUI", e, true);
         }
     }
     
     /**
-     * Helper method to save inventory with proper error handling
+     * Builds the inventory views in the shown window. Runs on the FX thread.
      */
-    private void saveInventory() {
+    private void showInventory(Stage primaryStage, BorderPane root, ProductManager manager) {
         try {
-            // Only save if we have products to save
-            if (!productData.isEmpty()) {
-                storeService.saveAndCloseInventory();
-                System.out.println("Inventory saved successfully: " + productData.size() + " products");
-            } else {
-                System.out.println("WARNING: Product data is empty! Not overwriting inventory file.");
+            productManager = manager;
+            asyncProducts = new AsyncProductManager(productManager, Platform::runLater);
+            
+            // Load data
+            tableModel = new InventoryTableModel(productManager);
+            summaryModel = new InventorySummaryModel(productManager);
+            valueReport = new InventoryValueReport(productManager);
+            if (productManager instanceof StoreService && ((StoreService) productManager).getSalesLedger() != null) {
+                salesProjection = new SalesProjection((StoreService) productManager);
             }
+            expiryScheduler = new ExpiryScheduler(productManager);
+            expiryScheduler.addListener(event -> scheduleExpiryRefresh());
+            expiryScheduler.start();
+            
+            // Create main sections
+            VBox leftPanel = createLeftPanel();
+            VBox centerPanel = createCenterPanel();
+            HBox topPanel = createTopPanel();
+            
+            root.setLeft(leftPanel);
+            root.setCenter(centerPanel);
+            root.setTop(new VBox(new InventoryMenuBar(this, primaryStage), topPanel));
+            
+            // Keep the window open until the inventory is saved, without blocking the UI
+            primaryStage.setOnCloseRequest(event -> {
+                event.consume();
+                saveInventory().whenComplete((ignored, error) -> primaryStage.close());
+            });
+            
+            // Show changes other instances saved while the window was in the background
+            primaryStage.focusedProperty().addListener((obs, wasFocused, focused) -> {
+                if (focused) {
+                    refreshFromOtherProcesses();
+                }
+            });
+            System.out.println(InventoryConnection.isRemote() ? "Showing the inventory of the daemon"
+                    : "Showing " + productManager.getInventory().size() + " products");
         } catch (Exception e) {
-            handleError("CRITICAL ERROR: Failed to save inventory", e, true);
+            handleError("Error initializing GUI", e, true);
+        }
+    }
+    
+    /**
+     * Saves the inventory in the background, with proper error handling
+     * @return A future completed on the FX thread once the save finished
+     */
+    private CompletableFuture<Void> saveInventory() {
+        // Only save if we have products to save
+        List<Product> products = tableModel.getProducts();
+        if (products.isEmpty()) {
+            System.out.println("WARNING: Product data is empty! Not overwriting inventory file.");
+            return CompletableFuture.completedFuture(null);
         }
+        int count = products.size();
+        return asyncProducts.run(InventoryConnection::saveAndClose).whenComplete((ignored, error) -> {
+            if (error != null) {
+                handleError("CRITICAL ERROR: Failed to save inventory", error, true);
+            } else {
+                saved = true;
+                System.out.println("Inventory saved successfully: " + count + " products");
+            }
+        });
     }
     
     @Override
     public void stop() throws Exception {
         // This method is called when the application is stopping
         System.out.println("JavaFX application stop() method called, ensuring inventory is saved...");
-        saveInventory();
+        if (asyncProducts != null) {
+            if (!saved && !handedOver) {
+                saveInventory();
+            }
+            // The window is gone, so waiting for pending I/O no longer stalls anything
+            asyncProducts.close();
+        }
+        if (tableModel != null) {
+            tableModel.close();
+        }
+        if (summaryModel != null) {
+            summaryModel.close();
+        }
+        if (expiryScheduler != null) {
+            expiryScheduler.close();
+        }
         super.stop();
     }
     
@@ -142,7 +271,17 @@ public class InventoryApp extends Application {
         titleContainer.setEffect(new javafx.scene.effect.DropShadow(
             4, 0, 2, Color.rgb(0, 0, 0, 0.2)));
         
-        HBox topPanel = new HBox(titleContainer);
+        // Shown while changes are being written
+        savingIndicator = new ProgressIndicator();
+        savingIndicator.setPrefSize(24, 24);
+        savingIndicator.setVisible(false);
+        savingIndicator.setTooltip(new Tooltip("Saving inventory..."));
+        asyncProducts.setPendingListener(count -> savingIndicator.setVisible(count > 0));
+        
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox topPanel = new HBox(10, titleContainer, spacer, savingIndicator);
+        topPanel.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
         topPanel.setPadding(new Insets(10, 0, 20, 0));
         return topPanel;
     }
@@ -216,6 +355,10 @@ public class InventoryApp extends Application {
         totalGrossPriceValue = createStyledLabel("$0.00");
         totalPerishablePriceValue = createStyledLabel("$0.00");
         totalNetPriceValue = createStyledLabel("$0.00");
+        totalQuantityValue.textProperty().bind(summaryModel.totalQuantityProperty());
+        totalGrossPriceValue.textProperty().bind(summaryModel.totalGrossPriceProperty());
+        totalPerishablePriceValue.textProperty().bind(summaryModel.totalPerishablePriceProperty());
+        totalNetPriceValue.textProperty().bind(summaryModel.totalNetPriceProperty());
         
         // Create grid for summary
         GridPane summaryGrid = new GridPane();
@@ -266,30 +409,39 @@ public class InventoryApp extends Application {
         productTable = new TableView<>();
         productTable.setPlaceholder(new Label("No products in inventory"));
         
-        // Define columns using our helper methods
-        TableColumn<Product, String> nameCol = createStyledColumn("Name", "name", 150);
-        TableColumn<Product, BigDecimal> priceCol = createStyledColumn("Price", "price", 100);
-        TableColumn<Product, Integer> quantityCol = createStyledColumn("Quantity", "quantity", 100);
+        // Every column shows the product itself, drawn from strings made once per product
+        TableColumn<Product, Product> nameCol = createTextColumn("Name", 150, ProductDisplayCache.Display::name);
+        TableColumn<Product, Product> priceCol = createTextColumn("Price", 100, ProductDisplayCache.Display::price);
+        TableColumn<Product, Product> quantityCol =
+                createTextColumn("Quantity", 100, ProductDisplayCache.Display::quantity);
+        TableColumn<Product, Product> discountCol =
+                createTextColumn("Discount", 100, ProductDisplayCache.Display::discount);
+        TableColumn<Product, Product> expirationCol =
+                createTextColumn("Expiration Date", 150, ProductDisplayCache.Display::expirationDate);
+        TableColumn<Product, Product> totalValueCol =
+                createTextColumn("Total Value", 120, ProductDisplayCache.Display::totalValue);
+        TableColumn<Product, Product> categoryCol =
+                createTextColumn("Category", 140, ProductDisplayCache.Display::category);
         
-        TableColumn<Product, BigDecimal> discountCol = createStyledColumn("Discount", "discount", 100);
-        discountCol.setCellFactory(column -> createPercentageCell());
-        
-        TableColumn<Product, LocalDate> expirationCol = createStyledColumn("Expiration Date", null, 150);
-        expirationCol.setCellValueFactory(cellData -> {
-            Product product = cellData.getValue();
-            if (product instanceof PerishableProduct) {
-                return new SimpleObjectProperty<>(((PerishableProduct) product).getExpirationDate());
+        // Sorting is done by the service's sort indexes, so only visible rows are fetched
+        nameCol.setUserData(ProductSort.NAME);
+        priceCol.setUserData(ProductSort.PRICE);
+        quantityCol.setUserData(ProductSort.QUANTITY);
+        discountCol.setUserData(ProductSort.DISCOUNT);
+        expirationCol.setUserData(ProductSort.EXPIRATION_DATE);
+        totalValueCol.setUserData(ProductSort.TOTAL_VALUE);
+        categoryCol.setUserData(ProductSort.CATEGORY);
+        productTable.setSortPolicy(table -> {
+            PagedProductList products = tableModel.getProducts();
+            if (table.getSortOrder().isEmpty()) {
+                products.setSort(ProductSort.INVENTORY_ORDER, true);
+            } else {
+                TableColumn<Product, ?> column = table.getSortOrder().get(0);
+                products.setSort((ProductSort) column.getUserData(),
+                        column.getSortType() == TableColumn.SortType.ASCENDING);
             }
-            return new SimpleObjectProperty<>(null);
+            return true;
         });
-        expirationCol.setCellFactory(column -> createDateCell());
-        
-        TableColumn<Product, String> totalValueCol = createStyledColumn("Total Value", null, 120);
-        totalValueCol.setCellValueFactory(cellData -> {
-            Product product = cellData.getValue();
-            return new SimpleObjectProperty<>(product.getTotalValue().toString());
-        });
-        totalValueCol.setCellFactory(column -> createCurrencyCell());
         
         // Add columns individually to avoid type safety warning with varargs
         productTable.getColumns().add(nameCol);
@@ -298,8 +450,25 @@ public class InventoryApp extends Application {
         productTable.getColumns().add(discountCol);
         productTable.getColumns().add(expirationCol);
         productTable.getColumns().add(totalValueCol);
+        productTable.getColumns().add(categoryCol);
+        
+        productTable.setItems(tableModel.getProducts());
+        // Several products can be given a category at once
+        productTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         
-        productTable.setItems(productData);
+        // Expiry stages are looked up, not computed, when a row is drawn
+        productTable.setRowFactory(table -> new TableRow<>() {
+            @Override
+            protected void updateItem(Product product, boolean empty) {
+                super.updateItem(product, empty);
+                getStyleClass().removeAll(EXPIRY_STYLE_CLASSES);
+                ExpiryStage stage = empty || product == null || !highlightExpiring
+                        ? null : expiryScheduler.stageOf(product);
+                if (stage != null && stage != ExpiryStage.FRESH) {
+                    getStyleClass().add(EXPIRY_STYLE_CLASSES.get(stage.ordinal()));
+                }
+            }
+        });
         
         centerPanel.getChildren().add(productTable);
         VBox.setVgrow(productTable, Priority.ALWAYS);
@@ -308,65 +477,23 @@ public class InventoryApp extends Application {
     }
     
     /**
-     * Creates a styled TableColumn with a standardized cell factory
+     * Creates a column whose cells show one of the product's cached display strings.
+     * Cells and their text function are made once; redrawing a cell only looks up
+     * the product's strings, so scrolling does not allocate.
      */
-    private <S, T> TableColumn<S, T> createStyledColumn(String title, String propertyName, int prefWidth) {
-        TableColumn<S, T> column = new TableColumn<>(title);
-        column.setCellValueFactory(new PropertyValueFactory<>(propertyName));
-        column.setPrefWidth(prefWidth);
-        return column;
-    }
-    
-    /**
-     * Creates a standard TableCell for currency display
-     */
-    private <S> TableCell<S, String> createCurrencyCell() {
-        return new TableCell<>() {
-            @Override
-            protected void updateItem(String value, boolean empty) {
-                super.updateItem(value, empty);
-                if (empty || value == null) {
-                    setText(null);
-                } else {
-                    setText("$" + value);
-                }
-            }
-        };
-    }
-    
-    /**
-     * Creates a standard TableCell for percentage display
-     */
-    private <S> TableCell<S, BigDecimal> createPercentageCell() {
-        return new TableCell<>() {
-            @Override
-            protected void updateItem(BigDecimal discount, boolean empty) {
-                super.updateItem(discount, empty);
-                if (empty || discount == null) {
-                    setText(null);
-                } else {
-                    // Format discount as percentage
-                    setText(discount.multiply(BigDecimal.valueOf(100)) + "%");
-                }
-            }
-        };
-    }
-    
-    /**
-     * Creates a standard TableCell for date display
-     */
-    private <S> TableCell<S, LocalDate> createDateCell() {
-        return new TableCell<>() {
+    private TableColumn<Product, Product> createTextColumn(String title, int prefWidth,
+            Function<ProductDisplayCache.Display, String> text) {
+        TableColumn<Product, Product> column = new TableColumn<>(title);
+        column.setCellValueFactory(cellData -> displayCache.valueOf(cellData.getValue()));
+        column.setCellFactory(col -> new TableCell<>() {
             @Override
-            protected void updateItem(LocalDate date, boolean empty) {
-                super.updateItem(date, empty);
-                if (empty || date == null) {
-                    setText(null);
-                } else {
-                    setText(date.format(DateTimeFormatter.ISO_LOCAL_DATE));
-                }
+            protected void updateItem(Product product, boolean empty) {
+                super.updateItem(product, empty);
+                setText(empty || product == null ? null : text.apply(displayCache.of(product)));
             }
-        };
+        });
+        column.setPrefWidth(prefWidth);
+        return column;
     }
     
     public void showAddProductForm() {
@@ -393,6 +520,8 @@ public class InventoryApp extends Application {
         quantityField.setPromptText("Enter quantity (e.g., 50)");
         discountField = new TextField();
         discountField.setPromptText("Enter discount percentage (e.g., 10)");
+        TextField categoryField = new TextField();
+        categoryField.setPromptText("Optional, e.g. Food/Dairy");
         perishableCheckBox = new CheckBox("Perishable Product");
         expirationDatePicker = new DatePicker();
         expirationDatePicker.setPromptText("Select expiration date (YYYY-MM-DD)");
@@ -434,6 +563,8 @@ public class InventoryApp extends Application {
         grid.add(perishableCheckBox, 0, 4, 2, 1);
         grid.add(new Label("Expiration Date:"), 0, 5);
         grid.add(expirationDatePicker, 1, 5);
+        grid.add(new Label("Category:"), 0, 6);
+        grid.add(categoryField, 1, 6);
         
         dialog.getDialogPane().setContent(grid);
         
@@ -454,17 +585,20 @@ public class InventoryApp extends Application {
                         return null;
                     }
                     
+                    Product product;
                     if (perishableCheckBox.isSelected()) {
                         LocalDate expirationDate = expirationDatePicker.getValue();
                         if (expirationDate == null) {
                             showAlert("Error", "Please select an expiration date.");
                             return null;
                         }
-                        return new PerishableProduct(name, price, quantity, 
+                        product = new PerishableProduct(name, price, quantity, 
                                 expirationDate.toString(), discount);
                     } else {
-                        return new Product(name, price, quantity, discount);
+                        product = new Product(name, price, quantity, discount);
                     }
+                    product.setCategory(categoryField.getText());
+                    return product;
                 } catch (NumberFormatException e) {
                     handleError("Invalid number format in product form", e, true);
                     return null;
@@ -476,27 +610,503 @@ public class InventoryApp extends Application {
         // Show the dialog and process the result
         Optional<Product> result = dialog.showAndWait();
         
-        result.ifPresent(product -> {
-            try {
-                storeService.addProduct(product);
+        result.ifPresent(product -> asyncProducts.addProduct(product).whenComplete((ignored, error) -> {
+            if (error != null) {
+                handleError("Failed to add product", error, true);
+            } else {
                 refreshTableData();
                 updateSummary();
-            } catch (Exception e) {
-                handleError("Failed to add product", e, true);
             }
+        }));
+    }
+    
+    /**
+     * Picks up changes other processes made to the inventory. Reading the file or
+     * asking the daemon runs in the background; the table is reloaded afterwards.
+     */
+    private void refreshFromOtherProcesses() {
+        asyncProducts.call(manager -> {
+            // A local inventory publishes merged changes itself; a remote one is checked
+            boolean merged = InventoryConnection.refresh();
+            boolean remoteChanged = tableModel.checkForChanges();
+            if (remoteChanged) {
+                expiryScheduler.refresh();
+            }
+            return new boolean[] {merged, remoteChanged};
+        }).whenComplete((changed, error) -> {
+            if (error != null) {
+                handleError("Failed to refresh inventory", error, false);
+                return;
+            }
+            if (changed[1]) {
+                tableModel.reloadChanged();
+            }
+            if (changed[0] || changed[1]) {
+                updateSummary();
+            }
+            // Catch up if the machine slept through midnight
+            expiryScheduler.advanceTo(LocalDate.now());
         });
     }
     
+    /**
+     * Shows the whole inventory again. Changes reach the table on their own;
+     * only a remote inventory needs to be checked.
+     */
     public void refreshTableData() {
-        productData.clear();
-        productData.addAll(storeService.getInventory());
+        tableModel.getProducts().showAll();
+        tableModel.refresh();
     }
     
+    /**
+     * Reads the totals of an inventory that does not publish its changes.
+     * A local inventory keeps the summary up to date on its own, and nothing
+     * is read while the summary is hidden.
+     */
     public void updateSummary() {
-        totalQuantityValue.setText(String.valueOf(storeService.getTotalQuantity()));
-        totalGrossPriceValue.setText("$" + storeService.getTotalGrossPrice());
-        totalPerishablePriceValue.setText("$" + storeService.getTotalPriceWithPerishableDiscount());
-        totalNetPriceValue.setText("$" + storeService.getTotalNetPriceWithDiscount());
+        if (!summaryVisible || summaryModel.isFollowingChanges() || summaryRequested) {
+            return;
+        }
+        // Totals of a remote inventory are a round trip to the daemon; one at a time is enough
+        summaryRequested = true;
+        asyncProducts.call(manager -> new BigDecimal[] {
+                BigDecimal.valueOf(manager.getTotalQuantity()),
+                manager.getTotalGrossPrice(),
+                manager.getTotalPriceWithPerishableDiscount()
+        }).whenComplete((totals, error) -> {
+            summaryRequested = false;
+            if (error != null) {
+                handleError("Failed to update summary", error, false);
+                return;
+            }
+            summaryModel.setTotals(totals[0].intValue(), totals[1], totals[2]);
+        });
+    }
+    
+    /**
+     * Imports products from a JSON, NDJSON or CSV file in the background, showing
+     * progress and throughput while the file is read. Nothing is imported if the
+     * dialog is cancelled while the file is read. The products are then added
+     * through the I/O thread, which cancelling the dialog cannot interrupt.
+     * @param file The file to import
+     */
+    public void importProducts(File file) {
+        InventoryImporter importer = new InventoryImporter(productManager);
+        Task<InventoryImporter.Result> task = new Task<>() {
+            @Override
+            protected InventoryImporter.Result call() throws Exception {
+                // Progress updates are coalesced by the Task, so the dialog changes at most once per pulse
+                return importer.readFile(file.toPath(), progress -> {
+                    updateProgress(progress.getBytesRead(), progress.getTotalBytes());
+                    updateMessage(String.format("%,d records read (%,.0f records/s)",
+                            progress.getRecordsRead(), progress.getRecordsPerSecond()));
+                });
+            }
+        };
+        
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(300);
+        progressBar.progressProperty().bind(task.progressProperty());
+        Label status = new Label("Reading " + file.getName() + "...");
+        status.textProperty().bind(task.messageProperty());
+        Alert progressDialog = new Alert(Alert.AlertType.NONE);
+        progressDialog.setTitle("Bulk Import");
+        progressDialog.setHeaderText("Importing " + file.getName());
+        progressDialog.getDialogPane().setContent(new VBox(10, progressBar, status));
+        progressDialog.getButtonTypes().setAll(ButtonType.CANCEL);
+        progressDialog.setOnHidden(e -> task.cancel(true));
+        
+        task.setOnSucceeded(e -> {
+            progressDialog.close();
+            InventoryImporter.Result result = task.getValue();
+            asyncProducts.addProducts(result.getProducts()).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    handleError("Failed to import " + file.getName(), error, true);
+                } else {
+                    System.out.println("Imported " + result.getImportedCount() + " products from " + file
+                            + " (" + result.getRejectedCount() + " rejected)");
+                    showImportResult(result);
+                }
+            });
+        });
+        task.setOnFailed(e -> {
+            progressDialog.close();
+            handleError("Failed to import " + file.getName(), task.getException(), true);
+        });
+        task.setOnCancelled(e -> System.out.println("Import of " + file + " cancelled"));
+        
+        Thread importThread = new Thread(task, "inventory-import-reader");
+        importThread.setDaemon(true);
+        importThread.start();
+        progressDialog.show();
+    }
+    
+    /**
+     * Reports an import whose products were added
+     */
+    private void showImportResult(InventoryImporter.Result result) {
+        StringBuilder message = new StringBuilder(String.format(
+                "Imported %,d products (%,.0f records/s).", result.getImportedCount(), result.getRecordsPerSecond()));
+        if (result.getRejectedCount() > 0) {
+            message.append(String.format("%n%,d records were rejected:", result.getRejectedCount()));
+            result.getErrors().forEach(error -> message.append(System.lineSeparator()).append(error));
+        }
+        Alert done = new Alert(Alert.AlertType.INFORMATION);
+        done.setTitle("Bulk Import");
+        done.setHeaderText(null);
+        done.setContentText(message.toString());
+        done.show();
+        refreshTableData();
+        updateSummary();
+    }
+    
+    /**
+     * Exports the inventory in the background, in the format given by the file extension
+     * @param file The file to write
+     */
+    public void exportProducts(File file) {
+        asyncProducts.call(manager -> {
+            try {
+                return new InventoryExporter(manager).export(file.toPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((count, error) -> {
+            if (error != null) {
+                handleError("Failed to export " + file.getName(), error, true);
+                return;
+            }
+            Alert done = new Alert(Alert.AlertType.INFORMATION);
+            done.setTitle("Export Inventory");
+            done.setHeaderText(null);
+            done.setContentText(String.format("Exported %,d products to %s.", count, file.getName()));
+            done.show();
+        });
+    }
+    
+    /**
+     * Generates the inventory value report in the background and shows the group
+     * subtotals; the per-product lines can be saved to a CSV file.
+     */
+    public void showValueReport() {
+        asyncProducts.call(manager -> valueReport.generate()).whenComplete((report, error) -> {
+            if (error != null) {
+                handleError("Failed to generate value report", error, true);
+                return;
+            }
+            StringBuilder text = new StringBuilder(String.format("%-20s %10s %12s %14s %14s%n",
+                    "Group", "Products", "Quantity", "Gross", "Value"));
+            for (InventoryValueReport.Group group : report.getGroups()) {
+                text.append(String.format("%-20s %,10d %,12d %14s %14s%n", group.getName(), group.getProductCount(),
+                        group.getQuantity(), "$" + group.getGross(), "$" + group.getValue()));
+            }
+            text.append(String.format("%-20s %,10d %,12d %14s %14s%n", "Total", report.getLines().size(),
+                    report.getTotalQuantity(), "$" + report.getTotalGross(), "$" + report.getTotalValue()));
+            text.append(String.format("%-20s %10s %12s %14s %14s%n", "With 15% Discount", "", "", "",
+                    "$" + report.getTotalNet()));
+            
+            TextArea content = new TextArea(text.toString());
+            content.setEditable(false);
+            content.setFont(Font.font("Monospaced", 12));
+            content.setPrefColumnCount(76);
+            content.setPrefRowCount(Math.min(20, report.getGroups().size() + 4));
+            
+            ButtonType saveButton = new ButtonType("Save Full Report...", ButtonBar.ButtonData.OTHER);
+            Alert dialog = new Alert(Alert.AlertType.INFORMATION);
+            dialog.setTitle("Inventory Value Report");
+            dialog.setHeaderText("Inventory value as of " + report.getDate());
+            dialog.getDialogPane().setContent(content);
+            dialog.getButtonTypes().setAll(saveButton, ButtonType.CLOSE);
+            if (dialog.showAndWait().orElse(ButtonType.CLOSE) == saveButton) {
+                saveValueReport(report);
+            }
+        });
+    }
+    
+    private void saveValueReport(InventoryValueReport.Result report) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Value Report");
+        fileChooser.setInitialFileName("value-report-" + report.getDate() + ".csv");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+        File file = fileChooser.showSaveDialog(productTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        // Streamed line by line, however large the catalog
+        asyncProducts.run(() -> {
+            try (Writer out = Files.newBufferedWriter(file.toPath())) {
+                report.writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                handleError("Failed to save value report", error, true);
+            }
+        });
+    }
+    
+    /**
+     * Shows the category tree with the totals of every category, and lets the
+     * user categorize the selected products, rename or remove a category and
+     * show only the products of a category
+     */
+    public void showCategoryManager() {
+        TreeView<CategoryRollup> tree = new TreeView<>();
+        tree.setPrefSize(560, 360);
+        tree.setCellFactory(view -> new TreeCell<>() {
+            @Override
+            protected void updateItem(CategoryRollup rollup, boolean empty) {
+                super.updateItem(rollup, empty);
+                setText(empty || rollup == null ? null : String.format("%s  (%,d products, %,d units, $%s)",
+                        rollup.getCategory() == null ? "All Products" : rollup.getName(),
+                        rollup.getProductCount(), rollup.getQuantity(), rollup.getGrossValue()));
+            }
+        });
+        Runnable reload = () -> asyncProducts.call(manager -> categoryItem(manager, null))
+                .whenComplete((root, error) -> {
+                    if (error != null) {
+                        handleError("Failed to read categories", error, true);
+                        return;
+                    }
+                    root.setExpanded(true);
+                    tree.setRoot(root);
+                });
+        reload.run();
+        
+        Button assignButton = new Button("Categorize Selected Products...");
+        Button renameButton = new Button("Rename...");
+        Button removeButton = new Button("Remove");
+        Button showButton = new Button("Show Products");
+        // The root stands for the whole inventory; it cannot be renamed or removed
+        tree.getSelectionModel().selectedItemProperty().addListener((obs, oldItem, item) -> {
+            boolean category = item != null && item.getValue().getCategory() != null;
+            renameButton.setDisable(!category);
+            removeButton.setDisable(!category);
+        });
+        renameButton.setDisable(true);
+        removeButton.setDisable(true);
+        
+        assignButton.setOnAction(e -> {
+            List<Product> selected = List.copyOf(productTable.getSelectionModel().getSelectedItems());
+            if (selected.isEmpty()) {
+                showAlert("No Selection", "Please select the products to categorize in the table.");
+                return;
+            }
+            TreeItem<CategoryRollup> item = tree.getSelectionModel().getSelectedItem();
+            String current = item == null || item.getValue().getCategory() == null ? "" : item.getValue().getCategory();
+            TextInputDialog input = new TextInputDialog(current);
+            input.setTitle("Categorize Products");
+            input.setHeaderText("Category of " + selected.size() + " product" + (selected.size() == 1 ? "" : "s")
+                    + "; separate subcategories with /, leave empty for none");
+            input.showAndWait().ifPresent(category -> {
+                // By name, since a remote inventory updates copies of the products
+                Set<Integer> names = new HashSet<>();
+                selected.forEach(product -> names.add(product.getFoldedNameId()));
+                recategorize(product -> names.contains(product.getFoldedNameId()) ? category : product.getCategory(),
+                        reload);
+            });
+        });
+        renameButton.setOnAction(e -> {
+            String from = tree.getSelectionModel().getSelectedItem().getValue().getCategory();
+            TextInputDialog input = new TextInputDialog(from);
+            input.setTitle("Rename Category");
+            input.setHeaderText("New path of " + from + " and its subcategories");
+            input.showAndWait().ifPresent(to -> recategorize(moveCategory(from, to), reload));
+        });
+        removeButton.setOnAction(e -> {
+            String from = tree.getSelectionModel().getSelectedItem().getValue().getCategory();
+            int separator = from.lastIndexOf(Product.CATEGORY_SEPARATOR);
+            String parent = separator < 0 ? null : from.substring(0, separator);
+            Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+            confirm.setTitle("Remove Category");
+            confirm.setHeaderText(null);
+            confirm.setContentText("Move the products of " + from + " and its subcategories to "
+                    + (parent == null ? "no category" : parent) + "?");
+            if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
+                recategorize(moveCategory(from, parent), reload);
+            }
+        });
+        showButton.setOnAction(e -> {
+            TreeItem<CategoryRollup> item = tree.getSelectionModel().getSelectedItem();
+            if (item == null || item.getValue().getCategory() == null) {
+                refreshTableData();
+                return;
+            }
+            String category = item.getValue().getCategory();
+            asyncProducts.call(manager -> manager.getInventory().stream()
+                    .filter(product -> isInCategory(product, category)).toList())
+                    .whenComplete((products, error) -> {
+                        if (error != null) {
+                            handleError("Failed to filter products", error, true);
+                        } else {
+                            tableModel.getProducts().showOnly(products);
+                        }
+                    });
+        });
+        
+        HBox buttons = new HBox(8, assignButton, renameButton, removeButton, showButton);
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("Manage Categories");
+        dialog.setHeaderText("Totals include subcategories");
+        dialog.getDialogPane().setContent(new VBox(10, tree, buttons));
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.show();
+    }
+    
+    /**
+     * Reads the rollups of a category and everything below it; off the FX thread,
+     * as a remote inventory answers each rollup by reading the whole inventory
+     */
+    private static TreeItem<CategoryRollup> categoryItem(ProductManager manager, String category) {
+        CategoryRollup rollup = manager.getCategoryRollup(category);
+        TreeItem<CategoryRollup> item = new TreeItem<>(rollup);
+        if (rollup != null) {
+            for (String subcategory : rollup.getSubcategories()) {
+                item.getChildren().add(categoryItem(manager, subcategory));
+            }
+        }
+        return item;
+    }
+    
+    private static boolean isInCategory(Product product, String category) {
+        String own = product.getCategory();
+        return own != null && (own.equals(category)
+                || own.startsWith(category) && own.charAt(category.length()) == Product.CATEGORY_SEPARATOR);
+    }
+    
+    /**
+     * @return Gives products in a category, or below it, the same place under another path
+     */
+    private static Function<Product, String> moveCategory(String from, String to) {
+        return product -> isInCategory(product, from)
+                ? (to == null ? "" : to) + product.getCategory().substring(from.length())
+                : product.getCategory();
+    }
+    
+    /**
+     * Sets the category of every product to the given one in one change
+     */
+    private void recategorize(Function<Product, String> category, Runnable done) {
+        asyncProducts.run(() -> productManager.updateAll(product -> {
+            product.setCategory(category.apply(product));
+            return product;
+        })).whenComplete((ignored, error) -> {
+            if (error != null) {
+                handleError("Failed to update categories", error, true);
+            } else {
+                done.run();
+                refreshTableData();
+            }
+        });
+    }
+    
+    /**
+     * Shows how many days each product's stock lasts at its recent rate of sales,
+     * the products running out soonest first
+     */
+    public void showSalesProjection() {
+        if (salesProjection == null) {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Sales Projection");
+            alert.setHeaderText(null);
+            alert.setContentText("Sales are recorded by the process that owns the inventory file; "
+                    + "projections are not available while connected to it.");
+            alert.showAndWait();
+            return;
+        }
+        asyncProducts.call(manager -> salesProjection.project()).whenComplete((projection, error) -> {
+            if (error != null) {
+                handleError("Failed to project sales", error, true);
+                return;
+            }
+            StringBuilder text = new StringBuilder(String.format("%-28s %10s %12s %12s %12s%n",
+                    "Product", "Stock", "7-day avg", "28-day avg", "Days left"));
+            int shown = 0;
+            int notSelling = 0;
+            for (SalesProjection.Line line : projection.getLines()) {
+                if (!line.isSelling()) {
+                    notSelling++;
+                } else if (shown++ < SALES_PROJECTION_ROWS) {
+                    text.append(String.format("%-28s %,10d %12.2f %12.2f %12.1f%n", line.getProduct().getName(),
+                            line.getQuantity(), line.getShortAverage(), line.getLongAverage(),
+                            line.getDaysRemaining()));
+                }
+            }
+            if (shown > SALES_PROJECTION_ROWS) {
+                text.append(String.format("... and %,d more selling products%n", shown - SALES_PROJECTION_ROWS));
+            }
+            text.append(String.format("%,d products without sales in the last %d days%n",
+                    notSelling, SalesProjection.LONG_WINDOW_DAYS));
+            
+            TextArea content = new TextArea(text.toString());
+            content.setEditable(false);
+            content.setFont(Font.font("Monospaced", 12));
+            content.setPrefColumnCount(80);
+            content.setPrefRowCount(Math.min(20, Math.min(shown, SALES_PROJECTION_ROWS) + 3));
+            
+            Alert dialog = new Alert(Alert.AlertType.INFORMATION);
+            dialog.setTitle("Sales Projection");
+            dialog.setHeaderText("Days of stock remaining at recent sales, as of " + projection.getDate());
+            dialog.getDialogPane().setContent(content);
+            dialog.show();
+        });
+    }
+    
+    /**
+     * Turns the highlighting of expiring and expired products on or off
+     */
+    public void setHighlightExpiring(boolean highlight) {
+        highlightExpiring = highlight;
+        productTable.refresh();
+    }
+    
+    /**
+     * Shows the perishable products expiring within 7 days or expired. The list
+     * stays up to date while it is open.
+     */
+    public void showExpirationReport() {
+        ListView<String> list = new ListView<>();
+        list.setPrefSize(560, 320);
+        list.setPlaceholder(new Label("No products expire within 7 days"));
+        expiryReportUpdate = () -> {
+            List<String> lines = new ArrayList<>();
+            for (ExpiryScheduler.Event entry : expiryScheduler.getExpiringProducts()) {
+                long daysLeft = entry.getDaysLeft();
+                String when = daysLeft > 1 ? "in " + daysLeft + " days"
+                        : daysLeft == 1 ? "tomorrow"
+                        : daysLeft == 0 ? "today"
+                        : -daysLeft + " day" + (daysLeft == -1 ? "" : "s") + " ago";
+                lines.add(String.format("%-28s %-22s %s (%s)", entry.getProduct().getName(),
+                        entry.getCurrent().getDescription(), entry.getProduct().getExpirationDate(), when));
+            }
+            list.getItems().setAll(lines);
+        };
+        expiryReportUpdate.run();
+        
+        Alert dialog = new Alert(Alert.AlertType.INFORMATION);
+        dialog.setTitle("Expiration Report");
+        dialog.setHeaderText("Perishable products expiring within 7 days, as of " + expiryScheduler.getDate());
+        dialog.getDialogPane().setContent(list);
+        dialog.setOnHidden(e -> expiryReportUpdate = null);
+        dialog.show();
+    }
+    
+    /**
+     * Redraws the rows and the expiration report once per pulse after stage changes
+     */
+    private void scheduleExpiryRefresh() {
+        if (expiryRefreshScheduled.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                expiryRefreshScheduled.set(false);
+                if (productTable != null) {
+                    productTable.refresh();
+                }
+                if (expiryReportUpdate != null) {
+                    expiryReportUpdate.run();
+                }
+            });
+        }
     }
     
     private void showSearchDialog() {
@@ -507,27 +1117,31 @@ public class InventoryApp extends Application {
         
         Optional<String> result = dialog.showAndWait();
         
-        result.ifPresent(name -> {
-            Optional<Product> product = storeService.findProductByName(name);
-            if (product.isPresent()) {
-                // Filter table to show only this product
-                productData.clear();
-                productData.add(product.get());
-            } else {
-                showAlert("Product Not Found", "No product found with name: " + name);
-                refreshTableData();
-            }
-        });
+        result.ifPresent(name -> asyncProducts.call(manager -> manager.findProductByName(name))
+                .whenComplete((product, error) -> {
+                    if (error != null) {
+                        handleError("Failed to search for product", error, true);
+                    } else if (product.isPresent()) {
+                        // Filter table to show only this product
+                        tableModel.getProducts().showOnly(List.of(product.get()));
+                    } else {
+                        showAlert("Product Not Found", "No product found with name: " + name);
+                        refreshTableData();
+                    }
+                }));
     }
     
     private void removeSelectedProduct() {
-        Product selectedProduct = productTable.getSelectionModel().getSelectedItem();
-        if (selectedProduct != null) {
+        // Copy the selection, which changes as soon as rows are removed
+        List<Product> selectedProducts = List.copyOf(productTable.getSelectionModel().getSelectedItems());
+        if (!selectedProducts.isEmpty()) {
             // Create confirmation dialog to give the user a chance to change their mind
             Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
             confirmAlert.setTitle("Confirm Removal");
             confirmAlert.setHeaderText("Remove Product Confirmation");
-            confirmAlert.setContentText("Are you sure you want to remove \"" + selectedProduct.getName() + "\"?");
+            confirmAlert.setContentText(selectedProducts.size() == 1
+                    ? "Are you sure you want to remove \"" + selectedProducts.get(0).getName() + "\"?"
+                    : "Are you sure you want to remove the " + selectedProducts.size() + " selected products?");
             
             // Add Yes/No buttons
             ButtonType yesButton = new ButtonType("Yes", ButtonBar.ButtonData.YES);
@@ -538,12 +1152,15 @@ public class InventoryApp extends Application {
             
             // Only proceed if user confirms with "Yes"
             if (result.isPresent() && result.get() == yesButton) {
-                int index = storeService.getInventory().indexOf(selectedProduct);
-                if (index >= 0) {
-                    storeService.removeProduct(index);
-                    refreshTableData();
-                    updateSummary();
-                }
+                // All selected rows go in one change and one save
+                asyncProducts.removeProducts(selectedProducts).whenComplete((removed, error) -> {
+                    if (error != null) {
+                        handleError("Failed to remove product", error, true);
+                    } else if (removed > 0) {
+                        refreshTableData();
+                        updateSummary();
+                    }
+                });
             }
         } else {
             showAlert("No Selection", "Please select a product to remove.");
@@ -564,7 +1181,7 @@ public class InventoryApp extends Application {
      * @param e The exception that was thrown
      * @param showToUser Whether to show an alert to the user
      */
-    private void handleError(String operation, Exception e, boolean showToUser) {
+    private void handleError(String operation, Throwable e, boolean showToUser) {
         // Log the error
         System.err.println("ERROR: " + operation + ": " + e.getMessage());
         e.printStackTrace();
@@ -580,9 +1197,6 @@ public class InventoryApp extends Application {
      */
     private void switchToConsoleMode() {
         try {
-            // Save inventory before switching
-            saveInventory();
-            
             // Show confirmation dialog
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
             alert.setTitle("Switch to Console Mode");
@@ -591,6 +1205,11 @@ public class InventoryApp extends Application {
             
             Optional<ButtonType> result = alert.showAndWait();
             if (result.isPresent() && result.get() == ButtonType.OK) {
+                // The console runs in this process and continues with the same inventory
+                // (or daemon connection), so nothing is saved and reloaded in between.
+                // Every edit was already saved when it was made, and the console saves on exit.
+                handedOver = true;
+                
                 // Use our static method to notify AppLauncher to switch modes
                 com.store.AppLauncher.requestConsoleMode();
                 
@@ -611,5 +1230,7 @@ public class InventoryApp extends Application {
         summaryVisible = !summaryVisible;
         summaryBox.setVisible(summaryVisible);
         summaryBox.setManaged(summaryVisible);
+        summaryModel.setActive(summaryVisible);
+        updateSummary();
     }
 }
\ No newline at end of file
@@ -5,7 +5,7 @@ import com.store.service.StoreService;
 public class InventoryController {
     // Either use the service or mark it as unused
     @SuppressWarnings("unused")
-    private final StoreService storeService = new StoreService();
+    private final StoreService storeService = StoreService.getInstance();
     
     // Methods for the controller will be added here
 }
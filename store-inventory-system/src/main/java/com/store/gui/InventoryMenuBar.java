@@ -3,6 +3,7 @@ package com.store.gui;
 import javafx.scene.control.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 
 import java.io.File;
 
@@ -35,38 +36,26 @@ public class InventoryMenuBar extends MenuBar {
         MenuItem exportItem = new MenuItem("Export Inventory...");
         MenuItem exitItem = new MenuItem("Exit");
         
-        // Import action
-        importItem.setOnAction(e -> {
-            FileChooser fileChooser = new FileChooser();
-            fileChooser.setTitle("Import Inventory File");
-            fileChooser.getExtensionFilters().addAll(
-                    new FileChooser.ExtensionFilter("JSON Files", "*.json"),
-                    new FileChooser.ExtensionFilter("All Files", "*.*")
-            );
-            File file = fileChooser.showOpenDialog(stage);
-            if (file != null) {
-                // Using refreshTableData instead of undefined importInventoryFromFile
-                app.refreshTableData();
-            }
-        });
+        // Import action: adds the file's products to the inventory
+        importItem.setOnAction(e -> chooseImportFile("Import Inventory File"));
         
-        // Export action
+        // Export action: the chosen extension selects the format
         exportItem.setOnAction(e -> {
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Export Inventory File");
             fileChooser.getExtensionFilters().addAll(
                     new FileChooser.ExtensionFilter("JSON Files", "*.json"),
-                    new FileChooser.ExtensionFilter("All Files", "*.*")
+                    new FileChooser.ExtensionFilter("NDJSON Files", "*.ndjson", "*.jsonl"),
+                    new FileChooser.ExtensionFilter("CSV Files", "*.csv")
             );
             File file = fileChooser.showSaveDialog(stage);
             if (file != null) {
-                // Using updateSummary instead of undefined exportInventoryToFile
-                app.updateSummary();
+                app.exportProducts(file);
             }
         });
         
-        // Exit action
-        exitItem.setOnAction(e -> System.exit(0));
+        // Exit action: close the window the usual way, so the inventory is saved
+        exitItem.setOnAction(e -> stage.fireEvent(new WindowEvent(stage, WindowEvent.WINDOW_CLOSE_REQUEST)));
         
         fileMenu.getItems().addAll(importItem, exportItem, new SeparatorMenuItem(), exitItem);
         return fileMenu;
@@ -86,7 +75,7 @@ public class InventoryMenuBar extends MenuBar {
             app.updateSummary());
         
         highlightExpiringItem.setOnAction(e -> 
-            app.refreshTableData());
+            app.setHighlightExpiring(highlightExpiringItem.isSelected()));
         
         viewMenu.getItems().addAll(showSummaryItem, highlightExpiringItem);
         return viewMenu;
@@ -102,26 +91,33 @@ public class InventoryMenuBar extends MenuBar {
         // Using existing methods instead of undefined ones
         addItem.setOnAction(e -> app.showAddProductForm());
         
-        bulkImportItem.setOnAction(e -> {
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Information");
-            alert.setHeaderText(null);
-            alert.setContentText("Bulk import feature coming soon.");
-            alert.showAndWait();
-        });
+        bulkImportItem.setOnAction(e -> chooseImportFile("Bulk Import Products"));
         
-        manageCategoriesItem.setOnAction(e -> {
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Information");
-            alert.setHeaderText(null);
-            alert.setContentText("Category management feature coming soon.");
-            alert.showAndWait();
-        });
+        manageCategoriesItem.setOnAction(e -> app.showCategoryManager());
         
         productMenu.getItems().addAll(addItem, bulkImportItem, manageCategoriesItem);
         return productMenu;
     }
     
+    /**
+     * Lets the user pick a JSON, NDJSON or CSV file and imports it
+     */
+    private void chooseImportFile(String title) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(title);
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Inventory Files", "*.json", "*.ndjson", "*.jsonl", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON Files", "*.json"),
+                new FileChooser.ExtensionFilter("NDJSON Files", "*.ndjson", "*.jsonl"),
+                new FileChooser.ExtensionFilter("CSV Files", "*.csv"),
+                new FileChooser.ExtensionFilter("All Files", "*.*")
+        );
+        File file = fileChooser.showOpenDialog(stage);
+        if (file != null) {
+            app.importProducts(file);
+        }
+    }
+    
     private Menu createReportsMenu() {
         Menu reportsMenu = new Menu("Reports");
         
@@ -129,30 +125,10 @@ public class InventoryMenuBar extends MenuBar {
         MenuItem expirationReportItem = new MenuItem("Expiration Report");
         MenuItem salesProjectionItem = new MenuItem("Sales Projection");
         
-        // Using alerts instead of undefined methods
-        valueReportItem.setOnAction(e -> {
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Information");
-            alert.setHeaderText(null);
-            alert.setContentText("Inventory Value Report feature coming soon.");
-            alert.showAndWait();
-        });
+        valueReportItem.setOnAction(e -> app.showValueReport());
+        expirationReportItem.setOnAction(e -> app.showExpirationReport());
         
-        expirationReportItem.setOnAction(e -> {
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Information");
-            alert.setHeaderText(null);
-            alert.setContentText("Expiration Report feature coming soon.");
-            alert.showAndWait();
-        });
-        
-        salesProjectionItem.setOnAction(e -> {
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Information");
-            alert.setHeaderText(null);
-            alert.setContentText("Sales Projection feature coming soon.");
-            alert.showAndWait();
-        });
+        salesProjectionItem.setOnAction(e -> app.showSalesProjection());
         
         reportsMenu.getItems().addAll(valueReportItem, expirationReportItem, salesProjectionItem);
         return reportsMenu;
@@ -0,0 +1,259 @@
+package com.store.gui;
+
+import com.store.model.Product;
+import com.store.service.CoalescingChangeSubscriber;
+import com.store.service.InventoryChange;
+import com.store.service.ProductManager;
+import com.store.service.StoreService;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inventory totals for the summary panel, kept up to date from
+ * {@link InventoryChange}s instead of being recomputed after every change.
+ *
+ * Each product's share of the totals is remembered, so a change only subtracts
+ * the old share and adds the new one. Changes are applied by one runLater, so the
+ * labels bound to the properties change at most once per pulse however many
+ * changes arrive. While inactive (the panel is hidden) the model does not follow
+ * the inventory at all; activating it reads the totals once. While active, the
+ * totals are also read again at midnight, when perishable values change.
+ *
+ * A remote inventory has no change stream; its totals are set with {@link #setTotals}.
+ */
+public class InventorySummaryModel {
+    private static final BigDecimal NET_DISCOUNT = BigDecimal.valueOf(0.85);
+
+    private final ProductManager productManager;
+    private final Executor fxExecutor;
+    private final Clock clock;
+
+    private final ReadOnlyStringWrapper totalQuantity = new ReadOnlyStringWrapper("0");
+    private final ReadOnlyStringWrapper totalGrossPrice = new ReadOnlyStringWrapper("$0.00");
+    private final ReadOnlyStringWrapper totalPerishablePrice = new ReadOnlyStringWrapper("$0.00");
+    private final ReadOnlyStringWrapper totalNetPrice = new ReadOnlyStringWrapper("$0.00");
+
+    // FX thread only
+    private ChangeFollower follower;
+    private final Map<Product, Share> shares = new IdentityHashMap<>();
+    private long quantity;
+    private BigDecimal gross = BigDecimal.ZERO;
+    private BigDecimal value = BigDecimal.ZERO;
+    private LocalDate valuationDate;
+    private int recomputations;
+
+    /**
+     * Creates an inactive model. Must be used on the FX thread.
+     * @param productManager The inventory to total
+     */
+    public InventorySummaryModel(ProductManager productManager) {
+        this(productManager, Platform::runLater);
+    }
+
+    InventorySummaryModel(ProductManager productManager, Executor fxExecutor) {
+        this(productManager, fxExecutor, Clock.systemDefaultZone());
+    }
+
+    InventorySummaryModel(ProductManager productManager, Executor fxExecutor, Clock clock) {
+        this.productManager = productManager;
+        this.fxExecutor = fxExecutor;
+        this.clock = clock;
+    }
+
+    public ReadOnlyStringProperty totalQuantityProperty() {
+        return totalQuantity.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty totalGrossPriceProperty() {
+        return totalGrossPrice.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty totalPerishablePriceProperty() {
+        return totalPerishablePrice.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty totalNetPriceProperty() {
+        return totalNetPrice.getReadOnlyProperty();
+    }
+
+    /**
+     * @return true if the totals follow the inventory's changes on their own
+     */
+    public boolean isFollowingChanges() {
+        return follower != null;
+    }
+
+    /**
+     * Starts or stops following a local inventory. Has no effect on a remote one.
+     * @param active true while the totals are shown
+     */
+    public void setActive(boolean active) {
+        if (!(productManager instanceof StoreService) || active == isFollowingChanges()) {
+            return;
+        }
+        if (!active) {
+            close();
+            return;
+        }
+        // Subscribe before reading, so no change between the two is missed
+        follower = new ChangeFollower();
+        follower.subscribeTo((StoreService) productManager);
+        recompute();
+        scheduleMidnight(follower);
+    }
+
+    /**
+     * Stops following the inventory and forgets the per-product shares
+     */
+    public void close() {
+        ChangeFollower current = follower;
+        follower = null;
+        if (current != null) {
+            current.cancel();
+        }
+        shares.clear();
+    }
+
+    /**
+     * Shows totals read from the inventory, for inventories without a change stream
+     */
+    public void setTotals(int quantity, BigDecimal gross, BigDecimal valueWithPerishableDiscount) {
+        this.quantity = quantity;
+        this.gross = gross;
+        this.value = valueWithPerishableDiscount;
+        publish();
+    }
+
+    /**
+     * @return How many times the totals were computed from the whole inventory
+     */
+    int getRecomputations() {
+        return recomputations;
+    }
+
+    private void apply(List<InventoryChange> changes, boolean reset) {
+        // After a reset, or on a new day (perishable values change with the date), start from scratch
+        if (reset || !LocalDate.now(clock).equals(valuationDate)) {
+            recompute();
+        }
+        // Shares are keyed by product, so a change already contained in the
+        // last recomputation does not count twice
+        for (InventoryChange change : changes) {
+            switch (change.getType()) {
+                case ADDED:
+                case UPDATED:
+                    subtract(shares.put(change.getProduct(), new Share(change.getProduct())));
+                    add(shares.get(change.getProduct()));
+                    break;
+                case REMOVED:
+                    subtract(shares.remove(change.getProduct()));
+                    break;
+                default:
+                    break;
+            }
+        }
+        publish();
+    }
+
+    private void recompute() {
+        recomputations++;
+        shares.clear();
+        quantity = 0;
+        gross = BigDecimal.ZERO;
+        value = BigDecimal.ZERO;
+        valuationDate = LocalDate.now(clock);
+        for (Product product : productManager.getInventory()) {
+            Share share = new Share(product);
+            if (shares.put(product, share) == null) {
+                add(share);
+            }
+        }
+        publish();
+    }
+
+    /**
+     * Recomputes the totals after midnight, unless the activation ended by then
+     */
+    private void scheduleMidnight(ChangeFollower activation) {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay(now.getZone());
+        // A second late, so the date has certainly moved on
+        long delay = Duration.between(now, midnight).toMillis() + 1000;
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, fxExecutor).execute(() -> {
+            if (follower != activation) {
+                return;
+            }
+            if (!LocalDate.now(clock).equals(valuationDate)) {
+                recompute();
+            }
+            scheduleMidnight(activation);
+        });
+    }
+
+    private void add(Share share) {
+        quantity += share.quantity;
+        gross = gross.add(share.gross);
+        value = value.add(share.value);
+    }
+
+    private void subtract(Share share) {
+        if (share != null) {
+            quantity -= share.quantity;
+            gross = gross.subtract(share.gross);
+            value = value.subtract(share.value);
+        }
+    }
+
+    private void publish() {
+        // Rounded the same way as the ProductManager totals
+        BigDecimal roundedValue = value.setScale(2, RoundingMode.HALF_UP);
+        totalQuantity.set(String.valueOf(quantity));
+        totalGrossPrice.set("$" + gross.setScale(2, RoundingMode.HALF_UP));
+        totalPerishablePrice.set("$" + roundedValue);
+        totalNetPrice.set("$" + roundedValue.multiply(NET_DISCOUNT).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * A product's contribution to the totals when it was last seen
+     */
+    private static final class Share {
+        private final int quantity;
+        private final BigDecimal gross;
+        private final BigDecimal value;
+
+        private Share(Product product) {
+            this.quantity = product.getQuantity();
+            this.gross = product.getPrice().multiply(BigDecimal.valueOf(quantity));
+            this.value = product.getTotalValue();
+        }
+    }
+
+    /**
+     * One activation's subscription; changes still in flight after it was
+     * cancelled are dropped instead of reaching a later activation
+     */
+    private final class ChangeFollower extends CoalescingChangeSubscriber {
+        private ChangeFollower() {
+            super("Inventory summary", fxExecutor);
+        }
+
+        @Override
+        protected void apply(List<InventoryChange> changes, boolean reset) {
+            InventorySummaryModel.this.apply(changes, reset);
+        }
+    }
+}
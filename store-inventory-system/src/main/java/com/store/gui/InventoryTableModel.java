@@ -0,0 +1,127 @@
+package com.store.gui;
+
+import com.store.model.Product;
+import com.store.service.CoalescingChangeSubscriber;
+import com.store.service.InventoryChange;
+import com.store.service.ProductManager;
+import com.store.service.StoreService;
+import javafx.application.Platform;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps the product table's {@link PagedProductList} in step with the inventory
+ * by applying {@link InventoryChange}s instead of clearing and reloading it.
+ *
+ * Changes are collected off the FX thread and applied by a single runLater (see
+ * {@link CoalescingChangeSubscriber}), so a burst of changes between two pulses
+ * reaches the table as one list change and only the affected rows are updated;
+ * selection and scroll position are kept. A table that cannot keep up is sent a
+ * reset and reloads.
+ *
+ * A remote inventory (see {@link com.store.server.InventoryConnection}) has no
+ * change stream; {@link #refresh()} reloads the list when it changed.
+ */
+public class InventoryTableModel extends CoalescingChangeSubscriber {
+    private final ProductManager productManager;
+    private final PagedProductList products;
+
+    // FX thread only
+    private long snapshotVersion = -1;
+    // Last remote inventory seen, possibly by a background check
+    private volatile List<Product> remoteInventory;
+
+    /**
+     * Creates the model and loads the inventory. Must be called on the FX thread.
+     * @param productManager The inventory to show
+     */
+    public InventoryTableModel(ProductManager productManager) {
+        this(productManager, Platform::runLater);
+    }
+
+    InventoryTableModel(ProductManager productManager, Executor fxExecutor) {
+        super("Inventory table", fxExecutor);
+        this.productManager = productManager;
+        this.products = new PagedProductList(productManager);
+        // Subscribe before reading, so no change between the two is missed
+        if (productManager instanceof StoreService) {
+            subscribeTo((StoreService) productManager);
+        }
+        reload();
+    }
+
+    /**
+     * @return The products, in the order chosen on the list
+     */
+    public PagedProductList getProducts() {
+        return products;
+    }
+
+    /**
+     * Brings a remote inventory up to date; a local one is updated by its changes.
+     * @return true if the list was reloaded
+     */
+    public boolean refresh() {
+        if (!checkForChanges()) {
+            return false;
+        }
+        products.reload();
+        return true;
+    }
+
+    /**
+     * Asks a remote inventory whether it changed since the list was loaded; a local
+     * one is updated by its changes. This is a round trip to the daemon, so it may
+     * be called off the FX thread, followed by {@link #reloadChanged()} on it.
+     * @return true if the list needs to be reloaded
+     */
+    public boolean checkForChanges() {
+        if (productManager instanceof StoreService) {
+            return false;
+        }
+        // The remote manager returns the same list as long as nothing changed
+        List<Product> inventory = productManager.getInventory();
+        if (inventory == remoteInventory) {
+            return false;
+        }
+        remoteInventory = inventory;
+        return true;
+    }
+
+    /**
+     * Reloads the list after {@link #checkForChanges()} found changes. Must be called on the FX thread.
+     */
+    public void reloadChanged() {
+        products.reload();
+    }
+
+    /**
+     * Stops following the inventory
+     */
+    public void close() {
+        cancel();
+    }
+
+    /**
+     * Applies all changes received since the last pulse as one list change
+     */
+    @Override
+    protected void apply(List<InventoryChange> changes, boolean reset) {
+        if (reset) {
+            reload();
+        }
+        if (!products.apply(changes, snapshotVersion)) {
+            System.err.println("Inventory table fell out of step with the inventory; reloading");
+            reload();
+        }
+    }
+
+    private void reload() {
+        if (productManager instanceof StoreService) {
+            snapshotVersion = products.reload();
+        } else {
+            refresh();
+        }
+    }
+}
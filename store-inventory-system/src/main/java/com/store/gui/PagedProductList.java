@@ -0,0 +1,206 @@
+package com.store.gui;
+
+import com.store.model.Product;
+import com.store.service.InventoryChange;
+import com.store.service.InventoryPage;
+import com.store.service.ProductManager;
+import com.store.service.ProductSort;
+import javafx.collections.ObservableListBase;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only observable list over the inventory that holds only the pages the
+ * table has asked for. A row outside the cached pages fetches its page plus a
+ * prefetch margin on each side through {@link ProductManager#getPage}; sorting is
+ * done by the manager's sort indexes, not in this list.
+ *
+ * The list is updated from {@link InventoryChange}s: in inventory order each
+ * change becomes the matching list change, otherwise (sorted, or showing a search
+ * result) the list is reloaded. Must be used on the FX thread.
+ */
+public class PagedProductList extends ObservableListBase<Product> {
+    static final int PAGE_SIZE = 128;
+    private static final int PREFETCH_PAGES = 1;
+    private static final int MAX_CACHED_PAGES = 16;
+
+    private final ProductManager productManager;
+    private ProductSort sort = ProductSort.INVENTORY_ORDER;
+    private boolean ascending = true;
+    private List<Product> pinned; // Search result shown instead of the inventory
+    private int size;
+    private int pageFetches;
+
+    private final Map<Integer, List<Product>> pages = new LinkedHashMap<>(MAX_CACHED_PAGES * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Product>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+
+    /**
+     * @param productManager The inventory to page through
+     */
+    public PagedProductList(ProductManager productManager) {
+        this.productManager = productManager;
+    }
+
+    @Override
+    public Product get(int index) {
+        if (pinned != null) {
+            return pinned.get(index);
+        }
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+        }
+        int page = index / PAGE_SIZE;
+        List<Product> products = pages.get(page);
+        if (products == null) {
+            fetch(page);
+            products = pages.getOrDefault(page, List.of());
+        }
+        int offset = index % PAGE_SIZE;
+        // The inventory may have shrunk ahead of the changes that tell this list about it
+        return offset < products.size() ? products.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return pinned != null ? pinned.size() : size;
+    }
+
+    /**
+     * Shows the inventory in another order
+     * @param sort      The order
+     * @param ascending false for the reverse order
+     */
+    public void setSort(ProductSort sort, boolean ascending) {
+        if (this.sort == sort && this.ascending == ascending) {
+            return;
+        }
+        this.sort = sort;
+        this.ascending = ascending;
+        reload();
+    }
+
+    /**
+     * Shows only the given products (e.g. a search result) until {@link #showAll()}
+     */
+    public void showOnly(List<Product> products) {
+        pinned = List.copyOf(products);
+        reload();
+    }
+
+    /**
+     * Shows the whole inventory again
+     */
+    public void showAll() {
+        if (pinned != null) {
+            pinned = null;
+            reload();
+        }
+    }
+
+    /**
+     * Drops all cached pages and reads the inventory size again, as one list change
+     * @return The inventory version the list now reflects, or -1 if unknown
+     */
+    public long reload() {
+        int oldSize = size();
+        pages.clear();
+        // The first pages are almost always shown right away, so fetch them with the size
+        InventoryPage first = productManager.getPage(0, (PREFETCH_PAGES + 1) * PAGE_SIZE, sort, ascending);
+        pageFetches++;
+        store(first);
+        size = first.getTotalCount();
+        if (oldSize > 0 || size() > 0) {
+            beginChange();
+            // The old rows are not kept, so the removed items are unknown
+            nextReplace(0, size(), Collections.nCopies(oldSize, null));
+            endChange();
+        }
+        return first.getVersion();
+    }
+
+    /**
+     * Applies inventory changes as one list change
+     *
+     * @param changes         Changes in publication order
+     * @param snapshotVersion Version the list was last reloaded from; changes it already contains are skipped
+     * @return false if a change did not fit the list, which then needs a reload
+     */
+    boolean apply(List<InventoryChange> changes, long snapshotVersion) {
+        if (pinned != null || sort != ProductSort.INVENTORY_ORDER) {
+            // Positions in other orders are not known from the changes
+            reload();
+            return true;
+        }
+        pages.clear();
+        beginChange();
+        try {
+            for (InventoryChange change : changes) {
+                long version = change.getVersion();
+                if (version < snapshotVersion
+                        || (version == snapshotVersion && change.getType() != InventoryChange.Type.UPDATED)) {
+                    continue;
+                }
+                int index = change.getIndex();
+                switch (change.getType()) {
+                    case ADDED:
+                        if (index > size) {
+                            return false;
+                        }
+                        size++;
+                        nextAdd(index, index + 1);
+                        break;
+                    case REMOVED:
+                        if (index >= size) {
+                            return false;
+                        }
+                        size--;
+                        nextRemove(index, change.getProduct());
+                        break;
+                    case UPDATED:
+                        if (index >= size) {
+                            return false;
+                        }
+                        nextUpdate(index);
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            return true;
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * @return How many times pages were read from the manager
+     */
+    int getPageFetches() {
+        return pageFetches;
+    }
+
+    private void fetch(int page) {
+        int firstPage = Math.max(0, page - PREFETCH_PAGES);
+        int pageCount = page + PREFETCH_PAGES - firstPage + 1;
+        store(productManager.getPage(firstPage * PAGE_SIZE, pageCount * PAGE_SIZE, sort, ascending));
+        pageFetches++;
+    }
+
+    private void store(InventoryPage result) {
+        List<Product> products = result.getProducts();
+        int firstPage = result.getOffset() / PAGE_SIZE;
+        int pageCount = (products.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+        for (int i = 0; i < Math.max(1, pageCount); i++) {
+            int from = Math.min(products.size(), i * PAGE_SIZE);
+            int to = Math.min(products.size(), from + PAGE_SIZE);
+            pages.put(firstPage + i, products.subList(from, to));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.store.gui;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Display strings of the products shown in the product table, so redrawing a
+ * cell does not format anything or allocate.
+ *
+ * Each product's strings are made when first shown and kept with the values
+ * they were made from. A string is only made again once one of those values
+ * changed: quantities change in place, and edits replace the price, discount or
+ * category objects, so comparing references is enough to notice. Total values
+ * also depend on the date, which is checked against the next midnight rather
+ * than read as a LocalDate. The cache keeps the most recently shown products,
+ * a few screens full. FX thread only.
+ */
+final class ProductDisplayCache {
+    static final int DEFAULT_CAPACITY = 4096;
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Map<Product, Display> displays;
+    private long today;
+    private long nextMidnightMillis = Long.MIN_VALUE;
+
+    ProductDisplayCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    ProductDisplayCache(int capacity) {
+        // Products do not override equals, so this is keyed by identity; access order evicts the least recently shown
+        this.displays = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Product, Display> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return The display strings of a product, made or reused
+     */
+    Display of(Product product) {
+        Display display = displays.get(product);
+        if (display == null) {
+            display = new Display(product);
+            displays.put(product, display);
+        }
+        return display;
+    }
+
+    /**
+     * The cell value of every column: the product itself, in a property made once per product
+     */
+    ObservableValue<Product> valueOf(Product product) {
+        return of(product).value.getReadOnlyProperty();
+    }
+
+    int size() {
+        return displays.size();
+    }
+
+    private long today() {
+        long now = System.currentTimeMillis();
+        if (now >= nextMidnightMillis) {
+            LocalDate date = LocalDate.now(zone);
+            today = date.toEpochDay();
+            nextMidnightMillis = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+        return today;
+    }
+
+    /**
+     * One product's strings and the values they were made from
+     */
+    final class Display {
+        private final Product product;
+        private final ReadOnlyObjectWrapper<Product> value;
+
+        private int nameId = -1;
+        private String name;
+        private BigDecimal price;
+        private String priceText;
+        private int quantity = -1;
+        private String quantityText;
+        private BigDecimal discount;
+        private String discountText;
+        private LocalDate expirationDate;
+        private String expirationText;
+        private BigDecimal valuePrice;
+        private BigDecimal valueDiscount;
+        private int valueQuantity = -1;
+        private long valueDay;
+        private String totalValueText;
+
+        private Display(Product product) {
+            this.product = product;
+            this.value = new ReadOnlyObjectWrapper<>(product);
+        }
+
+        String name() {
+            if (product.getNameId() != nameId) {
+                nameId = product.getNameId();
+                name = product.getName();
+            }
+            return name;
+        }
+
+        String price() {
+            if (product.getPrice() != price) {
+                price = product.getPrice();
+                priceText = price.toString();
+            }
+            return priceText;
+        }
+
+        String quantity() {
+            int current = product.getQuantity();
+            if (current != quantity) {
+                quantity = current;
+                quantityText = Integer.toString(current);
+            }
+            return quantityText;
+        }
+
+        String discount() {
+            if (product.getDiscount() != discount) {
+                discount = product.getDiscount();
+                discountText = discount.multiply(HUNDRED) + "%";
+            }
+            return discountText;
+        }
+
+        /**
+         * @return The expiration date, or null for products that do not expire
+         */
+        String expirationDate() {
+            if (!(product instanceof PerishableProduct)) {
+                return null;
+            }
+            LocalDate current = ((PerishableProduct) product).getExpirationDate();
+            if (current != expirationDate) {
+                expirationDate = current;
+                expirationText = current == null ? null : current.toString();
+            }
+            return expirationText;
+        }
+
+        String totalValue() {
+            int current = product.getQuantity();
+            long day = today();
+            if (current != valueQuantity || product.getPrice() != valuePrice
+                    || product.getDiscount() != valueDiscount || day != valueDay) {
+                valueQuantity = current;
+                valuePrice = product.getPrice();
+                valueDiscount = product.getDiscount();
+                valueDay = day;
+                // A sale between these reads leaves valueQuantity behind, so the next redraw formats again
+                totalValueText = "$" + product.getTotalValue();
+            }
+            return totalValueText;
+        }
+
+        /**
+         * @return The category path, interned by the product, so nothing needs caching
+         */
+        String category() {
+            return product.getCategory();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.store.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary that interns product names.
+ * Each distinct name is stored once and identified by an int id. Names that only
+ * differ by case share a "folded" id, so case-insensitive comparisons become int
+ * comparisons instead of repeated equalsIgnoreCase calls.
+ *
+ * Entries are never removed; the dictionary grows with the number of distinct
+ * names seen during the lifetime of the process.
+ */
+public final class NameDictionary {
+    /** Id used for products without a name */
+    public static final int NO_NAME = -1;
+
+    private static final NameDictionary GLOBAL = new NameDictionary();
+
+    private final ConcurrentHashMap<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> foldedIdsByKey = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private volatile int[] foldedIds = new int[64];
+    private int size;
+
+    NameDictionary() {
+        // Use global() outside of tests
+    }
+
+    /**
+     * @return The dictionary shared by all products
+     */
+    public static NameDictionary global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns the id for a name, adding it to the dictionary if needed
+     *
+     * @param name The product name
+     * @return The name id, or {@link #NO_NAME} for null
+     */
+    public int intern(String name) {
+        if (name == null) {
+            return NO_NAME;
+        }
+        Integer id = idsByName.get(name);
+        return id != null ? id : add(name);
+    }
+
+    private synchronized int add(String name) {
+        Integer existing = idsByName.get(name);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = size;
+        if (id == names.length) {
+            foldedIds = Arrays.copyOf(foldedIds, id * 2);
+            names = Arrays.copyOf(names, id * 2);
+        }
+        int foldedId = foldedIdsByKey.computeIfAbsent(fold(name), key -> id);
+        foldedIds[id] = foldedId;
+        names[id] = name;
+        size = id + 1;
+
+        // Publish last so readers that find the id also see the array entries
+        idsByName.put(name, id);
+        return id;
+    }
+
+    /**
+     * @param id A name id
+     * @return The interned name, or null for {@link #NO_NAME}
+     */
+    public String name(int id) {
+        return id == NO_NAME ? null : names[id];
+    }
+
+    /**
+     * @param id A name id
+     * @return The id shared by all names equal to this one ignoring case
+     */
+    public int foldedId(int id) {
+        return id == NO_NAME ? NO_NAME : foldedIds[id];
+    }
+
+    /**
+     * Looks up the case-insensitive id of a name without adding it
+     *
+     * @param name The name to look up
+     * @return The folded id, or {@link #NO_NAME} if no interned name matches
+     */
+    public int lookupFoldedId(String name) {
+        if (name == null) {
+            return NO_NAME;
+        }
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            return foldedIds[id];
+        }
+        Integer foldedId = foldedIdsByKey.get(fold(name));
+        return foldedId != null ? foldedId : NO_NAME;
+    }
+
+    /**
+     * Normalizes a name the same way {@link String#equalsIgnoreCase(String)}
+     * compares characters, so two names fold to the same key exactly when
+     * equalsIgnoreCase considers them equal.
+     */
+    static String fold(String name) {
+        StringBuilder folded = null;
+        for (int i = 0; i < name.length(); ) {
+            int codePoint = name.codePointAt(i);
+            int foldedCodePoint = Character.toLowerCase(Character.toUpperCase(codePoint));
+            if (folded == null && foldedCodePoint != codePoint) {
+                folded = new StringBuilder(name.length()).append(name, 0, i);
+            }
+            if (folded != null) {
+                folded.appendCodePoint(foldedCodePoint);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return folded == null ? name : folded.toString();
+    }
+}
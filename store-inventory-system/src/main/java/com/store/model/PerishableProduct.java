@@ -71,25 +71,41 @@ public class PerishableProduct extends Product {
     @Override
     public BigDecimal getTotalValue() {
         BigDecimal baseValue = super.getTotalValue();
+        int multiplierTenths = getExpiryMultiplierTenths(LocalDate.now());
         
+        // No additional discount if expiration date is far away
+        if (multiplierTenths == 10) {
+            return baseValue;
+        }
+        return baseValue.multiply(BigDecimal.valueOf(multiplierTenths, 1)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns the expiration-tier multiplier applied on top of the regular discount,
+     * expressed in tenths so it can be used by the primitive valuation kernels.
+     * - 10 (x1.0) if expiring in more than 7 days
+     * - 7 (x0.7) if expiring within 3-7 days
+     * - 5 (x0.5) if expiring within 0-2 days
+     * - 2 (x0.2) if already expired
+     * 
+     * @param today The date to evaluate the expiration against
+     * @return The multiplier in tenths
+     */
+    public int getExpiryMultiplierTenths(LocalDate today) {
         // Calculate days until expiration
-        LocalDate today = LocalDate.now();
         long daysUntilExpiration = ChronoUnit.DAYS.between(today, expirationDate);
         
-        // Apply additional discount based on expiration proximity
         if (daysUntilExpiration <= 2 && daysUntilExpiration >= 0) {
             // 50% additional discount if expiring within 2 days
-            return baseValue.multiply(BigDecimal.valueOf(0.5)).setScale(2, RoundingMode.HALF_UP);
+            return 5;
         } else if (daysUntilExpiration <= 7 && daysUntilExpiration > 2) {
             // 30% additional discount if expiring within 3-7 days
-            return baseValue.multiply(BigDecimal.valueOf(0.7)).setScale(2, RoundingMode.HALF_UP);
+            return 7;
         } else if (daysUntilExpiration < 0) {
             // Product has expired - heavily discounted (80% off)
-            return baseValue.multiply(BigDecimal.valueOf(0.2)).setScale(2, RoundingMode.HALF_UP);
+            return 2;
         }
-        
-        // No additional discount if expiration date is far away
-        return baseValue;
+        return 10;
     }
 
     /**
@@ -1,9 +1,13 @@
 package com.store.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonTypeName;
@@ -21,10 +25,29 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 @JsonTypeName("non-perishable") // Updated from "product" to "non-perishable"
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Product {
-    private String name;
+    // Names are interned in the NameDictionary; the product only keeps the ids
+    private int nameId = NameDictionary.NO_NAME;
+    private int foldedNameId = NameDictionary.NO_NAME;
     private BigDecimal price;
-    private int quantity;
+    private volatile int quantity;
     private BigDecimal discount;
+    private String category;
+
+    /** Separates the levels of a category path, e.g. "Food/Dairy" */
+    public static final char CATEGORY_SEPARATOR = '/';
+
+    /** Returned by {@link #tryAdjustQuantity(int)} when the adjustment is refused */
+    public static final int ADJUSTMENT_REFUSED = -1;
+
+    // Allows lock-free compare-and-set updates of the quantity field
+    private static final VarHandle QUANTITY;
+    static {
+        try {
+            QUANTITY = MethodHandles.lookup().findVarHandle(Product.class, "quantity", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     /**
      * Default constructor needed for Jackson deserialization
@@ -41,7 +64,7 @@ public class Product {
      * @param discount  The discount rate (0.0-1.0)
      */
     public Product(String name, double price, int quantity, double discount) {
-        this.name = name;
+        setName(name);
         this.price = BigDecimal.valueOf(price).setScale(2, RoundingMode.HALF_UP);
         this.quantity = quantity;
         this.discount = BigDecimal.valueOf(discount).setScale(2, RoundingMode.HALF_UP);
@@ -51,14 +74,32 @@ public class Product {
      * @return The product name
      */
     public String getName() {
-        return name;
+        return NameDictionary.global().name(nameId);
     }
 
     /**
      * @param name The product name to set
      */
     public void setName(String name) {
-        this.name = name;
+        NameDictionary dictionary = NameDictionary.global();
+        this.nameId = dictionary.intern(name);
+        this.foldedNameId = dictionary.foldedId(nameId);
+    }
+
+    /**
+     * @return The id of the product name in the {@link NameDictionary}
+     */
+    @JsonIgnore
+    public int getNameId() {
+        return nameId;
+    }
+
+    /**
+     * @return The id shared by all names equal to this one ignoring case
+     */
+    @JsonIgnore
+    public int getFoldedNameId() {
+        return foldedNameId;
     }
 
     /**
@@ -96,6 +137,28 @@ public class Product {
         this.quantity = quantity;
     }
 
+    /**
+     * Atomically adds a delta to the quantity without locking.
+     * The adjustment is refused if the quantity would drop below zero or overflow.
+     * 
+     * @param delta The amount to add (negative to remove stock)
+     * @return The new quantity, or {@link #ADJUSTMENT_REFUSED}
+     */
+    public int tryAdjustQuantity(int delta) {
+        while (true) {
+            int current = quantity;
+            long updated = (long) current + delta;
+            if (updated < 0 || updated > Integer.MAX_VALUE) {
+                return ADJUSTMENT_REFUSED;
+            }
+            if (QUANTITY.compareAndSet(this, current, (int) updated)) {
+                return (int) updated;
+            }
+            // Another thread changed the stock first; back off briefly and retry
+            Thread.onSpinWait();
+        }
+    }
+
     /**
      * @return The discount rate (0.0-1.0)
      */
@@ -117,6 +180,51 @@ public class Product {
         this.discount = discount.setScale(2, RoundingMode.HALF_UP);
     }
 
+    /**
+     * @return The category path, e.g. "Food/Dairy", or null if the product has no category
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * @param category The category path; normalized with {@link #normalizeCategory(String)}
+     */
+    public void setCategory(String category) {
+        this.category = normalizeCategory(category);
+    }
+
+    /**
+     * Trims the levels of a category path and drops empty ones. Paths are
+     * interned, as many products share few categories.
+     * 
+     * @param category A category path such as " Food / Dairy/"
+     * @return The normalized path ("Food/Dairy"), or null if it names no category
+     */
+    public static String normalizeCategory(String category) {
+        if (category == null) {
+            return null;
+        }
+        StringBuilder path = new StringBuilder(category.length());
+        int start = 0;
+        while (start <= category.length()) {
+            int end = category.indexOf(CATEGORY_SEPARATOR, start);
+            if (end < 0) {
+                end = category.length();
+            }
+            String level = category.substring(start, end).trim();
+            if (!level.isEmpty()) {
+                if (path.length() > 0) {
+                    path.append(CATEGORY_SEPARATOR);
+                }
+                path.append(level);
+            }
+            start = end + 1;
+        }
+        return path.length() == 0 ? null : path.toString().intern();
+    }
+
     /**
      * Calculates the total value of this product (price * quantity - discount).
      * 
@@ -134,6 +242,6 @@ public class Product {
     @Override
     public String toString() {
         return String.format("Product: %s, Price: $%.2f, Quantity: %d, Discount: %.0f%%",
-                name, price, quantity, discount.multiply(BigDecimal.valueOf(100)));
+                getName(), price, quantity, discount.multiply(BigDecimal.valueOf(100)));
     }
 }
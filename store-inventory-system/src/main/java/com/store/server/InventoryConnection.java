@@ -0,0 +1,135 @@
+package com.store.server;
+
+import com.store.service.ProductManager;
+import com.store.service.StoreService;
+import com.store.util.StartupTimer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Decides where the console and GUI get their inventory from: the running
+ * inventory daemon if there is one, otherwise the local StoreService.
+ * The choice is made once per process and shared by all front ends.
+ *
+ * Loading can be started early with {@link #startLoading}, so the inventory is
+ * read while the launcher is still busy with the rest of startup.
+ */
+public final class InventoryConnection {
+    private static ProductManager productManager;
+    private static CompletableFuture<ProductManager> loading;
+
+    private InventoryConnection() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @return The shared product manager, connecting to the daemon or loading locally on first use
+     */
+    public static synchronized ProductManager productManager() {
+        // A front end that closed its connection (e.g. when switching modes) hands over to a new one
+        if (productManager instanceof RemoteProductManager && !((RemoteProductManager) productManager).isOpen()) {
+            productManager = null;
+        }
+        // Take over a background load, waiting for it if it is still running
+        if (productManager == null && loading != null) {
+            CompletableFuture<ProductManager> pending = loading;
+            loading = null;
+            try {
+                productManager = pending.join();
+            } catch (CompletionException e) {
+                System.err.println("Background inventory load failed, loading again: " + e.getCause().getMessage());
+            }
+        }
+        if (productManager == null) {
+            productManager = connect();
+        }
+        return productManager;
+    }
+
+    /**
+     * The shared product manager without waiting for a background load, e.g. so the
+     * GUI can show its window while the inventory is still being read
+     * @return A future completed with {@link #productManager()} once a load started
+     *         by {@link #startLoading} finished, or right away if there is none
+     */
+    public static synchronized CompletableFuture<ProductManager> productManagerFuture() {
+        if (productManager == null && loading != null) {
+            // Completes on the loader thread, which then takes the result over like any other caller
+            return loading.handle((manager, error) -> productManager());
+        }
+        return CompletableFuture.completedFuture(productManager());
+    }
+
+    /**
+     * Connects to the daemon or loads the local inventory on a background thread.
+     * The next call to {@link #productManager()} waits for it instead of loading
+     * again. Does nothing if the product manager is already there or being loaded.
+     * @param preparation Runs on the background thread before loading, e.g. fixing up the inventory file
+     */
+    public static synchronized void startLoading(Runnable preparation) {
+        if (productManager != null || loading != null) {
+            return;
+        }
+        CompletableFuture<ProductManager> future = new CompletableFuture<>();
+        loading = future;
+        // Does not take this class's lock, so productManager() can wait for it while holding it
+        Thread loader = new Thread(() -> {
+            try {
+                preparation.run();
+                future.complete(connect());
+                StartupTimer.mark("inventory loaded");
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, "inventory-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private static ProductManager connect() {
+        Path socketPath = InventoryDaemon.defaultSocketPath();
+        if (InventoryDaemon.isListening(socketPath)) {
+            long start = System.nanoTime();
+            try {
+                ProductManager remote = RemoteProductManager.connect(socketPath);
+                System.out.printf("Connected to inventory daemon at %s in %.1f ms%n",
+                        socketPath, (System.nanoTime() - start) / 1_000_000.0);
+                return remote;
+            } catch (IOException e) {
+                System.err.println("Inventory daemon not reachable, loading locally: " + e.getMessage());
+            }
+        }
+        return StoreService.getInstance();
+    }
+
+    /**
+     * @return true if the inventory is served by the daemon
+     */
+    public static synchronized boolean isRemote() {
+        return productManager instanceof RemoteProductManager;
+    }
+
+    /**
+     * Picks up changes other processes saved to the inventory file. Not needed
+     * with the daemon, which is the single owner of the inventory.
+     * @return true if the inventory changed
+     */
+    public static boolean refresh() {
+        ProductManager manager = productManager();
+        return manager instanceof StoreService && ((StoreService) manager).refreshFromDisk();
+    }
+
+    /**
+     * Saves the local inventory, or disconnects from the daemon (which saves on its own)
+     */
+    public static synchronized void saveAndClose() {
+        if (productManager instanceof StoreService) {
+            ((StoreService) productManager).saveAndCloseInventory();
+        } else if (productManager instanceof RemoteProductManager) {
+            ((RemoteProductManager) productManager).close();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.store.server;
+
+import com.store.model.Product;
+import com.store.service.InventoryPage;
+import com.store.service.InventorySnapshot;
+import com.store.service.ProductSort;
+import com.store.service.StoreService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Long-running process that keeps the inventory loaded and serves it to thin
+ * console and GUI clients over a Unix domain socket, so they start without
+ * reading and parsing the inventory file themselves.
+ *
+ * Each client connection is served by its own virtual thread using the binary
+ * {@link InventoryProtocol}. All clients share the daemon's StoreService.
+ */
+public class InventoryDaemon {
+    /** System property overriding the socket location */
+    public static final String SOCKET_PROPERTY = "inventory.daemon.socket";
+
+    private static final String USER_INVENTORY_DIR = ".store-inventory";
+    private static final String SOCKET_FILENAME = "inventory.sock";
+
+    private final StoreService storeService;
+    private final Path socketPath;
+    private ServerSocketChannel serverChannel;
+
+    /**
+     * @param storeService The inventory to serve
+     * @param socketPath   Where to create the socket file
+     */
+    public InventoryDaemon(StoreService storeService, Path socketPath) {
+        this.storeService = storeService;
+        this.socketPath = socketPath;
+    }
+
+    /**
+     * @return The socket path from the system property, or ~/.store-inventory/inventory.sock
+     */
+    public static Path defaultSocketPath() {
+        String configured = System.getProperty(SOCKET_PROPERTY);
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), USER_INVENTORY_DIR, SOCKET_FILENAME);
+    }
+
+    /**
+     * @param socketPath The socket file to probe
+     * @return true if a daemon accepts connections on the socket
+     */
+    public static boolean isListening(Path socketPath) {
+        if (!Files.exists(socketPath)) {
+            return false;
+        }
+        try (SocketChannel probe = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Binds the socket and starts accepting clients
+     * @throws IOException if the socket cannot be bound or another daemon is already running
+     */
+    public synchronized void start() throws IOException {
+        if (isListening(socketPath)) {
+            throw new IOException("An inventory daemon is already running at " + socketPath);
+        }
+        // A socket file left behind by a daemon that was killed can be replaced
+        Files.deleteIfExists(socketPath);
+        Path parent = socketPath.toAbsolutePath().getParent();
+        if (parent != null && !Files.exists(parent)) {
+            Files.createDirectories(parent);
+        }
+
+        serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+
+        // A platform thread keeps the JVM alive while the daemon runs
+        new Thread(this::acceptClients, "inventory-daemon").start();
+        System.out.println("Inventory daemon listening on " + socketPath);
+    }
+
+    /**
+     * Stops accepting clients and removes the socket file
+     */
+    public synchronized void stop() {
+        if (serverChannel == null) {
+            return;
+        }
+        try {
+            serverChannel.close();
+            Files.deleteIfExists(socketPath);
+        } catch (IOException e) {
+            System.err.println("Error stopping inventory daemon: " + e.getMessage());
+        }
+        serverChannel = null;
+        System.out.println("Inventory daemon stopped");
+    }
+
+    private void acceptClients() {
+        ServerSocketChannel channel = serverChannel;
+        while (channel.isOpen()) {
+            try {
+                SocketChannel client = channel.accept();
+                Thread.ofVirtual().name("inventory-client").start(() -> serve(client));
+            } catch (AsynchronousCloseException e) {
+                return; // Stopped
+            } catch (IOException e) {
+                System.err.println("Error accepting inventory client: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(SocketChannel client) {
+        try (client;
+             DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)))) {
+            if (input.readInt() != InventoryProtocol.MAGIC) {
+                return;
+            }
+            output.writeInt(InventoryProtocol.MAGIC);
+            output.flush();
+
+            while (true) {
+                byte request;
+                try {
+                    request = input.readByte();
+                } catch (EOFException e) {
+                    return; // Client disconnected
+                }
+                try {
+                    handle(request, input, output);
+                } catch (RuntimeException e) {
+                    output.writeByte(InventoryProtocol.ERROR);
+                    output.writeUTF(String.valueOf(e.getMessage()));
+                }
+                output.flush();
+            }
+        } catch (IOException e) {
+            // Connection dropped; the client reconnects if it needs to
+        }
+    }
+
+    private void handle(byte request, DataInputStream input, DataOutputStream output) throws IOException {
+        switch (request) {
+            case InventoryProtocol.PING:
+                output.writeByte(InventoryProtocol.OK);
+                break;
+            case InventoryProtocol.INVENTORY:
+                sendInventory(input.readLong(), input.readLong(), output);
+                break;
+            case InventoryProtocol.ADD:
+                storeService.addProduct(InventoryProtocol.readProduct(input));
+                output.writeByte(InventoryProtocol.OK);
+                break;
+            case InventoryProtocol.ADD_ALL:
+                storeService.addProducts(readProducts(input));
+                output.writeByte(InventoryProtocol.OK);
+                break;
+            case InventoryProtocol.REMOVE: {
+                boolean removed = storeService.removeProduct(input.readInt());
+                output.writeByte(InventoryProtocol.OK);
+                output.writeBoolean(removed);
+                break;
+            }
+            case InventoryProtocol.REMOVE_AT_VERSION:
+                removeAtVersion(input, output);
+                break;
+            case InventoryProtocol.REPLACE_AT_VERSION:
+                replaceAtVersion(input, output);
+                break;
+            case InventoryProtocol.TOTALS:
+                output.writeByte(InventoryProtocol.OK);
+                output.writeInt(storeService.getTotalQuantity());
+                output.writeLong(InventoryProtocol.toCents(storeService.getTotalGrossPrice()));
+                output.writeLong(InventoryProtocol.toCents(storeService.getTotalPriceWithPerishableDiscount()));
+                output.writeLong(InventoryProtocol.toCents(storeService.getTotalNetPriceWithDiscount()));
+                break;
+            case InventoryProtocol.PAGE:
+                sendPage(input, output);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown request " + request);
+        }
+    }
+
+    /**
+     * Sends the inventory unless the client's copy is still current
+     */
+    private void sendInventory(long clientVersion, long clientRevision, DataOutputStream output) throws IOException {
+        // Read the revision first so a concurrent stock change can only make the copy look stale
+        long revision = storeService.getStockRevision();
+        InventorySnapshot snapshot = storeService.getSnapshot();
+        if (snapshot.getVersion() == clientVersion && revision == clientRevision) {
+            output.writeByte(InventoryProtocol.NOT_MODIFIED);
+            return;
+        }
+        output.writeByte(InventoryProtocol.OK);
+        output.writeLong(snapshot.getVersion());
+        output.writeLong(revision);
+        output.writeInt(snapshot.size());
+        for (Product product : snapshot) {
+            InventoryProtocol.writeProduct(output, product);
+        }
+    }
+
+    /**
+     * Sends a page in the requested order as positions in the client's copy of the
+     * inventory, which must be current. The service's sort indexes do the sorting,
+     * and the client keeps handing out the products of its copy.
+     */
+    private void sendPage(DataInputStream input, DataOutputStream output) throws IOException {
+        long clientVersion = input.readLong();
+        long clientRevision = input.readLong();
+        int offset = input.readInt();
+        int limit = input.readInt();
+        ProductSort sort = ProductSort.valueOf(input.readUTF());
+        boolean ascending = input.readBoolean();
+
+        // Read the revision first so a concurrent stock change can only make the copy look stale
+        long revision = storeService.getStockRevision();
+        InventorySnapshot snapshot = storeService.getSnapshot();
+        InventoryPage page = storeService.getPage(offset, limit, sort, ascending);
+        if (snapshot.getVersion() != clientVersion || revision != clientRevision
+                || page.getVersion() != clientVersion) {
+            output.writeByte(InventoryProtocol.CONFLICT);
+            return;
+        }
+        output.writeByte(InventoryProtocol.OK);
+        output.writeInt(page.getProducts().size());
+        for (Product product : page.getProducts()) {
+            output.writeInt(snapshot.positionOf(product));
+        }
+    }
+
+    /**
+     * Removes the products a client selected by index in its copy of the given version.
+     * Products are resolved to identities first, so later changes cannot shift the indexes.
+     */
+    private void removeAtVersion(DataInputStream input, DataOutputStream output) throws IOException {
+        long version = input.readLong();
+        int count = input.readInt();
+        int[] indexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            indexes[i] = input.readInt();
+        }
+
+        InventorySnapshot snapshot = storeService.getSnapshot();
+        if (snapshot.getVersion() != version) {
+            output.writeByte(InventoryProtocol.CONFLICT);
+            return;
+        }
+        Set<Product> selected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int index : indexes) {
+            selected.add(snapshot.get(index));
+        }
+        int removed = storeService.removeIf(selected::contains);
+        output.writeByte(InventoryProtocol.OK);
+        output.writeInt(removed);
+    }
+
+    /**
+     * Replaces every product of the given version with the client's updated copy
+     */
+    private void replaceAtVersion(DataInputStream input, DataOutputStream output) throws IOException {
+        long version = input.readLong();
+        List<Product> replacements = readProducts(input);
+
+        InventorySnapshot snapshot = storeService.getSnapshot();
+        if (snapshot.getVersion() != version || snapshot.size() != replacements.size()) {
+            output.writeByte(InventoryProtocol.CONFLICT);
+            return;
+        }
+        Map<Product, Product> byOriginal = new IdentityHashMap<>();
+        for (int i = 0; i < replacements.size(); i++) {
+            byOriginal.put(snapshot.get(i), replacements.get(i));
+        }
+        // Products added since the version check are kept as they are
+        storeService.updateAll(product -> byOriginal.getOrDefault(product, product));
+        output.writeByte(InventoryProtocol.OK);
+    }
+
+    private static List<Product> readProducts(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(InventoryProtocol.readProduct(input));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,360 @@
+package com.store.server;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.model.NameDictionary;
+import com.store.model.Product;
+import com.store.service.ProductManager;
+import com.store.service.StoreService;
+import com.store.util.ProductJson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP/JSON API over a ProductManager, for local tools and POS simulators.
+ *
+ * Every request runs on its own virtual thread, so thousands of concurrent clients
+ * only cost memory, not platform threads. The server binds to the loopback address.
+ * Small responses carry a Content-Length; the product listing is streamed to the
+ * client as it is written, so it is never held in memory as a whole.
+ *
+ * Endpoints (products use the inventory file's JSON format):
+ * - GET    /health                  liveness check
+ * - GET    /products                all products
+ * - GET    /products/{name}         one product by name, ignoring case
+ * - POST   /products                add one product (object) or several (array)
+ * - DELETE /products/{name}         remove all products with the name
+ * - DELETE /products?index={n}      remove the product at an index
+ * - GET    /summary                 quantity and value totals
+ * - POST   /sales                   sell units of one product ({"name", "quantity"}) or
+ *                                   several (array); only for a local inventory, whose
+ *                                   sales ledger records them
+ */
+public class InventoryHttpServer {
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final String JSON = "application/json";
+    private static final String PRODUCTS = "/products";
+
+    private final ProductManager productManager;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = objectMapper.getFactory();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates the server; call {@link #start()} to accept requests
+     * @param productManager The inventory to expose
+     * @param port           The port on the loopback address, 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public InventoryHttpServer(ProductManager productManager, int port) throws IOException {
+        this.productManager = productManager;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/health", exchange -> handle(exchange, this::health));
+        server.createContext(PRODUCTS, exchange -> handle(exchange, this::products));
+        server.createContext("/summary", exchange -> handle(exchange, this::summary));
+        server.createContext("/sales", exchange -> handle(exchange, this::sales));
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("Inventory HTTP API listening on http://localhost:" + getPort());
+    }
+
+    /**
+     * Stops accepting requests and waits up to a second for running ones to finish
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        System.out.println("Inventory HTTP API stopped");
+    }
+
+    /**
+     * @return The port the server is bound to
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) {
+        try (exchange) {
+            try {
+                handler.handle(exchange);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (Exception e) {
+                System.err.println("Error handling " + exchange.getRequestMethod() + " "
+                        + exchange.getRequestURI() + ": " + e.getMessage());
+                sendError(exchange, 500, "Internal error");
+            }
+        } catch (IOException e) {
+            // Client went away; nothing left to answer
+        }
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        if (requireMethod(exchange, "GET")) {
+            sendJson(exchange, 200, generator -> {
+                generator.writeStartObject();
+                generator.writeStringField("status", "ok");
+                generator.writeEndObject();
+            });
+        }
+    }
+
+    private void products(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String name = path.length() > PRODUCTS.length() + 1 ? path.substring(PRODUCTS.length() + 1) : null;
+        if (!path.equals(PRODUCTS) && !path.equals(PRODUCTS + "/") && name == null) {
+            sendError(exchange, 404, "Not found");
+            return;
+        }
+
+        switch (exchange.getRequestMethod()) {
+            case "GET":
+                if (name == null) {
+                    List<Product> inventory = productManager.getInventory();
+                    streamJson(exchange, 200, generator -> {
+                        generator.writeStartArray();
+                        for (Product product : inventory) {
+                            ProductJson.write(generator, product);
+                        }
+                        generator.writeEndArray();
+                    });
+                } else {
+                    Optional<Product> product = productManager.findProductByName(name);
+                    if (product.isPresent()) {
+                        sendJson(exchange, 200, generator -> ProductJson.write(generator, product.get()));
+                    } else {
+                        sendError(exchange, 404, "No product named " + name);
+                    }
+                }
+                break;
+            case "POST":
+                if (name != null) {
+                    sendError(exchange, 405, "POST to " + PRODUCTS + " instead");
+                    return;
+                }
+                addProducts(exchange);
+                break;
+            case "DELETE":
+                if (name != null) {
+                    removeByName(exchange, name);
+                } else {
+                    removeByIndex(exchange);
+                }
+                break;
+            default:
+                exchange.getResponseHeaders().set("Allow", "GET, POST, DELETE");
+                sendError(exchange, 405, "Method not allowed");
+        }
+    }
+
+    private void addProducts(HttpExchange exchange) throws IOException {
+        JsonNode body;
+        try (InputStream input = exchange.getRequestBody()) {
+            body = objectMapper.readTree(input);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getMessage());
+        }
+        if (body == null || !(body.isObject() || body.isArray())) {
+            throw new IllegalArgumentException("Expected a product object or an array of products");
+        }
+
+        List<Product> products = new ArrayList<>();
+        for (JsonNode node : body.isArray() ? body : List.of(body)) {
+            if (!node.isObject() || !node.hasNonNull("name")) {
+                throw new IllegalArgumentException("Every product needs a name");
+            }
+            try {
+                products.add(ProductJson.fromNode(node));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid product " + node.get("name").asText() + ": " + e.getMessage());
+            }
+        }
+        if (products.size() == 1) {
+            productManager.addProduct(products.get(0));
+        } else {
+            productManager.addProducts(products);
+        }
+
+        sendJson(exchange, 201, generator -> {
+            generator.writeStartObject();
+            generator.writeNumberField("added", products.size());
+            generator.writeEndObject();
+        });
+    }
+
+    private void removeByName(HttpExchange exchange, String name) throws IOException {
+        int foldedNameId = NameDictionary.global().lookupFoldedId(name);
+        int removed = foldedNameId == NameDictionary.NO_NAME ? 0
+                : productManager.removeIf(product -> product.getFoldedNameId() == foldedNameId);
+        if (removed == 0) {
+            sendError(exchange, 404, "No product named " + name);
+            return;
+        }
+        sendRemoved(exchange, removed);
+    }
+
+    private void removeByIndex(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        if (query == null || !query.startsWith("index=")) {
+            throw new IllegalArgumentException("Use DELETE " + PRODUCTS + "/{name} or " + PRODUCTS + "?index={n}");
+        }
+        int index;
+        try {
+            index = Integer.parseInt(query.substring("index=".length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid index: " + query.substring("index=".length()));
+        }
+        if (!productManager.removeProduct(index)) {
+            sendError(exchange, 404, "No product at index " + index);
+            return;
+        }
+        sendRemoved(exchange, 1);
+    }
+
+    private void summary(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        sendJson(exchange, 200, generator -> {
+            generator.writeStartObject();
+            generator.writeNumberField("productCount", productManager.getInventory().size());
+            generator.writeNumberField("totalQuantity", productManager.getTotalQuantity());
+            generator.writeNumberField("totalGrossPrice", productManager.getTotalGrossPrice());
+            generator.writeNumberField("totalPriceWithPerishableDiscount",
+                    productManager.getTotalPriceWithPerishableDiscount());
+            generator.writeNumberField("totalNetPriceWithDiscount", productManager.getTotalNetPriceWithDiscount());
+            generator.writeEndObject();
+        });
+    }
+
+    private void sales(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "POST")) {
+            return;
+        }
+        if (!(productManager instanceof StoreService)) {
+            sendError(exchange, 501, "Sales can only be recorded by the inventory's own process");
+            return;
+        }
+        JsonNode body;
+        try (InputStream input = exchange.getRequestBody()) {
+            body = objectMapper.readTree(input);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getMessage());
+        }
+        if (body == null || !(body.isObject() || body.isArray())) {
+            throw new IllegalArgumentException("Expected a sale object or an array of sales");
+        }
+        for (JsonNode node : body.isArray() ? body : List.of(body)) {
+            if (!node.path("name").isTextual() || !node.path("quantity").canConvertToInt()
+                    || node.path("quantity").asInt() <= 0) {
+                throw new IllegalArgumentException("Every sale needs a name and a positive quantity");
+            }
+        }
+
+        // Each sale stands alone, like a till; one that exceeds the stock does not undo the others
+        StoreService service = (StoreService) productManager;
+        int sold = 0;
+        List<String> refused = new ArrayList<>();
+        for (JsonNode node : body.isArray() ? body : List.of(body)) {
+            if (service.sell(node.get("name").asText(), node.get("quantity").asInt())) {
+                sold++;
+            } else {
+                refused.add(node.get("name").asText());
+            }
+        }
+        int soldCount = sold;
+        sendJson(exchange, refused.isEmpty() ? 200 : 409, generator -> {
+            generator.writeStartObject();
+            generator.writeNumberField("sold", soldCount);
+            generator.writeArrayFieldStart("refused");
+            for (String name : refused) {
+                generator.writeString(name);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        });
+    }
+
+    private void sendRemoved(HttpExchange exchange, int removed) throws IOException {
+        sendJson(exchange, 200, generator -> {
+            generator.writeStartObject();
+            generator.writeNumberField("removed", removed);
+            generator.writeEndObject();
+        });
+    }
+
+    private boolean requireMethod(HttpExchange exchange, String method) throws IOException {
+        if (method.equals(exchange.getRequestMethod())) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Allow", method);
+        sendError(exchange, 405, "Method not allowed");
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private void sendJson(HttpExchange exchange, int status, JsonWriter writer) throws IOException {
+        // Buffer the body so the response carries a Content-Length and the connection can be reused
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = jsonFactory.createGenerator(body)) {
+            writer.write(generator);
+        }
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, body.size());
+        try (OutputStream output = exchange.getResponseBody()) {
+            body.writeTo(output);
+        }
+    }
+
+    /**
+     * Sends a response of any size with chunked encoding, writing it straight to the
+     * connection. An error part way through can only abort the response, since the
+     * status has been sent already.
+     */
+    private void streamJson(HttpExchange exchange, int status, JsonWriter writer) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, 0);
+        try (OutputStream output = exchange.getResponseBody();
+             JsonGenerator generator = jsonFactory.createGenerator(output)) {
+            writer.write(generator);
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("error", message);
+            generator.writeEndObject();
+        });
+    }
+}
@@ -0,0 +1,97 @@
+package com.store.server;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Binary protocol between the inventory daemon and its clients.
+ *
+ * A client sends a request as an opcode byte followed by its arguments and reads
+ * one response: a status byte followed by the result (or an error message).
+ * Amounts are sent as cents in a long, dates as epoch days, strings as modified
+ * UTF-8 (DataOutput.writeUTF). Requests on one connection are answered in order.
+ */
+final class InventoryProtocol {
+    /** Written by clients when connecting; a daemon answers with the same value */
+    static final int MAGIC = 0x494E5633; // "INV3", pages are sorted by the daemon
+
+    // Requests
+    static final byte PING = 0;
+    static final byte INVENTORY = 1;          // long version, long stockRevision
+    static final byte ADD = 2;                // product
+    static final byte ADD_ALL = 3;            // int count, products
+    static final byte REMOVE = 4;             // int index
+    static final byte REMOVE_AT_VERSION = 5;  // long version, int count, int indices
+    static final byte REPLACE_AT_VERSION = 6; // long version, int count, products
+    static final byte TOTALS = 7;
+    static final byte PAGE = 8;               // long version, long stockRevision, int offset, int limit, sort, boolean ascending
+
+    // Response status
+    static final byte OK = 0;
+    static final byte NOT_MODIFIED = 1;
+    static final byte CONFLICT = 2;
+    static final byte ERROR = 3;
+
+    private static final byte REGULAR = 0;
+    private static final byte PERISHABLE = 1;
+    private static final byte HAS_CATEGORY = 2; // Flag on the product kind
+
+    private InventoryProtocol() {
+        // Prevent instantiation
+    }
+
+    static void writeProduct(DataOutput output, Product product) throws IOException {
+        boolean perishable = product instanceof PerishableProduct;
+        String category = product.getCategory();
+        output.writeByte((perishable ? PERISHABLE : REGULAR) | (category != null ? HAS_CATEGORY : 0));
+        output.writeUTF(product.getName());
+        output.writeLong(toCents(product.getPrice()));
+        output.writeInt(product.getQuantity());
+        output.writeLong(toCents(product.getDiscount()));
+        if (perishable) {
+            output.writeLong(((PerishableProduct) product).getExpirationDate().toEpochDay());
+        }
+        if (category != null) {
+            output.writeUTF(category);
+        }
+    }
+
+    static Product readProduct(DataInput input) throws IOException {
+        byte kind = input.readByte();
+        String name = input.readUTF();
+        BigDecimal price = fromCents(input.readLong());
+        int quantity = input.readInt();
+        BigDecimal discount = fromCents(input.readLong());
+
+        Product product;
+        if ((kind & PERISHABLE) != 0) {
+            String expirationDate = LocalDate.ofEpochDay(input.readLong()).toString();
+            product = new PerishableProduct(name, 0.0, quantity, expirationDate, 0.0);
+        } else {
+            product = new Product(name, 0.0, quantity, 0.0);
+        }
+        product.setPrice(price);
+        product.setDiscount(discount);
+        if ((kind & HAS_CATEGORY) != 0) {
+            product.setCategory(input.readUTF());
+        }
+        return product;
+    }
+
+    /**
+     * Amounts in this application always have two decimals
+     */
+    static long toCents(BigDecimal amount) {
+        return amount.setScale(2).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
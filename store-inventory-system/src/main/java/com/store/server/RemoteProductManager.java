@@ -0,0 +1,404 @@
+package com.store.server;
+
+import com.store.model.NameDictionary;
+import com.store.model.Product;
+import com.store.service.InventoryPage;
+import com.store.service.ProductManager;
+import com.store.service.ProductSort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * ProductManager backed by an {@link InventoryDaemon}. Used by the console and GUI
+ * as a thin client: nothing is loaded from disk, every call is a round trip over
+ * the daemon's Unix domain socket.
+ *
+ * The inventory list is cached together with its version and only transferred
+ * again after it changed. Products returned by this class are copies; change them
+ * through the manager (e.g. {@link #updateAll}) rather than in place.
+ * Calls are serialized over the single connection, so the class is thread-safe.
+ */
+public class RemoteProductManager implements ProductManager, AutoCloseable {
+    // A removeIf, updateAll or getPage racing with other changes is retried on a fresh copy
+    private static final int MAX_ATTEMPTS = 10;
+
+    private final SocketChannel channel;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+
+    private List<Product> inventory = List.of();
+    private long inventoryVersion = -1;
+    private long inventoryRevision = -1;
+
+    private RemoteProductManager(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        this.input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        this.output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+
+        output.writeInt(InventoryProtocol.MAGIC);
+        output.flush();
+        if (input.readInt() != InventoryProtocol.MAGIC) {
+            throw new IOException("Not an inventory daemon");
+        }
+    }
+
+    /**
+     * Connects to a running daemon
+     * @param socketPath The daemon's socket file
+     * @return The connected manager
+     * @throws IOException if no daemon accepts the connection
+     */
+    public static RemoteProductManager connect(Path socketPath) throws IOException {
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+            return new RemoteProductManager(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void addProduct(Product product) {
+        try {
+            output.writeByte(InventoryProtocol.ADD);
+            InventoryProtocol.writeProduct(output, product);
+            expectOk();
+        } catch (IOException e) {
+            throw disconnected(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void addProducts(Collection<? extends Product> products) {
+        try {
+            output.writeByte(InventoryProtocol.ADD_ALL);
+            writeProducts(products);
+            expectOk();
+        } catch (IOException e) {
+            throw disconnected(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean removeProduct(int index) {
+        try {
+            output.writeByte(InventoryProtocol.REMOVE);
+            output.writeInt(index);
+            expectOk();
+            return input.readBoolean();
+        } catch (IOException e) {
+            throw disconnected(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The filter runs on this client's copy of the inventory.
+     */
+    @Override
+    public synchronized int removeIf(Predicate<? super Product> filter) {
+        try {
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                List<Product> current = fetchInventory();
+                List<Integer> indexes = new ArrayList<>();
+                for (int i = 0; i < current.size(); i++) {
+                    if (filter.test(current.get(i))) {
+                        indexes.add(i);
+                    }
+                }
+                if (indexes.isEmpty()) {
+                    return 0;
+                }
+
+                output.writeByte(InventoryProtocol.REMOVE_AT_VERSION);
+                output.writeLong(inventoryVersion);
+                output.writeInt(indexes.size());
+                for (int index : indexes) {
+                    output.writeInt(index);
+                }
+                if (send() == InventoryProtocol.OK) {
+                    return input.readInt();
+                }
+            }
+        } catch (IOException e) {
+            throw disconnected(e);
+        }
+        System.err.println("Inventory kept changing; removeIf gave up after " + MAX_ATTEMPTS + " attempts");
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The updater runs on copies of the products in this client's inventory.
+     */
+    @Override
+    public synchronized void updateAll(UnaryOperator<Product> updater) {
+        try {
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                List<Product> updated = new ArrayList<>();
+                for (Product product : fetchInventory()) {
+                    updated.add(updater.apply(copy(product)));
+                }
+
+                output.writeByte(InventoryProtocol.REPLACE_AT_VERSION);
+                output.writeLong(inventoryVersion);
+                writeProducts(updated);
+                if (send() == InventoryProtocol.OK) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            throw disconnected(e);
+        }
+        System.err.println("Inventory kept changing; updateAll gave up after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized List<Product> getInventory() {
+        try {
+            return fetchInventory();
+        } catch (IOException e) {
+            throw disconnected(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The daemon sorts with its sort indexes and sends positions in this client's
+     * copy, so only the page's positions cross the socket while the copy is current
+     * and the page holds the same instances getInventory returns.
+     */
+    @Override
+    public synchronized InventoryPage getPage(int offset, int limit, ProductSort sort, boolean ascending) {
+        try {
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                output.writeByte(InventoryProtocol.PAGE);
+                output.writeLong(inventoryVersion);
+                output.writeLong(inventoryRevision);
+                output.writeInt(offset);
+                output.writeInt(limit);
+                output.writeUTF(sort.name());
+                output.writeBoolean(ascending);
+                if (send() == InventoryProtocol.OK) {
+                    int count = input.readInt();
+                    List<Product> products = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        products.add(inventory.get(input.readInt()));
+                    }
+                    return InventoryPage.wrap(products, offset, inventory.size(), inventoryVersion);
+                }
+                // The copy is out of date; bring it up to date and ask again
+                fetchInventory();
+            }
+        } catch (IOException e) {
+            throw disconnected(e);
+        }
+        System.err.println("Inventory kept changing; sorting the page locally after " + MAX_ATTEMPTS + " attempts");
+        return ProductManager.super.getPage(offset, limit, sort, ascending);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Optional<Product> findProductByName(String name) {
+        // Search the cached copy so results are the same instances getInventory returns
+        int foldedNameId = NameDictionary.global().lookupFoldedId(name);
+        if (foldedNameId == NameDictionary.NO_NAME) {
+            return Optional.empty();
+        }
+        for (Product product : getInventory()) {
+            if (product.getFoldedNameId() == foldedNameId) {
+                return Optional.of(product);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTotalQuantity() {
+        return totals().quantity;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BigDecimal getTotalGrossPrice() {
+        return totals().gross;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BigDecimal getTotalPriceWithPerishableDiscount() {
+        return totals().withPerishableDiscount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BigDecimal getTotalNetPriceWithDiscount() {
+        return totals().net;
+    }
+
+    /**
+     * Checks that the daemon still answers
+     * @return true if the daemon responded
+     */
+    public synchronized boolean ping() {
+        try {
+            output.writeByte(InventoryProtocol.PING);
+            return send() == InventoryProtocol.OK;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return false once the connection was closed
+     */
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    /**
+     * Closes the connection; the daemon keeps running
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing inventory daemon connection: " + e.getMessage());
+        }
+    }
+
+    private List<Product> fetchInventory() throws IOException {
+        output.writeByte(InventoryProtocol.INVENTORY);
+        output.writeLong(inventoryVersion);
+        output.writeLong(inventoryRevision);
+        byte status = send();
+        if (status == InventoryProtocol.NOT_MODIFIED) {
+            return inventory;
+        }
+        checkOk(status);
+        long version = input.readLong();
+        long revision = input.readLong();
+        int count = input.readInt();
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(InventoryProtocol.readProduct(input));
+        }
+        inventory = Collections.unmodifiableList(products);
+        inventoryVersion = version;
+        inventoryRevision = revision;
+        return inventory;
+    }
+
+    private synchronized Totals totals() {
+        try {
+            output.writeByte(InventoryProtocol.TOTALS);
+            expectOk();
+            return new Totals(input.readInt(),
+                    InventoryProtocol.fromCents(input.readLong()),
+                    InventoryProtocol.fromCents(input.readLong()),
+                    InventoryProtocol.fromCents(input.readLong()));
+        } catch (IOException e) {
+            throw disconnected(e);
+        }
+    }
+
+    private static final class Totals {
+        private final int quantity;
+        private final BigDecimal gross;
+        private final BigDecimal withPerishableDiscount;
+        private final BigDecimal net;
+
+        private Totals(int quantity, BigDecimal gross, BigDecimal withPerishableDiscount, BigDecimal net) {
+            this.quantity = quantity;
+            this.gross = gross;
+            this.withPerishableDiscount = withPerishableDiscount;
+            this.net = net;
+        }
+    }
+
+    private void writeProducts(Collection<? extends Product> products) throws IOException {
+        output.writeInt(products.size());
+        for (Product product : products) {
+            InventoryProtocol.writeProduct(output, product);
+        }
+    }
+
+    private static Product copy(Product product) throws IOException {
+        // Round trip through the wire format, which preserves every persisted field
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        InventoryProtocol.writeProduct(new DataOutputStream(buffer), product);
+        return InventoryProtocol.readProduct(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+    }
+
+    /**
+     * Sends the buffered request and reads the response status
+     */
+    private byte send() throws IOException {
+        output.flush();
+        byte status = input.readByte();
+        if (status == InventoryProtocol.ERROR) {
+            throw new IllegalStateException("Inventory daemon error: " + input.readUTF());
+        }
+        return status;
+    }
+
+    private void expectOk() throws IOException {
+        checkOk(send());
+    }
+
+    private static void checkOk(byte status) {
+        if (status != InventoryProtocol.OK) {
+            throw new IllegalStateException("Unexpected inventory daemon response " + status);
+        }
+    }
+
+    private static UncheckedIOException disconnected(IOException e) {
+        return new UncheckedIOException("Lost connection to inventory daemon", e);
+    }
+}
@@ -0,0 +1,178 @@
+package com.store.service;
+
+import com.store.model.Product;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs ProductManager calls on a dedicated I/O thread, so callers such as the
+ * JavaFX application thread never block on disk writes or daemon round trips.
+ *
+ * Calls run one at a time in submission order. Returned futures complete on the
+ * callback executor (Platform::runLater for the GUI), so stages attached to them
+ * may touch the UI directly.
+ */
+public class AsyncProductManager implements AutoCloseable {
+    private final ProductManager productManager;
+    private final Executor callbackExecutor;
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile IntConsumer pendingListener = count -> { };
+
+    /**
+     * @param productManager   The manager to call
+     * @param callbackExecutor Where futures are completed and the pending listener is called
+     */
+    public AsyncProductManager(ProductManager productManager, Executor callbackExecutor) {
+        this.productManager = productManager;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * @param listener Called on the callback executor with the number of calls not finished yet
+     */
+    public void setPendingListener(IntConsumer listener) {
+        this.pendingListener = listener;
+    }
+
+    /**
+     * @return The number of calls submitted but not finished yet
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Adds a product (and saves the inventory) in the background
+     */
+    public CompletableFuture<Void> addProduct(Product product) {
+        return call(manager -> {
+            manager.addProduct(product);
+            return null;
+        });
+    }
+
+    /**
+     * Adds several products (and saves the inventory once) in the background
+     */
+    public CompletableFuture<Void> addProducts(Collection<? extends Product> products) {
+        return call(manager -> {
+            manager.addProducts(products);
+            return null;
+        });
+    }
+
+    /**
+     * Removes a product (and saves the inventory) in the background.
+     * The product is located when the call runs, so earlier calls cannot shift its position.
+     *
+     * @return A future with true if the product was found and removed
+     */
+    public CompletableFuture<Boolean> removeProduct(Product product) {
+        return call(manager -> {
+            List<Product> inventory = manager.getInventory();
+            for (int i = 0; i < inventory.size(); i++) {
+                if (inventory.get(i) == product) {
+                    return manager.removeProduct(i);
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Removes several products (and saves the inventory once) in the background.
+     * Products are matched by identity, like {@link #removeProduct}.
+     *
+     * @return A future with the number of products found and removed
+     */
+    public CompletableFuture<Integer> removeProducts(Collection<Product> products) {
+        Set<Product> removing = Collections.newSetFromMap(new IdentityHashMap<>());
+        removing.addAll(products);
+        return call(manager -> manager.removeIf(removing::contains));
+    }
+
+    /**
+     * Runs an arbitrary action in the background, e.g. a save
+     */
+    public CompletableFuture<Void> run(Runnable action) {
+        return call(manager -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Calls the manager in the background
+     * @param call The work to do with the manager
+     * @return A future completed on the callback executor with the call's result
+     */
+    public <T> CompletableFuture<T> call(Function<? super ProductManager, T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        changePending(1);
+        try {
+            ioExecutor.execute(() -> {
+                T value = null;
+                Throwable failure = null;
+                try {
+                    value = call.apply(productManager);
+                } catch (Throwable e) {
+                    failure = e;
+                }
+                T completedValue = value;
+                Throwable completedFailure = failure;
+                callbackExecutor.execute(() -> {
+                    changePending(-1);
+                    if (completedFailure != null) {
+                        result.completeExceptionally(completedFailure);
+                    } else {
+                        result.complete(completedValue);
+                    }
+                });
+            });
+        } catch (RuntimeException e) {
+            // Rejected after close
+            changePending(-1);
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private void changePending(int delta) {
+        int count = pending.addAndGet(delta);
+        callbackExecutor.execute(() -> pendingListener.accept(count));
+    }
+
+    /**
+     * Stops accepting calls and waits for the submitted ones (e.g. a final save) to finish.
+     * Their futures may no longer complete if the callback executor has stopped.
+     */
+    @Override
+    public void close() {
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("Inventory I/O did not finish within 30 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
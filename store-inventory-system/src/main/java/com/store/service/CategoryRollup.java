@@ -0,0 +1,110 @@
+package com.store.service;
+
+import com.store.model.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Totals of a category and all categories below it, see {@link ProductManager#getCategoryRollup}.
+ *
+ * Values are gross (price times quantity): unlike the discounted value, which
+ * changes with the date for perishables, they can be kept up to date by adding
+ * each stock change.
+ */
+public final class CategoryRollup {
+    private final String category;
+    private final int productCount;
+    private final long quantity;
+    private final BigDecimal grossValue;
+    private final List<String> subcategories;
+
+    CategoryRollup(String category, int productCount, long quantity, BigDecimal grossValue,
+            List<String> subcategories) {
+        this.category = category;
+        this.productCount = productCount;
+        this.quantity = quantity;
+        this.grossValue = grossValue;
+        this.subcategories = subcategories;
+    }
+
+    /**
+     * Computes a rollup by reading every product
+     * @return The rollup, or null if no product is in the category
+     */
+    static CategoryRollup scan(List<Product> products, String category) {
+        String path = Product.normalizeCategory(category);
+        String prefix = path == null ? "" : path + Product.CATEGORY_SEPARATOR;
+        int count = 0;
+        long quantity = 0;
+        BigDecimal gross = BigDecimal.ZERO;
+        TreeSet<String> subcategories = new TreeSet<>();
+        for (Product product : products) {
+            String own = product.getCategory();
+            boolean below = own != null && own.startsWith(prefix);
+            if (path != null && !below && !path.equals(own)) {
+                continue;
+            }
+            count++;
+            int units = product.getQuantity();
+            quantity += units;
+            gross = gross.add(product.getPrice().multiply(BigDecimal.valueOf(units)));
+            if (below) {
+                int end = own.indexOf(Product.CATEGORY_SEPARATOR, prefix.length());
+                subcategories.add(end < 0 ? own : own.substring(0, end));
+            }
+        }
+        if (count == 0 && path != null) {
+            return null;
+        }
+        return new CategoryRollup(path, count, quantity, gross.setScale(2, RoundingMode.HALF_UP),
+                List.copyOf(subcategories));
+    }
+
+    /**
+     * @return The category path, or null for the whole inventory
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * @return The last level of the category path, e.g. "Dairy" for "Food/Dairy"
+     */
+    public String getName() {
+        if (category == null) {
+            return null;
+        }
+        return category.substring(category.lastIndexOf(Product.CATEGORY_SEPARATOR) + 1);
+    }
+
+    /**
+     * @return Products in the category or below it
+     */
+    public int getProductCount() {
+        return productCount;
+    }
+
+    /**
+     * @return Units in stock in the category or below it
+     */
+    public long getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * @return Price times quantity of the products in the category or below it
+     */
+    public BigDecimal getGrossValue() {
+        return grossValue;
+    }
+
+    /**
+     * @return Paths of the categories one level below, in order
+     */
+    public List<String> getSubcategories() {
+        return subcategories;
+    }
+}
@@ -0,0 +1,255 @@
+package com.store.service;
+
+import com.store.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Category tree of a {@link StoreService} inventory with running totals per
+ * category, so a category's totals are read in O(depth) instead of by scanning
+ * the inventory.
+ *
+ * Every product is a member of the node of its category (or of the root) and
+ * has added its count, quantity and gross value to that node and each node above
+ * it. Structural changes (added, removed, rebuild) are made by the service while
+ * it holds its change monitor. Stock changes arrive from any thread without that
+ * monitor: a member then adds the difference between the product's quantity and
+ * the quantity it last accounted for, so a change reported twice, or after the
+ * member was replaced by a rebuild, is still counted once.
+ */
+final class CategoryRollups {
+    // Products do not override equals, so this is keyed by identity
+    private final Map<Product, Member> members = new ConcurrentHashMap<>();
+    private volatile Node root = new Node(null, null);
+
+    /**
+     * A product joined the inventory
+     */
+    void added(Product product) {
+        Member previous = join(product, root);
+        if (previous != null) {
+            // The same product twice counts once
+            previous.leave();
+        }
+    }
+
+    /**
+     * A product left the inventory
+     */
+    void removed(Product product) {
+        Member member = members.remove(product);
+        if (member != null) {
+            member.leave();
+        }
+    }
+
+    /**
+     * The stock of a product changed in place; safe to call from any thread
+     */
+    void adjusted(Product product) {
+        Member member = members.get(product);
+        while (member != null && !member.sync()) {
+            // Replaced by a rebuild since it was looked up; the replacement accounts for the product now
+            Member replacement = members.get(product);
+            if (replacement == member) {
+                return;
+            }
+            member = replacement;
+        }
+    }
+
+    /**
+     * Rebuilds the tree for an inventory whose products may have changed in any
+     * way (categories, prices). Readers see the previous tree until it is done.
+     */
+    void rebuild(List<Product> products) {
+        Node fresh = new Node(null, null);
+        Map<Product, Boolean> current = new IdentityHashMap<>();
+        for (Product product : products) {
+            if (current.put(product, Boolean.TRUE) != null) {
+                continue;
+            }
+            Member previous = join(product, fresh);
+            if (previous != null) {
+                previous.retire();
+            }
+        }
+        members.entrySet().removeIf(entry -> {
+            if (!current.containsKey(entry.getKey())) {
+                entry.getValue().retire();
+                return true;
+            }
+            return false;
+        });
+        root = fresh;
+    }
+
+    /**
+     * Accounts again for every product's current stock
+     */
+    void syncAll() {
+        members.values().forEach(Member::sync);
+    }
+
+    /**
+     * @param category A category path, or null for the whole inventory
+     * @return The totals, or null if no product is in the category
+     */
+    CategoryRollup get(String category) {
+        String path = Product.normalizeCategory(category);
+        Node node = root;
+        if (path != null) {
+            int start = 0;
+            while (node != null && start <= path.length()) {
+                int end = path.indexOf(Product.CATEGORY_SEPARATOR, start);
+                if (end < 0) {
+                    end = path.length();
+                }
+                node = node.children.get(path.substring(start, end));
+                start = end + 1;
+            }
+            if (node == null) {
+                return null;
+            }
+        }
+        List<String> subcategories = new ArrayList<>(node.children.size());
+        for (Node child : node.children.values()) {
+            subcategories.add(child.path);
+        }
+        return new CategoryRollup(path, (int) node.products.sum(), node.quantity.sum(),
+                BigDecimal.valueOf(node.grossCents.sum(), 2), List.copyOf(subcategories));
+    }
+
+    /**
+     * Makes a product a member of a tree
+     * @return The member it replaces, still active
+     */
+    private Member join(Product product, Node tree) {
+        Member member = new Member(product, tree.nodeFor(product.getCategory()));
+        // Registered before reading the stock, so a concurrent change either is read
+        // here or finds the member and adds itself
+        Member previous = members.put(product, member);
+        member.sync();
+        return previous;
+    }
+
+    /**
+     * A category with the totals of everything at or below it
+     */
+    private static final class Node {
+        private final String path;
+        private final Node parent;
+        // Only changed by structural changes; sorted so categories list in order
+        private final Map<String, Node> children = new ConcurrentSkipListMap<>();
+        private final LongAdder products = new LongAdder();
+        private final LongAdder quantity = new LongAdder();
+        private final LongAdder grossCents = new LongAdder();
+
+        private Node(String path, Node parent) {
+            this.path = path;
+            this.parent = parent;
+        }
+
+        private Node nodeFor(String category) {
+            Node node = this;
+            if (category == null) {
+                return node;
+            }
+            int start = 0;
+            while (start <= category.length()) {
+                int end = category.indexOf(Product.CATEGORY_SEPARATOR, start);
+                if (end < 0) {
+                    end = category.length();
+                }
+                Node parentNode = node;
+                node = parentNode.children.computeIfAbsent(category.substring(start, end),
+                        level -> new Node(parentNode.path == null ? level
+                                : parentNode.path + Product.CATEGORY_SEPARATOR + level, parentNode));
+                start = end + 1;
+            }
+            return node;
+        }
+
+        /**
+         * Drops this node and empty nodes above it from the tree
+         */
+        private void prune() {
+            Node node = this;
+            while (node.parent != null && node.products.sum() == 0 && node.children.isEmpty()) {
+                node.parent.children.remove(node.path.substring(node.path.lastIndexOf(Product.CATEGORY_SEPARATOR) + 1));
+                node = node.parent;
+            }
+        }
+    }
+
+    /**
+     * A product's contribution to the totals of its category and the ones above it
+     */
+    private static final class Member {
+        private final Product product;
+        private final Node node;
+        private final long priceCents;
+        // Guarded by this
+        private boolean active = true;
+        private int accountedQuantity;
+
+        private Member(Product product, Node node) {
+            this.product = product;
+            this.node = node;
+            this.priceCents = product.getPrice().movePointRight(2).longValue();
+            for (Node n = node; n != null; n = n.parent) {
+                n.products.increment();
+            }
+        }
+
+        /**
+         * Adds the stock change since the last sync
+         * @return false if the member no longer counts
+         */
+        private synchronized boolean sync() {
+            if (!active) {
+                return false;
+            }
+            int quantity = product.getQuantity();
+            long delta = (long) quantity - accountedQuantity;
+            if (delta != 0) {
+                accountedQuantity = quantity;
+                for (Node n = node; n != null; n = n.parent) {
+                    n.quantity.add(delta);
+                    n.grossCents.add(delta * priceCents);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Takes the product out of the totals
+         */
+        private synchronized void leave() {
+            if (!active) {
+                return;
+            }
+            active = false;
+            for (Node n = node; n != null; n = n.parent) {
+                n.products.decrement();
+                n.quantity.add(-accountedQuantity);
+                n.grossCents.add(-accountedQuantity * priceCents);
+            }
+            node.prune();
+        }
+
+        /**
+         * Stops counting, leaving the totals of a tree that is being replaced as they are
+         */
+        private synchronized void retire() {
+            active = false;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.store.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Follows the {@link InventoryChange}s of a StoreService and hands them to a view
+ * in batches.
+ *
+ * Changes are queued on the publisher's delivery thread and applied by a single
+ * task on the subscriber's executor (Platform::runLater for the GUI), so a burst
+ * of changes between two runs arrives as one batch. At most one buffer's worth of
+ * changes is requested at a time, so a subscriber that cannot keep up is sent a
+ * reset instead of queueing without bound.
+ */
+public abstract class CoalescingChangeSubscriber implements Flow.Subscriber<InventoryChange> {
+    // Changes requested at a time, and the buffer capacity subscribed with
+    private static final int BATCH_SIZE = InventoryChangePublisher.DEFAULT_BUFFER_CAPACITY;
+
+    private final String name;
+    private final Executor executor;
+
+    // Filled by the publisher's delivery thread, drained on the executor
+    private final Queue<InventoryChange> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile Flow.Subscription subscription;
+    private volatile boolean cancelled;
+
+    /**
+     * @param name     What follows the changes, for error messages
+     * @param executor Where batches are applied
+     */
+    protected CoalescingChangeSubscriber(String name, Executor executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+
+    /**
+     * Applies the changes received since the last batch. Called on the executor.
+     *
+     * @param changes Changes in publication order; after a reset only those that followed it
+     * @param reset   true if a reset was received, so the inventory must be read again first
+     */
+    protected abstract void apply(List<InventoryChange> changes, boolean reset);
+
+    /**
+     * Starts following a service's changes
+     */
+    public void subscribeTo(StoreService service) {
+        service.changes().subscribe(this, BATCH_SIZE);
+    }
+
+    /**
+     * Stops following the inventory; changes still in flight are dropped
+     */
+    public void cancel() {
+        cancelled = true;
+        pending.clear();
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    @Override
+    public final void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        // Subscriptions are confirmed asynchronously, possibly after the subscriber was cancelled
+        if (cancelled) {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(BATCH_SIZE);
+    }
+
+    @Override
+    public final void onNext(InventoryChange change) {
+        pending.add(change);
+        if (flushScheduled.compareAndSet(false, true)) {
+            executor.execute(this::flush);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        System.err.println(name + " stopped following changes: " + throwable.getMessage());
+    }
+
+    @Override
+    public final void onComplete() {
+        // The inventory outlives the views following it
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        if (cancelled) {
+            return;
+        }
+        List<InventoryChange> batch = new ArrayList<>();
+        InventoryChange change;
+        while ((change = pending.poll()) != null) {
+            batch.add(change);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Everything before the last reset is superseded by reading the inventory again
+        int start = 0;
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (batch.get(i).getType() == InventoryChange.Type.RESET) {
+                start = i + 1;
+                break;
+            }
+        }
+        apply(batch.subList(start, batch.size()), start > 0);
+        subscription.request(batch.size());
+    }
+}
@@ -0,0 +1,413 @@
+package com.store.service;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks which {@link ExpiryStage} each perishable product is in and notifies
+ * listeners when a product moves to the next one (7 days left, 2 days left,
+ * expired), so views can look a product's stage up instead of doing date math
+ * for every row they draw.
+ *
+ * Each product is scheduled for the day of its next stage change on a
+ * hierarchical timing wheel with day ticks: 64 one-day slots, 64 slots of 64
+ * days and 64 slots of 4096 days, with dates further out kept on an overflow
+ * list. Advancing a day only looks at that day's slot (and, every 64 days, moves
+ * one slot of the next level down), however many products are tracked.
+ *
+ * The tracked products follow a local inventory through its change stream, on
+ * the delivery thread, and a remote one through {@link #refresh()}; the wheel
+ * advances at midnight.
+ */
+public final class ExpiryScheduler extends CoalescingChangeSubscriber implements AutoCloseable {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 3;
+
+    /**
+     * Receives stage changes, on the thread that noticed them
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void expiryChanged(Event event);
+    }
+
+    private final ProductManager productManager;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private final List<List<Entry>> wheel = new ArrayList<>(LEVELS * SLOTS);
+    private List<Entry> overflow = new ArrayList<>();
+    private final Map<Product, Entry> entries = new IdentityHashMap<>();
+    private final Map<Product, Entry> expiring = new IdentityHashMap<>(); // Entries past FRESH
+    private long currentDay;
+    private long generation;
+
+    private ScheduledExecutorService clock;
+
+    /**
+     * @param productManager The inventory whose perishable products are tracked
+     */
+    public ExpiryScheduler(ProductManager productManager) {
+        this(productManager, LocalDate.now());
+    }
+
+    ExpiryScheduler(ProductManager productManager, LocalDate today) {
+        // Changes are cheap to apply, so they are applied as they are delivered
+        super("Expiry scheduler", Runnable::run);
+        this.productManager = productManager;
+        this.currentDay = today.toEpochDay();
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Starts tracking the inventory and advancing at midnight
+     */
+    public void start() {
+        synchronized (this) {
+            if (clock != null) {
+                return;
+            }
+            clock = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "expiry-clock");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduleMidnight();
+        }
+        // Subscribe before reading, so no change between the two is missed
+        if (productManager instanceof StoreService) {
+            subscribeTo((StoreService) productManager);
+        }
+        refresh();
+    }
+
+    /**
+     * Catches up with the inventory (needed for a remote one) and the date
+     */
+    public void refresh() {
+        List<Event> events = new ArrayList<>();
+        synchronized (this) {
+            advance(LocalDate.now().toEpochDay(), events);
+            sync(productManager.getInventory(), events);
+        }
+        notifyListeners(events);
+    }
+
+    /**
+     * Moves the wheel forward to the given day, firing all stage changes up to it
+     */
+    public void advanceTo(LocalDate date) {
+        List<Event> events = new ArrayList<>();
+        synchronized (this) {
+            advance(date.toEpochDay(), events);
+        }
+        notifyListeners(events);
+    }
+
+    /**
+     * @return The product's stage, or null if it is not a tracked perishable product
+     */
+    public synchronized ExpiryStage stageOf(Product product) {
+        Entry entry = entries.get(product);
+        return entry != null ? entry.stage : null;
+    }
+
+    /**
+     * @return The day stages are currently computed for
+     */
+    public synchronized LocalDate getDate() {
+        return LocalDate.ofEpochDay(currentDay);
+    }
+
+    /**
+     * @return Products expiring within 7 days or expired, soonest expiration first
+     */
+    public synchronized List<Event> getExpiringProducts() {
+        List<Event> report = new ArrayList<>(expiring.size());
+        LocalDate date = LocalDate.ofEpochDay(currentDay);
+        for (Entry entry : expiring.values()) {
+            report.add(new Event(entry.product, entry.stage, entry.stage, date));
+        }
+        report.sort(Comparator.comparing((Event event) -> event.getProduct().getExpirationDate())
+                .thenComparing(event -> event.getProduct().getName()));
+        return report;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stops following the inventory and the clock
+     */
+    @Override
+    public void close() {
+        cancel();
+        synchronized (this) {
+            if (clock != null) {
+                clock.shutdownNow();
+            }
+        }
+    }
+
+    @Override
+    protected void apply(List<InventoryChange> changes, boolean reset) {
+        List<Event> events = new ArrayList<>();
+        synchronized (this) {
+            if (reset) {
+                sync(productManager.getInventory(), events);
+            }
+            for (InventoryChange change : changes) {
+                switch (change.getType()) {
+                    case ADDED:
+                        track(change.getProduct(), events);
+                        break;
+                    case REMOVED:
+                        untrack(change.getProduct(), events);
+                        break;
+                    default:
+                        // Stock changes do not move expiration dates
+                        break;
+                }
+            }
+        }
+        notifyListeners(events);
+    }
+
+    private void scheduleMidnight() {
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay(now.getZone());
+        // A second late, so LocalDate.now() has certainly moved on
+        long delay = Duration.between(now, midnight).toMillis() + 1000;
+        clock.schedule(() -> {
+            try {
+                advanceTo(LocalDate.now());
+            } catch (RuntimeException e) {
+                System.err.println("Error advancing expiry dates: " + e.getMessage());
+            }
+            synchronized (this) {
+                if (!clock.isShutdown()) {
+                    scheduleMidnight();
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void track(Product product, List<Event> events) {
+        if (!(product instanceof PerishableProduct) || entries.containsKey(product)) {
+            return;
+        }
+        PerishableProduct perishable = (PerishableProduct) product;
+        LocalDate date = LocalDate.ofEpochDay(currentDay);
+        Entry entry = new Entry(perishable, ExpiryStage.of(perishable, date));
+        entry.generation = generation;
+        entries.put(product, entry);
+        if (entry.stage != ExpiryStage.FRESH) {
+            expiring.put(product, entry);
+            events.add(new Event(perishable, null, entry.stage, date));
+        }
+        scheduleNext(entry);
+    }
+
+    private void untrack(Product product, List<Event> events) {
+        Entry entry = entries.remove(product);
+        if (entry == null) {
+            return;
+        }
+        // Left on the wheel and skipped when its slot comes up
+        entry.cancelled = true;
+        if (expiring.remove(product) != null) {
+            events.add(new Event(entry.product, entry.stage, null, LocalDate.ofEpochDay(currentDay)));
+        }
+    }
+
+    /**
+     * Tracks exactly the perishable products in the list
+     */
+    private void sync(List<Product> products, List<Event> events) {
+        long current = ++generation;
+        for (Product product : products) {
+            Entry entry = entries.get(product);
+            if (entry != null) {
+                entry.generation = current;
+            } else {
+                track(product, events);
+            }
+        }
+        List<Product> gone = new ArrayList<>();
+        entries.forEach((product, entry) -> {
+            if (entry.generation != current) {
+                gone.add(product);
+            }
+        });
+        for (Product product : gone) {
+            untrack(product, events);
+        }
+    }
+
+    private void scheduleNext(Entry entry) {
+        LocalDate next = entry.stage.nextStageDate(entry.product.getExpirationDate());
+        if (next != null) {
+            entry.dueDay = next.toEpochDay();
+            place(entry);
+        }
+    }
+
+    /**
+     * Puts an entry on the lowest level whose span covers its due day
+     */
+    private void place(Entry entry) {
+        long dueDay = Math.max(entry.dueDay, currentDay + 1);
+        long delta = dueDay - currentDay;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                int slot = (int) ((dueDay >>> (SLOT_BITS * level)) & (SLOTS - 1));
+                wheel.get(level * SLOTS + slot).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private void advance(long targetDay, List<Event> events) {
+        while (currentDay < targetDay) {
+            currentDay++;
+            cascade();
+            List<Entry> due = replaceSlot(0, (int) (currentDay & (SLOTS - 1)));
+            LocalDate date = LocalDate.ofEpochDay(currentDay);
+            for (Entry entry : due) {
+                if (entry.cancelled) {
+                    continue;
+                }
+                if (entry.dueDay > currentDay) {
+                    place(entry);
+                    continue;
+                }
+                ExpiryStage stage = ExpiryStage.of(entry.product, date);
+                if (stage != entry.stage) {
+                    events.add(new Event(entry.product, entry.stage, stage, date));
+                    entry.stage = stage;
+                    expiring.put(entry.product, entry);
+                }
+                scheduleNext(entry);
+            }
+        }
+    }
+
+    /**
+     * At the start of each higher-level slot's span, moves its entries down a level
+     */
+    private void cascade() {
+        if ((currentDay & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+            List<Entry> far = overflow;
+            overflow = new ArrayList<>();
+            far.forEach(this::replace);
+        }
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentDay & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                int slot = (int) ((currentDay >>> (SLOT_BITS * level)) & (SLOTS - 1));
+                replaceSlot(level, slot).forEach(this::replace);
+            }
+        }
+    }
+
+    private void replace(Entry entry) {
+        if (!entry.cancelled) {
+            place(entry);
+        }
+    }
+
+    private List<Entry> replaceSlot(int level, int slot) {
+        return wheel.set(level * SLOTS + slot, new ArrayList<>());
+    }
+
+    private void notifyListeners(List<Event> events) {
+        for (Event event : events) {
+            for (Listener listener : listeners) {
+                listener.expiryChanged(event);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final PerishableProduct product;
+        private ExpiryStage stage;
+        private long dueDay;
+        private boolean cancelled;
+        private long generation;
+
+        private Entry(PerishableProduct product, ExpiryStage stage) {
+            this.product = product;
+            this.stage = stage;
+        }
+    }
+
+    /**
+     * A product's move from one stage to another
+     */
+    public static final class Event {
+        private final PerishableProduct product;
+        private final ExpiryStage previous;
+        private final ExpiryStage current;
+        private final LocalDate date;
+
+        private Event(PerishableProduct product, ExpiryStage previous, ExpiryStage current, LocalDate date) {
+            this.product = product;
+            this.previous = previous;
+            this.current = current;
+            this.date = date;
+        }
+
+        public PerishableProduct getProduct() {
+            return product;
+        }
+
+        /**
+         * @return The stage before, or null if the product was not tracked yet
+         */
+        public ExpiryStage getPrevious() {
+            return previous;
+        }
+
+        /**
+         * @return The stage now, or null if the product was removed from the inventory
+         */
+        public ExpiryStage getCurrent() {
+            return current;
+        }
+
+        /**
+         * @return The day the change applies to
+         */
+        public LocalDate getDate() {
+            return date;
+        }
+
+        /**
+         * @return Days until the product expires, negative once it has expired
+         */
+        public long getDaysLeft() {
+            return product.getExpirationDate().toEpochDay() - date.toEpochDay();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.store.service;
+
+import com.store.model.PerishableProduct;
+
+import java.time.LocalDate;
+
+/**
+ * How close a perishable product is to its expiration date, in the tiers
+ * {@link PerishableProduct#getTotalValue()} discounts by
+ */
+public enum ExpiryStage {
+    /** More than 7 days left; no extra discount */
+    FRESH(10, "Fresh"),
+    /** 3 to 7 days left */
+    EXPIRING_SOON(7, "Expires within 7 days"),
+    /** 0 to 2 days left */
+    EXPIRING(5, "Expires within 2 days"),
+    /** Past its expiration date */
+    EXPIRED(2, "Expired");
+
+    private final int multiplierTenths;
+    private final String description;
+
+    ExpiryStage(int multiplierTenths, String description) {
+        this.multiplierTenths = multiplierTenths;
+        this.description = description;
+    }
+
+    /**
+     * @return The stage the product is in on the given day
+     */
+    public static ExpiryStage of(PerishableProduct product, LocalDate date) {
+        int multiplier = product.getExpiryMultiplierTenths(date);
+        for (ExpiryStage stage : values()) {
+            if (stage.multiplierTenths == multiplier) {
+                return stage;
+            }
+        }
+        throw new IllegalStateException("Unknown expiry multiplier " + multiplier);
+    }
+
+    /**
+     * @return The first day the product is in a later stage than this one, or null if there is none
+     */
+    LocalDate nextStageDate(LocalDate expirationDate) {
+        switch (this) {
+            case FRESH:
+                return expirationDate.minusDays(7);
+            case EXPIRING_SOON:
+                return expirationDate.minusDays(2);
+            case EXPIRING:
+                return expirationDate.plusDays(1);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return A short description for reports
+     */
+    public String getDescription() {
+        return description;
+    }
+}
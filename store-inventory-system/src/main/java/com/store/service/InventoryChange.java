@@ -0,0 +1,95 @@
+package com.store.service;
+
+import com.store.model.Product;
+
+/**
+ * A change to the inventory list, published by {@link StoreService#changes()}.
+ *
+ * Positions refer to the inventory as it was after all earlier changes were
+ * applied, so a subscriber that applies the changes in order to its own copy of
+ * the list stays in step with the service. A {@link Type#RESET} means individual
+ * changes are not available (the inventory was reloaded or merged, or the
+ * subscriber fell behind); the subscriber should read the inventory again.
+ *
+ * Structural changes carry the snapshot version they produced; stock changes,
+ * which do not create a new version, carry the version they happened in. A
+ * subscriber that (re)reads {@link StoreService#getSnapshot()} should skip
+ * changes older than that snapshot, and ADDED/REMOVED changes of the same
+ * version, which the snapshot already contains.
+ */
+public final class InventoryChange {
+    /**
+     * Kind of change
+     */
+    public enum Type {
+        /** The product was inserted at the index */
+        ADDED,
+        /** The product at the index was removed */
+        REMOVED,
+        /** The product at the index was replaced or its stock changed */
+        UPDATED,
+        /** The whole inventory must be read again */
+        RESET
+    }
+
+    private final Type type;
+    private final Product product;
+    private final int index;
+    private final long version;
+
+    private InventoryChange(Type type, Product product, int index, long version) {
+        this.type = type;
+        this.product = product;
+        this.index = index;
+        this.version = version;
+    }
+
+    static InventoryChange added(Product product, int index, long version) {
+        return new InventoryChange(Type.ADDED, product, index, version);
+    }
+
+    static InventoryChange removed(Product product, int index, long version) {
+        return new InventoryChange(Type.REMOVED, product, index, version);
+    }
+
+    static InventoryChange updated(Product product, int index, long version) {
+        return new InventoryChange(Type.UPDATED, product, index, version);
+    }
+
+    static InventoryChange reset(long version) {
+        return new InventoryChange(Type.RESET, null, -1, version);
+    }
+
+    /**
+     * @return The kind of change
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The product added, removed or updated; null for a reset
+     */
+    public Product getProduct() {
+        return product;
+    }
+
+    /**
+     * @return The position of the product; -1 for a reset
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return The inventory snapshot version the change belongs to
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return type + (product != null ? " " + product.getName() + " at " + index : "") + " (version " + version + ")";
+    }
+}
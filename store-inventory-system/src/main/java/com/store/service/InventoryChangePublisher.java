@@ -0,0 +1,207 @@
+package com.store.service;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes {@link InventoryChange}s to any number of subscribers.
+ *
+ * Each subscriber has its own bounded buffer and receives changes only as fast
+ * as it requests them. Publishing never blocks the writer: when a subscriber's
+ * buffer is full, its buffered changes are dropped and replaced by a single
+ * RESET, after which it receives changes again. Delivery runs on virtual
+ * threads, one subscriber at a time, in publication order.
+ *
+ * StoreService publishes and subscribes while holding this object's monitor, so
+ * a subscriber sees every change made after {@link #subscribe} returns.
+ */
+public final class InventoryChangePublisher implements Flow.Publisher<InventoryChange> {
+    /** Changes buffered per subscriber before it is sent a RESET instead */
+    public static final int DEFAULT_BUFFER_CAPACITY = 1024;
+
+    private static final Executor DELIVERY = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("inventory-changes").factory());
+
+    private final List<ChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    InventoryChangePublisher() {
+    }
+
+    /**
+     * Subscribes with the default buffer capacity
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super InventoryChange> subscriber) {
+        subscribe(subscriber, DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * @param subscriber     The subscriber
+     * @param bufferCapacity How many changes to buffer for it before replacing them with a RESET
+     */
+    public synchronized void subscribe(Flow.Subscriber<? super InventoryChange> subscriber, int bufferCapacity) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (bufferCapacity < 1) {
+            throw new IllegalArgumentException("Buffer capacity must be positive: " + bufferCapacity);
+        }
+        ChangeSubscription subscription = new ChangeSubscription(subscriber, bufferCapacity);
+        subscriptions.add(subscription);
+        subscription.schedule();
+    }
+
+    /**
+     * @return true if changes would be delivered to anyone
+     */
+    boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * @return The number of current subscribers
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Buffers a change for every subscriber. Called with this object's monitor held.
+     */
+    void submit(InventoryChange change) {
+        for (ChangeSubscription subscription : subscriptions) {
+            subscription.offer(change);
+        }
+    }
+
+    void submit(List<InventoryChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (ChangeSubscription subscription : subscriptions) {
+            for (InventoryChange change : changes) {
+                subscription.offer(change);
+            }
+        }
+    }
+
+    /**
+     * Buffer, demand and serialized delivery for one subscriber
+     */
+    private final class ChangeSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super InventoryChange> subscriber;
+        private final int capacity;
+        private final ArrayDeque<InventoryChange> buffer = new ArrayDeque<>();
+        // Delivery passes; only the thread that raised it from 0 delivers
+        private final AtomicInteger pending = new AtomicInteger();
+
+        // Guarded by this
+        private long demand;
+        private boolean resetPending;
+        private long resetVersion;
+
+        private volatile boolean cancelled;
+        private boolean subscribed; // Only touched by the delivering thread
+
+        private ChangeSubscription(Flow.Subscriber<? super InventoryChange> subscriber, int capacity) {
+            this.subscriber = subscriber;
+            this.capacity = capacity;
+        }
+
+        void offer(InventoryChange change) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                if (buffer.size() >= capacity) {
+                    // The subscriber fell behind: it has to read the inventory again anyway
+                    buffer.clear();
+                    resetPending = true;
+                    resetVersion = change.getVersion();
+                    return;
+                }
+                buffer.add(change);
+            }
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requested " + n + " changes"));
+                return;
+            }
+            synchronized (this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            synchronized (this) {
+                buffer.clear();
+            }
+        }
+
+        void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                DELIVERY.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            int passes = 1;
+            while (true) {
+                if (!subscribed) {
+                    subscribed = true;
+                    subscriber.onSubscribe(this);
+                }
+                InventoryChange next;
+                while ((next = take()) != null) {
+                    try {
+                        subscriber.onNext(next);
+                    } catch (RuntimeException e) {
+                        System.err.println("Inventory change subscriber failed, cancelling it: " + e);
+                        cancel();
+                    }
+                }
+                passes = pending.addAndGet(-passes);
+                if (passes == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return The next change the subscriber asked for, or null if there is none or no demand
+         */
+        private synchronized InventoryChange take() {
+            if (cancelled || demand == 0) {
+                return null;
+            }
+            InventoryChange next;
+            if (resetPending) {
+                // Changes buffered after the overflow happened later, so they follow the reset
+                resetPending = false;
+                next = InventoryChange.reset(resetVersion);
+            } else {
+                next = buffer.poll();
+                if (next == null) {
+                    return null;
+                }
+            }
+            if (demand != Long.MAX_VALUE) {
+                demand--;
+            }
+            return next;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.store.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+import com.store.util.ProductJson;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes the inventory to a file as JSON (the inventory file format), NDJSON or
+ * CSV (readable by {@link InventoryImporter}).
+ *
+ * Products are streamed from the current snapshot straight into a buffered file
+ * channel, so memory use does not grow with the inventory. The file is written
+ * next to the target and moved into place when complete, so a failed export never
+ * leaves a truncated file behind. Each format is a {@link ProductWriter}.
+ */
+public final class InventoryExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final List<String> CSV_HEADER = List.of("type", "name", "price", "quantity", "discount", "expirationDate", "category");
+
+    private final ProductManager productManager;
+
+    /**
+     * @param productManager The inventory to export
+     */
+    public InventoryExporter(ProductManager productManager) {
+        this.productManager = productManager;
+    }
+
+    /**
+     * Exports the inventory in the format given by the file extension
+     * @return The number of products written
+     * @throws IOException if the file cannot be written; an existing file is left unchanged
+     */
+    public int export(Path file) throws IOException {
+        return export(file, InventoryFormat.of(file));
+    }
+
+    /**
+     * Exports the inventory in the given format
+     * @see #export(Path)
+     */
+    public int export(Path file, InventoryFormat format) throws IOException {
+        long start = System.nanoTime();
+        // Snapshots are immutable, so the export sees one consistent product list
+        List<Product> products = productManager.getInventory();
+        Path target = file.toAbsolutePath();
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+                 ProductWriter writer = writerFor(format, out)) {
+                for (Product product : products) {
+                    writer.write(product);
+                }
+            }
+            try {
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        System.out.println("Exported " + products.size() + " products to " + target + " as " + format
+                + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return products.size();
+    }
+
+    private static ProductWriter writerFor(InventoryFormat format, OutputStream out) throws IOException {
+        switch (format) {
+            case JSON:
+                return new JsonArrayWriter(out);
+            case NDJSON:
+                return new NdjsonWriter(out);
+            case CSV:
+                return new CsvWriter(out);
+            default:
+                throw new IllegalArgumentException("Unsupported format " + format);
+        }
+    }
+
+    /**
+     * Writes products one at a time in one file format; closing completes the file
+     */
+    private interface ProductWriter extends AutoCloseable {
+        void write(Product product) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class JsonArrayWriter implements ProductWriter {
+        private final JsonGenerator generator;
+
+        private JsonArrayWriter(OutputStream out) throws IOException {
+            generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8).useDefaultPrettyPrinter();
+            generator.writeStartArray();
+        }
+
+        @Override
+        public void write(Product product) throws IOException {
+            ProductJson.write(generator, product);
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.writeEndArray();
+            generator.close();
+        }
+    }
+
+    private static final class NdjsonWriter implements ProductWriter {
+        private final JsonGenerator generator;
+
+        private NdjsonWriter(OutputStream out) throws IOException {
+            generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        }
+
+        @Override
+        public void write(Product product) throws IOException {
+            ProductJson.write(generator, product);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvWriter implements ProductWriter {
+        private final Writer writer;
+
+        private CsvWriter(OutputStream out) throws IOException {
+            // The stream below is already buffered; this only batches the encoding
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8 * 1024);
+            writer.write(String.join(",", CSV_HEADER));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(Product product) throws IOException {
+            boolean perishable = product instanceof PerishableProduct;
+            writer.write(perishable ? "perishable," : "non-perishable,");
+            writeField(product.getName());
+            writer.write(',');
+            writer.write(product.getPrice().toPlainString());
+            writer.write(',');
+            writer.write(Integer.toString(product.getQuantity()));
+            writer.write(',');
+            writer.write(product.getDiscount().toPlainString());
+            writer.write(',');
+            if (perishable) {
+                writer.write(((PerishableProduct) product).getExpirationDate().toString());
+            }
+            writer.write(',');
+            if (product.getCategory() != null) {
+                writeField(product.getCategory());
+            }
+            writer.write('\n');
+        }
+
+        /**
+         * Quotes a field if it contains a separator, quote or line break
+         */
+        private void writeField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
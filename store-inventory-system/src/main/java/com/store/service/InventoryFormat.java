@@ -0,0 +1,27 @@
+package com.store.service;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * File formats products can be imported from and exported to
+ */
+public enum InventoryFormat {
+    /** An array of product objects, the format of inventory.json */
+    JSON,
+    /** One product object per line */
+    NDJSON,
+    /** A header row naming the product fields, then one product per row */
+    CSV;
+
+    /**
+     * @return The format matching the file extension; JSON if it is not recognized
+     */
+    public static InventoryFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        return name.endsWith(".csv") ? CSV : JSON;
+    }
+}
@@ -0,0 +1,562 @@
+package com.store.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Imports products from JSON (an array in the inventory file format), NDJSON
+ * (one product object per line) or CSV (a header row naming the same fields).
+ *
+ * The file is streamed: the calling thread reads raw records in chunks and hands
+ * each chunk to a worker, which parses and validates it. Only a bounded number of
+ * chunks is in flight, so the file is never held in memory as a whole. Valid
+ * products are added in file order with one {@link ProductManager#addProducts}
+ * call, i.e. one inventory change and one save; invalid records are skipped and
+ * reported in the {@link Result}. {@link #readFile} stops before adding, for
+ * callers that add the products on another thread.
+ */
+public final class InventoryImporter {
+    private static final int CHUNK_SIZE = 1024;
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final ObjectReader NODE_READER = new ObjectMapper().readerFor(JsonNode.class);
+
+    private final ProductManager productManager;
+    private final int workerCount;
+
+    /**
+     * @param productManager The inventory to add the imported products to
+     */
+    public InventoryImporter(ProductManager productManager) {
+        this(productManager, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    InventoryImporter(ProductManager productManager, int workerCount) {
+        this.productManager = productManager;
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Imports a file in the format given by its extension
+     *
+     * @param file     The file to import
+     * @param progress Called on the calling thread after each chunk was read, or null
+     * @return What was imported
+     * @throws IOException if the file cannot be read or is malformed beyond single records;
+     *                     nothing is imported then. Interrupting the calling thread also
+     *                     stops the import without changing the inventory.
+     */
+    public Result importFile(Path file, Consumer<Progress> progress) throws IOException {
+        return importFile(file, InventoryFormat.of(file), progress);
+    }
+
+    /**
+     * Imports a file in the given format
+     * @see #importFile(Path, Consumer)
+     */
+    public Result importFile(Path file, InventoryFormat format, Consumer<Progress> progress) throws IOException {
+        Result result = readFile(file, format, progress);
+        productManager.addProducts(result.getProducts());
+        System.out.println("Imported " + result.getImportedCount() + " products from " + file
+                + " (" + result.getRejectedCount() + " rejected) in " + result.getElapsedNanos() / 1_000_000 + " ms");
+        return result;
+    }
+
+    /**
+     * Reads and validates a file in the format given by its extension without adding
+     * anything to the inventory
+     *
+     * @param file     The file to read
+     * @param progress Called on the calling thread after each chunk was read, or null
+     * @return The valid products in {@link Result#getProducts()}, and what was rejected
+     * @throws IOException if the file cannot be read or is malformed beyond single records,
+     *                     or the calling thread was interrupted
+     */
+    public Result readFile(Path file, Consumer<Progress> progress) throws IOException {
+        return readFile(file, InventoryFormat.of(file), progress);
+    }
+
+    /**
+     * Reads and validates a file in the given format without adding anything to the inventory
+     * @see #readFile(Path, Consumer)
+     */
+    public Result readFile(Path file, InventoryFormat format, Consumer<Progress> progress) throws IOException {
+        long start = System.nanoTime();
+        long totalBytes = Files.size(file);
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "inventory-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(file))) {
+            Pipeline pipeline = new Pipeline(workers, format);
+            Consumer<List<RawRecord>> submit = chunk -> {
+                pipeline.submit(chunk);
+                if (progress != null) {
+                    progress.accept(new Progress(pipeline.recordsRead, in.count, totalBytes, System.nanoTime() - start));
+                }
+            };
+            if (format == InventoryFormat.CSV) {
+                readCsv(in, submit);
+            } else {
+                readJson(in, submit);
+            }
+            pipeline.finish();
+
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Import of " + file + " was cancelled");
+            }
+            return new Result(pipeline.products, pipeline.rejected, pipeline.errors, in.count, System.nanoTime() - start);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Validates a record and converts it to a product. Unlike loading the inventory
+     * file, missing or out-of-range values are errors rather than defaults.
+     *
+     * @throws IllegalArgumentException with the reason if the record is invalid
+     */
+    static Product toProduct(JsonNode node) {
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("not an object");
+        }
+        String name = text(node, "name");
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("missing name");
+        }
+        double price = number(node, "price", true);
+        if (!(price >= 0)) {
+            throw new IllegalArgumentException("price must not be negative");
+        }
+        double quantity = number(node, "quantity", true);
+        if (quantity < 0 || quantity > Integer.MAX_VALUE || quantity != Math.rint(quantity)) {
+            throw new IllegalArgumentException("quantity must be a whole number of at least 0");
+        }
+        double discount = number(node, "discount", false);
+        if (!(discount >= 0 && discount <= 1)) {
+            throw new IllegalArgumentException("discount must be between 0.0 and 1.0");
+        }
+
+        String type = text(node, "type");
+        String expirationDate = text(node, "expirationDate");
+        boolean perishable = type != null ? "perishable".equalsIgnoreCase(type) : expirationDate != null;
+        if (type != null && !perishable && !"non-perishable".equalsIgnoreCase(type)) {
+            throw new IllegalArgumentException("unknown type \"" + type + "\"");
+        }
+        Product product;
+        if (!perishable) {
+            product = new Product(name.trim(), price, (int) quantity, discount);
+        } else {
+            if (expirationDate == null) {
+                throw new IllegalArgumentException("perishable product without expirationDate");
+            }
+            try {
+                LocalDate.parse(expirationDate.trim());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("invalid expirationDate \"" + expirationDate + "\"");
+            }
+            product = new PerishableProduct(name.trim(), price, (int) quantity, expirationDate.trim(), discount);
+        }
+        // Optional; a blank category leaves the product uncategorized
+        product.setCategory(text(node, "category"));
+        return product;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() || value.asText().isEmpty() ? null : value.asText();
+    }
+
+    private static double number(JsonNode node, String field, boolean required) {
+        String value = text(node, field);
+        if (value == null) {
+            if (required) {
+                throw new IllegalArgumentException("missing " + field);
+            }
+            return 0.0;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid " + field + " \"" + value + "\"");
+        }
+    }
+
+    /**
+     * Reads a JSON array or a sequence of JSON values; each value is one record
+     */
+    private static void readJson(InputStream in, Consumer<List<RawRecord>> submit) throws IOException {
+        try (MappingIterator<JsonNode> values = NODE_READER.readValues(in)) {
+            List<RawRecord> chunk = new ArrayList<>(CHUNK_SIZE);
+            long record = 0;
+            while (values.hasNextValue()) {
+                chunk.add(new RawRecord(++record, values.nextValue()));
+                if (chunk.size() == CHUNK_SIZE) {
+                    submit.accept(chunk);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit.accept(chunk);
+            }
+        } catch (RuntimeException e) {
+            // Jackson reports malformed input it finds while iterating unchecked
+            throw new IOException("Malformed JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads CSV records; the workers split them into fields. A quoted field may
+     * span lines, so lines are joined until the quotes are balanced.
+     */
+    private static void readCsv(InputStream in, Consumer<List<RawRecord>> submit) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            return;
+        }
+        List<String> header = splitCsv(headerLine.startsWith("\uFEFF") ? headerLine.substring(1) : headerLine);
+        List<RawRecord> chunk = new ArrayList<>(CHUNK_SIZE);
+        long lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            long recordLine = lineNumber;
+            StringBuilder record = null;
+            while (countQuotes(record != null ? record : line) % 2 != 0) {
+                String next = reader.readLine();
+                if (next == null) {
+                    break;
+                }
+                lineNumber++;
+                record = (record != null ? record : new StringBuilder(line)).append('\n').append(next);
+            }
+            String text = record != null ? record.toString() : line;
+            if (text.isBlank()) {
+                continue;
+            }
+            chunk.add(new RawRecord(recordLine, new CsvRecord(header, text)));
+            if (chunk.size() == CHUNK_SIZE) {
+                submit.accept(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            submit.accept(chunk);
+        }
+    }
+
+    private static int countQuotes(CharSequence text) {
+        int quotes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    /**
+     * Splits one CSV record; fields may be quoted, with "" for a quote inside them
+     */
+    static List<String> splitCsv(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * A record as read from the file: a JSON value or a CSV line
+     */
+    private static final class RawRecord {
+        private final long position;
+        private final Object content;
+
+        private RawRecord(long position, Object content) {
+            this.position = position;
+            this.content = content;
+        }
+
+        private JsonNode toNode() {
+            if (content instanceof CsvRecord) {
+                return ((CsvRecord) content).toNode();
+            }
+            return (JsonNode) content;
+        }
+    }
+
+    private static final class CsvRecord {
+        private final List<String> header;
+        private final String text;
+
+        private CsvRecord(List<String> header, String text) {
+            this.header = header;
+            this.text = text;
+        }
+
+        private ObjectNode toNode() {
+            List<String> fields = splitCsv(text);
+            if (fields.size() > header.size()) {
+                throw new IllegalArgumentException("more fields than the header names");
+            }
+            ObjectNode node = JsonNodeFactory.instance.objectNode();
+            for (int i = 0; i < fields.size(); i++) {
+                node.put(header.get(i), fields.get(i));
+            }
+            return node;
+        }
+    }
+
+    /**
+     * A chunk's valid products and the errors of its invalid records
+     */
+    private static final class ChunkResult {
+        private final List<Product> products = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private int rejected;
+    }
+
+    /**
+     * Converts chunks on the workers and collects the results in file order.
+     * Used by the reading thread only.
+     */
+    private final class Pipeline {
+        private final ExecutorService workers;
+        private final String recordName;
+        private final Deque<Future<ChunkResult>> inFlight = new ArrayDeque<>();
+        private final List<Product> products = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private long recordsRead;
+        private int rejected;
+
+        private Pipeline(ExecutorService workers, InventoryFormat format) {
+            this.workers = workers;
+            this.recordName = format == InventoryFormat.JSON ? "Record " : "Line ";
+        }
+
+        private void submit(List<RawRecord> chunk) {
+            recordsRead += chunk.size();
+            inFlight.add(workers.submit(() -> convert(chunk)));
+            // Reading ahead of the workers would only fill memory
+            while (inFlight.size() > workerCount * 2 && !Thread.currentThread().isInterrupted()) {
+                collect();
+            }
+        }
+
+        private ChunkResult convert(List<RawRecord> chunk) {
+            ChunkResult result = new ChunkResult();
+            for (RawRecord record : chunk) {
+                try {
+                    result.products.add(toProduct(record.toNode()));
+                } catch (RuntimeException e) {
+                    result.rejected++;
+                    if (result.errors.size() < MAX_REPORTED_ERRORS) {
+                        result.errors.add(recordName + record.position + ": " + e.getMessage());
+                    }
+                }
+            }
+            return result;
+        }
+
+        private void finish() throws IOException {
+            while (!inFlight.isEmpty()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Import was cancelled");
+                }
+                collect();
+            }
+        }
+
+        private void collect() {
+            try {
+                ChunkResult result = inFlight.removeFirst().get();
+                products.addAll(result.products);
+                rejected += result.rejected;
+                for (String error : result.errors) {
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(error);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Import worker failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes read, for progress reporting
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private volatile long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+
+    /**
+     * How far an import got
+     */
+    public static final class Progress {
+        private final long recordsRead;
+        private final long bytesRead;
+        private final long totalBytes;
+        private final long elapsedNanos;
+
+        private Progress(long recordsRead, long bytesRead, long totalBytes, long elapsedNanos) {
+            this.recordsRead = recordsRead;
+            this.bytesRead = bytesRead;
+            this.totalBytes = totalBytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getRecordsRead() {
+            return recordsRead;
+        }
+
+        /**
+         * @return Bytes read so far; the reader buffers ahead, so this leads the records slightly
+         */
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        /**
+         * @return Records read per second so far
+         */
+        public double getRecordsPerSecond() {
+            return elapsedNanos > 0 ? recordsRead * 1e9 / elapsedNanos : 0;
+        }
+    }
+
+    /**
+     * The outcome of an import
+     */
+    public static final class Result {
+        private final List<Product> products;
+        private final int rejectedCount;
+        private final List<String> errors;
+        private final long bytesRead;
+        private final long elapsedNanos;
+
+        private Result(List<Product> products, int rejectedCount, List<String> errors, long bytesRead, long elapsedNanos) {
+            this.products = Collections.unmodifiableList(products);
+            this.rejectedCount = rejectedCount;
+            this.errors = Collections.unmodifiableList(errors);
+            this.bytesRead = bytesRead;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return The valid products, in file order
+         */
+        public List<Product> getProducts() {
+            return products;
+        }
+
+        public int getImportedCount() {
+            return products.size();
+        }
+
+        public int getRejectedCount() {
+            return rejectedCount;
+        }
+
+        /**
+         * @return Why records were rejected, with their record or line number; at most the first 20
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return Records (imported and rejected) per second
+         */
+        public double getRecordsPerSecond() {
+            return elapsedNanos > 0 ? (products.size() + rejectedCount) * 1e9 / elapsedNanos : 0;
+        }
+    }
+}
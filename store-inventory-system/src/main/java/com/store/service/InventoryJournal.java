@@ -0,0 +1,114 @@
+package com.store.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Write-ahead journal of committed transactions ("inventory.json.journal").
+ *
+ * Each committed transaction is appended as one JSON line and forced to disk
+ * before the inventory file is rewritten. The line records the change sequence
+ * the inventory file will have once the transaction is saved, so a later load
+ * can tell whether the save happened: entries newer than the file's sequence
+ * were interrupted and are replayed. Callers must hold the file coordinator
+ * lease while using the journal.
+ */
+final class InventoryJournal {
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    private final Path journalFile;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    InventoryJournal(Path inventoryFile) {
+        this.journalFile = inventoryFile.resolveSibling(inventoryFile.getFileName() + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * Durably records a transaction
+     * @param sequence   The change sequence the inventory file has after the transaction is saved
+     * @param operations The operations of the transaction
+     * @return The journal's size before the entry, to {@link #truncate} it away if the transaction is not applied after all
+     */
+    long append(long sequence, List<InventoryTransaction.Operation> operations) throws IOException {
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put("sequence", sequence);
+        ArrayNode ops = entry.putArray("operations");
+        for (InventoryTransaction.Operation operation : operations) {
+            ops.add(operation.toNode());
+        }
+        byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+
+        try (FileChannel channel = FileChannel.open(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            return size;
+        }
+    }
+
+    /**
+     * Durably removes the entries from the given size on
+     * @param size The journal's size returned by {@link #append} for the first entry to remove
+     */
+    void truncate(long size) throws IOException {
+        if (!Files.exists(journalFile)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Reads the transactions that were journaled but never saved
+     * @param savedSequence The change sequence of the inventory file
+     * @return The operations of each unsaved transaction, oldest first
+     */
+    List<List<InventoryTransaction.Operation>> readUnsaved(long savedSequence) throws IOException {
+        List<List<InventoryTransaction.Operation>> unsaved = new ArrayList<>();
+        if (!Files.exists(journalFile)) {
+            return unsaved;
+        }
+        for (String line : Files.readAllLines(journalFile, StandardCharsets.UTF_8)) {
+            try {
+                JsonNode entry = objectMapper.readTree(line);
+                if (entry == null || entry.path("sequence").asLong() <= savedSequence) {
+                    continue;
+                }
+                List<InventoryTransaction.Operation> operations = new ArrayList<>();
+                for (JsonNode operation : entry.path("operations")) {
+                    operations.add(InventoryTransaction.Operation.fromNode(operation));
+                }
+                unsaved.add(operations);
+            } catch (Exception e) {
+                // A torn last line was never acknowledged as committed
+                System.err.println("Skipping unreadable journal entry: " + e.getMessage());
+            }
+        }
+        return unsaved;
+    }
+
+    /**
+     * Discards all entries once they are reflected in the inventory file
+     */
+    void clear() throws IOException {
+        Files.deleteIfExists(journalFile);
+    }
+}
@@ -0,0 +1,114 @@
+package com.store.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.store.model.NameDictionary;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Three-way merge of inventory file contents, used when another process saved
+ * the inventory after this one last loaded or saved it.
+ *
+ * Products are matched by name ignoring case (the n-th product with a name in one
+ * list matches the n-th product with that name in the others). Given the common
+ * base, the local and the remote version of each product:
+ * - a product changed on one side only takes that side's version;
+ * - a product changed on both sides is merged field by field, local changes
+ *   winning over remote ones, except quantity where both sides' deltas are
+ *   added so that concurrent sales and restocks are all kept;
+ * - a product deleted on one side stays deleted unless the other side changed it;
+ * - products added on either side are kept, remote order first.
+ */
+final class InventoryMerger {
+    private static final String QUANTITY = "quantity";
+
+    private InventoryMerger() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @param base   The file contents both sides started from, or null if unknown
+     *               (then local versions win and nothing counts as deleted)
+     * @param local  The in-memory inventory
+     * @param remote The current file contents
+     * @return The merged products; unchanged local nodes are returned as the same instances
+     */
+    static List<JsonNode> merge(List<? extends JsonNode> base, List<? extends JsonNode> local,
+            List<? extends JsonNode> remote) {
+        Map<String, JsonNode> baseByKey = base != null ? byKey(base) : Map.of();
+        Map<String, JsonNode> localByKey = byKey(local);
+        Map<String, JsonNode> remoteByKey = byKey(remote);
+        List<JsonNode> merged = new ArrayList<>(Math.max(local.size(), remote.size()));
+
+        for (Map.Entry<String, JsonNode> entry : remoteByKey.entrySet()) {
+            JsonNode remoteNode = entry.getValue();
+            JsonNode localNode = localByKey.get(entry.getKey());
+            JsonNode baseNode = baseByKey.get(entry.getKey());
+
+            if (localNode == null) {
+                // Deleted locally: keep the remote version only if it changed since
+                if (baseNode == null || !remoteNode.equals(baseNode)) {
+                    merged.add(remoteNode);
+                }
+            } else if (base == null || baseNode == null || remoteNode.equals(baseNode)) {
+                merged.add(localNode);
+            } else if (localNode.equals(baseNode)) {
+                merged.add(remoteNode);
+            } else {
+                merged.add(mergeFields(baseNode, localNode, remoteNode));
+            }
+        }
+
+        for (Map.Entry<String, JsonNode> entry : localByKey.entrySet()) {
+            if (remoteByKey.containsKey(entry.getKey())) {
+                continue;
+            }
+            // Deleted remotely: keep the local version only if it changed since
+            JsonNode baseNode = baseByKey.get(entry.getKey());
+            if (baseNode == null || !entry.getValue().equals(baseNode)) {
+                merged.add(entry.getValue());
+            }
+        }
+        return merged;
+    }
+
+    private static JsonNode mergeFields(JsonNode base, JsonNode local, JsonNode remote) {
+        if (!(remote instanceof ObjectNode)) {
+            return local;
+        }
+        ObjectNode merged = ((ObjectNode) remote).deepCopy();
+        Iterator<Map.Entry<String, JsonNode>> fields = local.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!field.getValue().equals(base.get(field.getKey()))) {
+                merged.set(field.getKey(), field.getValue());
+            }
+        }
+
+        if (base.has(QUANTITY) && local.has(QUANTITY) && remote.has(QUANTITY)) {
+            long baseQuantity = base.get(QUANTITY).asLong();
+            long quantity = remote.get(QUANTITY).asLong() + local.get(QUANTITY).asLong() - baseQuantity;
+            merged.put(QUANTITY, (int) Math.max(0, Math.min(Integer.MAX_VALUE, quantity)));
+        }
+        return merged;
+    }
+
+    private static Map<String, JsonNode> byKey(List<? extends JsonNode> products) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>(products.size() * 2);
+        Map<Integer, Integer> occurrences = new HashMap<>();
+        NameDictionary names = NameDictionary.global();
+        for (JsonNode product : products) {
+            JsonNode name = product.get("name");
+            int foldedId = names.foldedId(names.intern(name != null ? name.asText() : null));
+            int occurrence = occurrences.merge(foldedId, 1, Integer::sum);
+            byKey.put(foldedId + "#" + occurrence, product);
+        }
+        return byKey;
+    }
+}
@@ -0,0 +1,86 @@
+package com.store.service;
+
+import com.store.model.Product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A window of the (possibly sorted) inventory, returned by {@link ProductManager#getPage}
+ */
+public final class InventoryPage {
+    private final List<Product> products;
+    private final int offset;
+    private final int totalCount;
+    private final long version;
+
+    private InventoryPage(List<Product> products, int offset, int totalCount, long version) {
+        this.products = products;
+        this.offset = offset;
+        this.totalCount = totalCount;
+        this.version = version;
+    }
+
+    /**
+     * Cuts a page out of an ordered list
+     *
+     * @param ordered   The whole inventory in ascending order
+     * @param offset    Position of the first product, in the requested direction
+     * @param limit     Maximum number of products
+     * @param ascending false to read the order backwards
+     * @param version   Inventory version the list belongs to, or -1 if unknown
+     */
+    static InventoryPage of(List<Product> ordered, int offset, int limit, boolean ascending, long version) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Invalid page " + offset + "+" + limit);
+        }
+        int size = ordered.size();
+        int end = (int) Math.min(size, (long) offset + limit);
+        List<Product> products = new ArrayList<>(Math.max(0, end - offset));
+        for (int i = offset; i < end; i++) {
+            products.add(ordered.get(ascending ? i : size - 1 - i));
+        }
+        return new InventoryPage(Collections.unmodifiableList(products), offset, size, version);
+    }
+
+    /**
+     * Wraps a page that was already cut, e.g. by the inventory daemon
+     *
+     * @param products   The products of the page
+     * @param offset     Position of the first product
+     * @param totalCount The number of products in the whole inventory
+     * @param version    Inventory version the page belongs to, or -1 if unknown
+     */
+    public static InventoryPage wrap(List<Product> products, int offset, int totalCount, long version) {
+        return new InventoryPage(Collections.unmodifiableList(new ArrayList<>(products)), offset, totalCount, version);
+    }
+
+    /**
+     * @return The products of the page, fewer than requested at the end of the inventory
+     */
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    /**
+     * @return Position of the first product of the page
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return The number of products in the whole inventory
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return The inventory snapshot version the page was read from, or -1 if unknown
+     */
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,146 @@
+package com.store.service;
+
+import com.store.model.Product;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Immutable, versioned view of the inventory list.
+ * StoreService never modifies a published snapshot: every change copies the
+ * backing array into a new snapshot with the next version number, so readers
+ * can hold on to a snapshot without copying or locking.
+ *
+ * Note that only the list is immutable; the Product objects are shared.
+ */
+public final class InventorySnapshot extends AbstractList<Product> implements RandomAccess {
+    private static final Product[] NO_PRODUCTS = new Product[0];
+    private static final InventorySnapshot EMPTY = new InventorySnapshot(NO_PRODUCTS, 0);
+
+    private final Product[] products;
+    private final long version;
+    
+    // Case-insensitive name index, built on first lookup
+    private volatile Map<Integer, Product> nameIndex;
+    // Position of each product instance, built on first lookup
+    private volatile Map<Product, Integer> positionIndex;
+
+    private InventorySnapshot(Product[] products, long version) {
+        this.products = products;
+        this.version = version;
+    }
+
+    /**
+     * @return The empty snapshot with version 0
+     */
+    public static InventorySnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param products The products of the new version
+     * @return A snapshot containing a copy of the given products, one version after this one
+     */
+    public InventorySnapshot replaceAll(Collection<Product> products) {
+        return new InventorySnapshot(products.toArray(NO_PRODUCTS), version + 1);
+    }
+
+    /**
+     * @param product The product to append
+     * @return The next version with the product appended
+     */
+    public InventorySnapshot with(Product product) {
+        Product[] copy = Arrays.copyOf(products, products.length + 1);
+        copy[products.length] = product;
+        return new InventorySnapshot(copy, version + 1);
+    }
+
+    /**
+     * @param added The products to append
+     * @return The next version with the products appended
+     */
+    public InventorySnapshot withAll(Collection<? extends Product> added) {
+        Product[] copy = Arrays.copyOf(products, products.length + added.size());
+        int index = products.length;
+        for (Product product : added) {
+            copy[index++] = product;
+        }
+        return new InventorySnapshot(copy, version + 1);
+    }
+
+    /**
+     * @param index The index of the product to remove
+     * @return The next version without the product at the index
+     */
+    public InventorySnapshot without(int index) {
+        Product[] copy = new Product[products.length - 1];
+        System.arraycopy(products, 0, copy, 0, index);
+        System.arraycopy(products, index + 1, copy, index, products.length - index - 1);
+        return new InventorySnapshot(copy, version + 1);
+    }
+
+    /**
+     * Finds the first product whose name matches ignoring case
+     * 
+     * @param foldedNameId The folded name id from the NameDictionary
+     * @return The product, or null if none matches
+     */
+    public Product findByFoldedNameId(int foldedNameId) {
+        Map<Integer, Product> index = nameIndex;
+        if (index == null) {
+            // Building twice under a race is harmless: both threads produce the same map
+            index = new HashMap<>(products.length * 2);
+            for (Product product : products) {
+                index.putIfAbsent(product.getFoldedNameId(), product);
+            }
+            nameIndex = index;
+        }
+        return index.get(foldedNameId);
+    }
+
+    /**
+     * Finds the position of a product instance
+     * 
+     * @param product The product
+     * @return Its index in this snapshot, or -1 if it is not part of it
+     */
+    public int positionOf(Product product) {
+        Map<Product, Integer> index = positionIndex;
+        if (index == null) {
+            index = new IdentityHashMap<>(products.length * 2);
+            for (int i = products.length - 1; i >= 0; i--) {
+                index.put(products[i], i);
+            }
+            positionIndex = index;
+        }
+        Integer position = index.get(product);
+        return position != null ? position : -1;
+    }
+
+    /**
+     * @return The version number, incremented by every published change
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public Product get(int index) {
+        return products[index];
+    }
+
+    @Override
+    public int size() {
+        return products.length;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return products.clone();
+    }
+}
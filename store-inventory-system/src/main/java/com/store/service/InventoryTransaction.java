@@ -0,0 +1,161 @@
+package com.store.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.store.model.Product;
+import com.store.util.ProductJson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Groups adds, removals and stock changes that must either all apply or all fail,
+ * e.g. receiving a shipment or transferring stock between products.
+ *
+ * Operations are only buffered until {@link #commit()}. The commit validates them
+ * in order against the current inventory, records them in the transaction journal
+ * and applies them as one change with a single save. If any operation is invalid
+ * (unknown product, stock would drop below zero) nothing is applied.
+ *
+ * Usage:
+ * <pre>
+ * try (InventoryTransaction tx = storeService.beginTransaction()) {
+ *     tx.adjustQuantity("Apples", -10).adjustQuantity("Apple Pie Kit", 10);
+ *     if (!tx.commit()) {
+ *         System.err.println(tx.getFailureReason());
+ *     }
+ * }
+ * </pre>
+ * Transactions are not thread-safe; use each one from a single thread.
+ */
+public final class InventoryTransaction implements AutoCloseable {
+    private final StoreService service;
+    private final List<Operation> operations = new ArrayList<>();
+    private boolean finished;
+    private String failureReason;
+
+    InventoryTransaction(StoreService service) {
+        this.service = service;
+    }
+
+    /**
+     * Adds a product when the transaction commits
+     * @param product The product to add
+     * @return This transaction
+     */
+    public InventoryTransaction add(Product product) {
+        return buffer(new Operation(Operation.Kind.ADD, Objects.requireNonNull(product, "product"), null, 0));
+    }
+
+    /**
+     * Removes a product when the transaction commits
+     * @param productName The product name (matched ignoring case)
+     * @return This transaction
+     */
+    public InventoryTransaction remove(String productName) {
+        return buffer(new Operation(Operation.Kind.REMOVE, null, Objects.requireNonNull(productName, "productName"), 0));
+    }
+
+    /**
+     * Changes the stock of a product when the transaction commits
+     * @param productName The product name (matched ignoring case), may be added earlier in this transaction
+     * @param delta       The amount to add, negative to remove stock
+     * @return This transaction
+     */
+    public InventoryTransaction adjustQuantity(String productName, int delta) {
+        return buffer(new Operation(Operation.Kind.ADJUST, null, Objects.requireNonNull(productName, "productName"), delta));
+    }
+
+    private InventoryTransaction buffer(Operation operation) {
+        if (finished) {
+            throw new IllegalStateException("Transaction already committed or rolled back");
+        }
+        operations.add(operation);
+        return this;
+    }
+
+    /**
+     * Applies all buffered operations as one unit
+     * @return true if every operation was applied, false if none was (see {@link #getFailureReason()})
+     */
+    public boolean commit() {
+        if (finished) {
+            throw new IllegalStateException("Transaction already committed or rolled back");
+        }
+        finished = true;
+        failureReason = service.commitTransaction(operations);
+        if (failureReason != null) {
+            System.err.println("Transaction rolled back: " + failureReason);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Discards all buffered operations
+     */
+    public void rollback() {
+        finished = true;
+        operations.clear();
+    }
+
+    /**
+     * @return Why the last commit failed, or null if it succeeded or was not attempted
+     */
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    /**
+     * Rolls back the transaction unless it was committed
+     */
+    @Override
+    public void close() {
+        if (!finished) {
+            rollback();
+        }
+    }
+
+    /**
+     * A buffered operation, also the unit stored in the transaction journal
+     */
+    static final class Operation {
+        enum Kind { ADD, REMOVE, ADJUST }
+
+        final Kind kind;
+        final Product product;
+        final String name;
+        final int delta;
+
+        Operation(Kind kind, Product product, String name, int delta) {
+            this.kind = kind;
+            this.product = product;
+            this.name = name;
+            this.delta = delta;
+        }
+
+        ObjectNode toNode() {
+            ObjectNode node = JsonNodeFactory.instance.objectNode();
+            node.put("op", kind.name().toLowerCase());
+            if (kind == Kind.ADD) {
+                node.set("product", ProductJson.toNode(product));
+            } else {
+                node.put("name", name);
+            }
+            if (kind == Kind.ADJUST) {
+                node.put("delta", delta);
+            }
+            return node;
+        }
+
+        static Operation fromNode(JsonNode node) {
+            Kind kind = Kind.valueOf(node.get("op").asText().toUpperCase());
+            if (kind == Kind.ADD) {
+                return new Operation(kind, ProductJson.fromNode(node.get("product")), null, 0);
+            }
+            return new Operation(kind, null, node.get("name").asText(), node.path("delta").asInt(0));
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.store.service;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Produces the inventory value report: each product's gross value and value
+ * after discounts ({@link Product#getTotalValue()}), subtotals per group and the
+ * inventory totals as reported by {@link ProductManager}.
+ *
+ * The engine keeps each product's line and the group subtotals between runs.
+ * A run over an unchanged inventory (same snapshot, stock revision and date)
+ * returns the previous report as is; otherwise only products that are new or
+ * whose quantity changed are valued again, and the subtotals are adjusted by the
+ * difference. A new day values everything again, as perishable values depend on
+ * the date. Like the service's valuation cache, this relies on products being
+ * modified through the service.
+ */
+public final class InventoryValueReport {
+    private static final BigDecimal NET_DISCOUNT = BigDecimal.valueOf(0.85);
+
+    private final ProductManager productManager;
+    private final Function<Product, String> grouping;
+
+    // Guarded by this
+    private final Map<Product, Line> lines = new IdentityHashMap<>();
+    private final Map<String, Subtotal> subtotals = new TreeMap<>();
+    private Result cached;
+    private List<Product> cachedInventory;
+    private long cachedRevision;
+    private LocalDate cachedDate;
+    private long generation;
+
+    /**
+     * Creates an engine that groups products by type (perishable or not)
+     * @param productManager The inventory to report on
+     */
+    public InventoryValueReport(ProductManager productManager) {
+        this(productManager, product -> product instanceof PerishableProduct ? "Perishable" : "Non-perishable");
+    }
+
+    /**
+     * @param productManager The inventory to report on
+     * @param grouping       The group a product's value is counted in
+     */
+    public InventoryValueReport(ProductManager productManager, Function<Product, String> grouping) {
+        this.productManager = productManager;
+        this.grouping = grouping;
+    }
+
+    /**
+     * Reports on the current inventory, reusing what did not change since the last run
+     * @return The report; the same instance as last time if nothing changed
+     */
+    public synchronized Result generate() {
+        // Read the revision first, so a concurrent stock change can only make the report look stale
+        long revision = productManager instanceof StoreService
+                ? ((StoreService) productManager).getStockRevision() : -1;
+        List<Product> inventory = productManager.getInventory();
+        LocalDate today = LocalDate.now();
+        if (cached != null && inventory == cachedInventory && revision == cachedRevision && today.equals(cachedDate)) {
+            return cached;
+        }
+        if (!today.equals(cachedDate)) {
+            lines.clear();
+            subtotals.clear();
+        }
+
+        long current = ++generation;
+        Line[] ordered = new Line[inventory.size()];
+        int seen = 0;
+        int valued = 0;
+        for (int i = 0; i < ordered.length; i++) {
+            Product product = inventory.get(i);
+            Line line = lines.get(product);
+            if (line == null || line.quantity != product.getQuantity()) {
+                Line fresh = new Line(product, grouping.apply(product));
+                subtract(line);
+                add(fresh);
+                lines.put(product, fresh);
+                line = fresh;
+                valued++;
+            }
+            if (line.generation != current) {
+                line.generation = current;
+                seen++;
+            }
+            ordered[i] = line;
+        }
+        // Lines of products no longer in the inventory
+        if (lines.size() > seen) {
+            lines.values().removeIf(line -> {
+                if (line.generation != current) {
+                    subtract(line);
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        List<Group> groups = new ArrayList<>(subtotals.size());
+        subtotals.forEach((name, subtotal) -> groups.add(subtotal.toGroup(name)));
+        cached = new Result(today, Collections.unmodifiableList(Arrays.asList(ordered)),
+                Collections.unmodifiableList(groups), valued);
+        cachedInventory = inventory;
+        cachedRevision = revision;
+        cachedDate = today;
+        return cached;
+    }
+
+    private void add(Line line) {
+        subtotals.computeIfAbsent(line.group, group -> new Subtotal()).add(line, 1);
+    }
+
+    private void subtract(Line line) {
+        if (line == null) {
+            return;
+        }
+        Subtotal subtotal = subtotals.get(line.group);
+        subtotal.add(line, -1);
+        if (subtotal.productCount == 0) {
+            subtotals.remove(line.group);
+        }
+    }
+
+    /**
+     * Quotes a report field for CSV if it contains a separator, quote or line break
+     */
+    private static String csv(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Running subtotal of a group; exact, since BigDecimal addition does not round
+     */
+    private static final class Subtotal {
+        private int productCount;
+        private long quantity;
+        private BigDecimal gross = BigDecimal.ZERO;
+        private BigDecimal value = BigDecimal.ZERO;
+
+        private void add(Line line, int sign) {
+            productCount += sign;
+            quantity += sign * (long) line.quantity;
+            gross = sign > 0 ? gross.add(line.gross) : gross.subtract(line.gross);
+            value = sign > 0 ? value.add(line.value) : value.subtract(line.value);
+        }
+
+        private Group toGroup(String name) {
+            return new Group(name, productCount, quantity, gross, value);
+        }
+    }
+
+    /**
+     * One product's values when the report last looked at it
+     */
+    public static final class Line {
+        private final Product product;
+        private final String group;
+        private final int quantity;
+        private final BigDecimal gross;
+        private final BigDecimal value;
+        private long generation; // Last run that found the product; guarded by the engine
+
+        private Line(Product product, String group) {
+            this.product = product;
+            this.group = group;
+            // A concurrent sale between these reads leaves the quantity stale, so the next run values it again
+            this.quantity = product.getQuantity();
+            this.gross = product.getPrice().multiply(BigDecimal.valueOf(quantity)).setScale(2, RoundingMode.HALF_UP);
+            this.value = product.getTotalValue();
+        }
+
+        public Product getProduct() {
+            return product;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        /**
+         * @return Price times quantity
+         */
+        public BigDecimal getGross() {
+            return gross;
+        }
+
+        /**
+         * @return The value after the product's discounts
+         */
+        public BigDecimal getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Subtotals of one group
+     */
+    public static final class Group {
+        private final String name;
+        private final int productCount;
+        private final long quantity;
+        private final BigDecimal gross;
+        private final BigDecimal value;
+
+        private Group(String name, int productCount, long quantity, BigDecimal gross, BigDecimal value) {
+            this.name = name;
+            this.productCount = productCount;
+            this.quantity = quantity;
+            this.gross = gross;
+            this.value = value;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getProductCount() {
+            return productCount;
+        }
+
+        public long getQuantity() {
+            return quantity;
+        }
+
+        public BigDecimal getGross() {
+            return gross;
+        }
+
+        public BigDecimal getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * A finished report. Immutable; large reports are written out with {@link #writeTo(Writer)}.
+     */
+    public static final class Result {
+        private final LocalDate date;
+        private final List<Line> lines;
+        private final List<Group> groups;
+        private final int valuedCount;
+        private final long totalQuantity;
+        private final BigDecimal totalGross;
+        private final BigDecimal totalValue;
+
+        private Result(LocalDate date, List<Line> lines, List<Group> groups, int valuedCount) {
+            this.date = date;
+            this.lines = lines;
+            this.groups = groups;
+            this.valuedCount = valuedCount;
+            long quantity = 0;
+            BigDecimal gross = BigDecimal.ZERO;
+            BigDecimal value = BigDecimal.ZERO;
+            for (Group group : groups) {
+                quantity += group.quantity;
+                gross = gross.add(group.gross);
+                value = value.add(group.value);
+            }
+            this.totalQuantity = quantity;
+            this.totalGross = gross.setScale(2, RoundingMode.HALF_UP);
+            this.totalValue = value.setScale(2, RoundingMode.HALF_UP);
+        }
+
+        /**
+         * @return The date perishable values were computed for
+         */
+        public LocalDate getDate() {
+            return date;
+        }
+
+        /**
+         * @return One line per product, in inventory order
+         */
+        public List<Line> getLines() {
+            return lines;
+        }
+
+        /**
+         * @return Subtotals per group, by group name
+         */
+        public List<Group> getGroups() {
+            return groups;
+        }
+
+        /**
+         * @return How many products had to be valued for this report (the others were reused)
+         */
+        public int getValuedCount() {
+            return valuedCount;
+        }
+
+        public long getTotalQuantity() {
+            return totalQuantity;
+        }
+
+        /**
+         * @return Same as {@link ProductManager#getTotalGrossPrice()}
+         */
+        public BigDecimal getTotalGross() {
+            return totalGross;
+        }
+
+        /**
+         * @return Same as {@link ProductManager#getTotalPriceWithPerishableDiscount()}
+         */
+        public BigDecimal getTotalValue() {
+            return totalValue;
+        }
+
+        /**
+         * @return Same as {@link ProductManager#getTotalNetPriceWithDiscount()}
+         */
+        public BigDecimal getTotalNet() {
+            return totalValue.multiply(NET_DISCOUNT).setScale(2, RoundingMode.HALF_UP);
+        }
+
+        /**
+         * Writes the report as CSV sections (groups, totals, then every product)
+         * line by line, without building it in memory
+         * @param out Where to write; not closed
+         */
+        public void writeTo(Writer out) throws IOException {
+            out.write("Inventory Value Report," + date + "\n\n");
+            out.write("Group,Products,Quantity,Gross,Value\n");
+            for (Group group : groups) {
+                out.write(csv(group.name) + "," + group.productCount + "," + group.quantity + ","
+                        + group.gross.setScale(2, RoundingMode.HALF_UP) + ","
+                        + group.value.setScale(2, RoundingMode.HALF_UP) + "\n");
+            }
+            out.write("Total," + lines.size() + "," + totalQuantity + "," + totalGross + "," + totalValue + "\n");
+            out.write("With 15% Discount,,,," + getTotalNet() + "\n\n");
+            out.write("Product,Group,Quantity,Unit Price,Discount,Gross,Value\n");
+            for (Line line : lines) {
+                Product product = line.product;
+                out.write(csv(product.getName()) + "," + csv(line.group) + "," + line.quantity + ","
+                        + product.getPrice() + "," + product.getDiscount() + "," + line.gross + "," + line.value + "\n");
+            }
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.store.service;
 
 import com.store.model.Product;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.math.BigDecimal;
 
 /**
@@ -22,12 +26,62 @@ public interface ProductManager {
      */
     boolean removeProduct(int index);
     
+    /**
+     * Add several products to the inventory as one change, saved once
+     * @param products The products to add, in order
+     */
+    void addProducts(Collection<? extends Product> products);
+    
+    /**
+     * Remove all products matching a condition as one change, saved once
+     * @param filter The condition selecting the products to remove
+     * @return The number of products removed
+     */
+    int removeIf(Predicate<? super Product> filter);
+    
+    /**
+     * Replace every product with the result of the updater as one change, saved once.
+     * The updater may also modify a product in place and return it.
+     * @param updater Function returning the new version of each product (never null)
+     */
+    void updateAll(UnaryOperator<Product> updater);
+    
     /**
      * Retrieve the complete inventory
-     * @return List of all products
+     * @return Immutable point-in-time view of all products; later changes
+     *         to the inventory are not reflected in the returned list
      */
     List<Product> getInventory();
     
+    /**
+     * Retrieve a window of the inventory, so views need not hold all of it.
+     * This default sorts a copy of the inventory on every call; implementations
+     * with sort indexes should override it.
+     * @param offset    Position of the first product in the requested order
+     * @param limit     Maximum number of products to return
+     * @param sort      The order of the products
+     * @param ascending false for the reverse order
+     * @return The page, with the size of the whole inventory
+     */
+    default InventoryPage getPage(int offset, int limit, ProductSort sort, boolean ascending) {
+        List<Product> ordered = getInventory();
+        if (sort != ProductSort.INVENTORY_ORDER) {
+            ordered = Arrays.asList(sort.sort(ordered));
+        }
+        return InventoryPage.of(ordered, offset, limit, ascending, -1);
+    }
+    
+    /**
+     * Totals of a category and every category below it. This default reads the
+     * whole inventory on every call; implementations that keep running totals
+     * should override it.
+     * @param category A category path such as "Food/Dairy", or null for the whole inventory
+     * @return The totals, or null if no product is in the category
+     */
+    default CategoryRollup getCategoryRollup(String category) {
+        return CategoryRollup.scan(getInventory(), category);
+    }
+    
     /**
      * Find a product by name
      * @param name The name to search for
@@ -0,0 +1,91 @@
+package com.store.service;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Orders in which {@link ProductManager#getPage} can return the inventory.
+ * Ties keep inventory order.
+ */
+public enum ProductSort {
+    /** The order products were added in */
+    INVENTORY_ORDER(null, null),
+    /** Name, ignoring case */
+    NAME(Comparator.comparing(Product::getName, String.CASE_INSENSITIVE_ORDER), null),
+    PRICE(Comparator.comparing(Product::getPrice), null),
+    QUANTITY(null, Product::getQuantity),
+    DISCOUNT(Comparator.comparing(Product::getDiscount), null),
+    /** Expiration date; products that do not expire come last */
+    EXPIRATION_DATE(Comparator.comparing(ProductSort::expirationDate,
+            Comparator.nullsLast(Comparator.<LocalDate>naturalOrder())), null),
+    /** Value of the stock, which changes with the quantity and, for perishables, the date */
+    TOTAL_VALUE(null, Product::getTotalValue),
+    /** Category path, ignoring case; products without a category come last */
+    CATEGORY(Comparator.comparing(Product::getCategory, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)), null);
+
+    private final Comparator<Product> comparator;
+    // Keys that change without a new inventory version; captured once before sorting
+    private final Function<Product, ? extends Comparable<?>> stockKey;
+
+    ProductSort(Comparator<Product> comparator, Function<Product, ? extends Comparable<?>> stockKey) {
+        this.stockKey = stockKey;
+        this.comparator = stockKey != null ? stockComparator(stockKey) : comparator;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Product> stockComparator(Function<Product, ? extends Comparable<?>> key) {
+        return (a, b) -> ((Comparable) key.apply(a)).compareTo(key.apply(b));
+    }
+
+    /**
+     * @return The ascending order, or null for inventory order
+     */
+    public Comparator<Product> comparator() {
+        return comparator;
+    }
+
+    /**
+     * @return true if stock changes, which do not create a new inventory version, can change the order
+     */
+    boolean isStockDependent() {
+        return stockKey != null;
+    }
+
+    /**
+     * Sorts the products ascending. Safe while quantities change concurrently:
+     * stock-dependent keys are read once, so the comparison stays consistent.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Product[] sort(List<Product> products) {
+        Product[] sorted = products.toArray(new Product[0]);
+        if (comparator == null) {
+            return sorted;
+        }
+        if (stockKey == null) {
+            Arrays.sort(sorted, comparator);
+            return sorted;
+        }
+        Comparable[] keys = new Comparable[sorted.length];
+        Integer[] order = new Integer[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = stockKey.apply(sorted[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+        Product[] result = new Product[sorted.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = sorted[order[i]];
+        }
+        return result;
+    }
+
+    private static LocalDate expirationDate(Product product) {
+        return product instanceof PerishableProduct ? ((PerishableProduct) product).getExpirationDate() : null;
+    }
+}
@@ -0,0 +1,406 @@
+package com.store.service;
+
+import com.store.model.NameDictionary;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Append-only ledger of sales ("inventory.json.sales").
+ *
+ * Recording a sale only queues it and adds it to the in-memory daily totals, so
+ * point-of-sale threads never wait for the disk. A single writer thread appends
+ * everything queued since its last write as one batch and forces it to disk once
+ * (group commit): the busier the tills, the larger the batches. {@link #flush()}
+ * waits until everything recorded so far is durable.
+ *
+ * Each sale is a binary record: timestamp in epoch milliseconds (8 bytes),
+ * quantity (4 bytes), then the product name as UTF-8 with a 2 byte length. When
+ * the ledger is first used, the file is read once to rebuild the daily totals of
+ * the last {@link #HISTORY_DAYS} days; a record torn by a crash is cut off.
+ */
+public final class SalesLedger implements AutoCloseable {
+    /** Days of per-product sales kept in memory */
+    public static final int HISTORY_DAYS = 28;
+
+    private static final String LEDGER_SUFFIX = ".sales";
+    private static final int HEADER_BYTES = Long.BYTES + Integer.BYTES + Short.BYTES;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int READ_BUFFER_SIZE = 128 * 1024;
+
+    private final Path ledgerFile;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sales-ledger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by lock
+    private final Object lock = new Object();
+    private List<Sale> pending = new ArrayList<>();
+    private boolean writeScheduled;
+    private volatile boolean loaded;
+    private long recorded;
+    private long written;
+    private IOException writeFailure;
+
+    // Writer thread only
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+
+    // Units sold per day, by folded product name id
+    private final Map<Integer, DailySales> history = new ConcurrentHashMap<>();
+    private volatile Day lastDay;
+
+    /**
+     * Creates the ledger of an inventory file; nothing is read until it is first used
+     * @param inventoryFile The inventory file the sales belong to
+     */
+    public SalesLedger(Path inventoryFile) {
+        this.ledgerFile = inventoryFile.resolveSibling(inventoryFile.getFileName() + LEDGER_SUFFIX);
+    }
+
+    /**
+     * Records a sale made now
+     * @see #record(String, int, long)
+     */
+    public void record(String productName, int quantity) {
+        record(productName, quantity, System.currentTimeMillis());
+    }
+
+    /**
+     * Records a sale. Returns without waiting for the disk.
+     * @param productName The product sold
+     * @param quantity    The number of units sold, must be positive
+     * @param epochMillis When the sale was made
+     */
+    public void record(String productName, int quantity, long epochMillis) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        Sale sale = new Sale(productName, quantity, epochMillis);
+        if (sale.name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Product name too long for the sales ledger");
+        }
+        synchronized (lock) {
+            load();
+            pending.add(sale);
+            recorded++;
+            if (!writeScheduled) {
+                writeScheduled = true;
+                writer.execute(this::writePending);
+            }
+        }
+        addToHistory(productName, quantity, epochMillis);
+    }
+
+    /**
+     * @return The number of sales recorded since the ledger was opened
+     */
+    public long getRecordedCount() {
+        synchronized (lock) {
+            return recorded;
+        }
+    }
+
+    /**
+     * Units of a product sold over a number of days
+     * @param foldedNameId The product's {@link com.store.model.Product#getFoldedNameId() folded name id}
+     * @param today        The last day to count
+     * @param days         How many days to count, at most {@link #HISTORY_DAYS}
+     * @return The units sold from {@code days - 1} days before today through today
+     */
+    public long unitsSold(int foldedNameId, LocalDate today, int days) {
+        if (days < 1 || days > HISTORY_DAYS) {
+            throw new IllegalArgumentException("Days must be between 1 and " + HISTORY_DAYS + ": " + days);
+        }
+        if (!loaded) {
+            synchronized (lock) {
+                load();
+            }
+        }
+        DailySales sales = history.get(foldedNameId);
+        return sales == null ? 0 : sales.unitsSold(today.toEpochDay(), days);
+    }
+
+    /**
+     * Waits until every sale recorded so far is on disk
+     * @throws IOException if a batch could not be written since the last flush
+     */
+    public void flush() throws IOException {
+        synchronized (lock) {
+            long target = recorded;
+            try {
+                while (written < target) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while flushing the sales ledger");
+            }
+            IOException failure = writeFailure;
+            writeFailure = null;
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Flushes the ledger and closes its file. Recording again reopens it.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        try {
+            writer.submit(() -> {
+                closeChannel();
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the sales ledger");
+        } catch (ExecutionException e) {
+            throw new IOException("Error closing the sales ledger", e.getCause());
+        }
+    }
+
+    private void writePending() {
+        while (true) {
+            List<Sale> batch;
+            synchronized (lock) {
+                if (pending.isEmpty()) {
+                    writeScheduled = false;
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+            IOException failure = null;
+            try {
+                write(batch);
+            } catch (IOException e) {
+                System.err.println("Error writing " + batch.size() + " sales to the ledger: " + e.getMessage());
+                closeChannel();
+                failure = e;
+            }
+            synchronized (lock) {
+                // Failed sales count as written too, so flush reports the failure instead of waiting forever
+                written += batch.size();
+                if (failure != null) {
+                    writeFailure = failure;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void write(List<Sale> batch) throws IOException {
+        int size = 0;
+        for (Sale sale : batch) {
+            size += HEADER_BYTES + sale.name.length;
+        }
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        for (Sale sale : batch) {
+            buffer.putLong(sale.epochMillis).putInt(sale.quantity).putShort((short) sale.name.length).put(sale.name);
+        }
+        buffer.flip();
+        if (channel == null) {
+            channel = FileChannel.open(ledgerFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        // One force for the whole batch
+        channel.force(false);
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing the sales ledger: " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Rebuilds the daily totals from the file, once. Called holding the lock, so
+     * nothing is appended while the file is read.
+     */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        if (Files.exists(ledgerFile)) {
+            readHistory();
+        }
+        // Only now, so readers that skip the lock never see a half-read history
+        loaded = true;
+    }
+
+    private void readHistory() {
+        long start = System.nanoTime();
+        long count = 0;
+        long oldestDay = LocalDate.now(zone).toEpochDay() - HISTORY_DAYS;
+        try (FileChannel in = FileChannel.open(ledgerFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer read = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            long position = 0;
+            long complete = 0;
+            while (in.read(read) >= 0 || read.position() > 0) {
+                read.flip();
+                int before = read.remaining();
+                while (read.remaining() >= HEADER_BYTES) {
+                    read.mark();
+                    long epochMillis = read.getLong();
+                    int quantity = read.getInt();
+                    int length = Short.toUnsignedInt(read.getShort());
+                    if (read.remaining() < length) {
+                        read.reset();
+                        break;
+                    }
+                    byte[] name = new byte[length];
+                    read.get(name);
+                    complete = position + (before - read.remaining());
+                    count++;
+                    Day day = dayOf(epochMillis);
+                    if (day.epochDay > oldestDay) {
+                        addToHistory(new String(name, StandardCharsets.UTF_8), quantity, day);
+                    }
+                }
+                position += before - read.remaining();
+                read.compact();
+                if (read.position() == read.capacity()) {
+                    // Larger than any record, so the rest of the file is garbage
+                    break;
+                }
+                if (position + read.position() == in.size()) {
+                    break;
+                }
+            }
+            if (complete < in.size()) {
+                System.err.println("Sales ledger ends with an incomplete record; truncating "
+                        + (in.size() - complete) + " bytes");
+                in.truncate(complete);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading sales ledger: " + e.getMessage());
+        }
+        System.out.println("Read " + count + " sales from " + ledgerFile.getFileName()
+                + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private void addToHistory(String productName, int quantity, long epochMillis) {
+        Day day = lastDay;
+        if (day == null || epochMillis < day.startMillis || epochMillis >= day.endMillis) {
+            day = dayOf(epochMillis);
+            // Sales arrive roughly in time order, so remembering the latest day is enough
+            if (lastDay == null || day.epochDay > lastDay.epochDay) {
+                lastDay = day;
+            }
+        }
+        addToHistory(productName, quantity, day);
+    }
+
+    private void addToHistory(String productName, int quantity, Day day) {
+        NameDictionary names = NameDictionary.global();
+        int foldedNameId = names.foldedId(names.intern(productName));
+        history.computeIfAbsent(foldedNameId, id -> new DailySales()).add(day.epochDay, quantity);
+    }
+
+    private Day dayOf(long epochMillis) {
+        LocalDate date = Instant.ofEpochMilli(epochMillis).atZone(zone).toLocalDate();
+        return new Day(date.toEpochDay(), date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+    }
+
+    private static final class Sale {
+        private final byte[] name;
+        private final int quantity;
+        private final long epochMillis;
+
+        private Sale(String productName, int quantity, long epochMillis) {
+            this.name = productName.getBytes(StandardCharsets.UTF_8);
+            this.quantity = quantity;
+            this.epochMillis = epochMillis;
+        }
+    }
+
+    /**
+     * A local day and the instants it spans
+     */
+    private static final class Day {
+        private final long epochDay;
+        private final long startMillis;
+        private final long endMillis;
+
+        private Day(long epochDay, long startMillis, long endMillis) {
+            this.epochDay = epochDay;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+    }
+
+    /**
+     * Units of one product sold on each of the last {@link #HISTORY_DAYS} days, in a ring
+     */
+    private static final class DailySales {
+        private final long[] units = new long[HISTORY_DAYS];
+        private long newestDay = Long.MIN_VALUE;
+
+        private synchronized void add(long day, int quantity) {
+            if (day > newestDay) {
+                if (newestDay == Long.MIN_VALUE || day - newestDay >= HISTORY_DAYS) {
+                    Arrays.fill(units, 0);
+                } else {
+                    for (long d = newestDay + 1; d <= day; d++) {
+                        units[slot(d)] = 0;
+                    }
+                }
+                newestDay = day;
+            } else if (day <= newestDay - HISTORY_DAYS) {
+                return;
+            }
+            units[slot(day)] += quantity;
+        }
+
+        private synchronized long unitsSold(long today, int days) {
+            long total = 0;
+            for (long day = today - days + 1; day <= today; day++) {
+                if (day <= newestDay && day > newestDay - HISTORY_DAYS) {
+                    total += units[slot(day)];
+                }
+            }
+            return total;
+        }
+
+        private static int slot(long day) {
+            return (int) Math.floorMod(day, (long) HISTORY_DAYS);
+        }
+    }
+}
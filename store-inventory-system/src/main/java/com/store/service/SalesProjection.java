@@ -0,0 +1,162 @@
+package com.store.service;
+
+import com.store.model.Product;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Projects how long the stock of each product will last from its recent sales
+ * in the {@link SalesLedger}.
+ *
+ * Each product gets a 7 day and a 28 day moving average of units sold per day.
+ * Days of stock remaining are the quantity divided by the 7 day average, which
+ * follows recent demand, or by the 28 day average for products that sold nothing
+ * this week. Products are projected independently, so a recomputation is spread
+ * over the common fork/join pool. A run with no new sales, stock changes or
+ * products on the same day returns the previous projection.
+ */
+public final class SalesProjection {
+    public static final int SHORT_WINDOW_DAYS = 7;
+    public static final int LONG_WINDOW_DAYS = SalesLedger.HISTORY_DAYS;
+
+    private static final Comparator<Line> SOONEST_FIRST = Comparator.comparingDouble(Line::getDaysRemaining)
+            .thenComparing(line -> line.getProduct().getName(), String.CASE_INSENSITIVE_ORDER);
+
+    private final ProductManager productManager;
+    private final SalesLedger ledger;
+
+    // Guarded by this
+    private Result cached;
+    private List<Product> cachedInventory;
+    private long cachedRevision;
+    private long cachedSales;
+
+    /**
+     * @param service The inventory, projected from its own sales ledger
+     */
+    public SalesProjection(StoreService service) {
+        this(service, service.getSalesLedger());
+    }
+
+    /**
+     * @param productManager The inventory to project
+     * @param ledger         The sales of its products
+     */
+    public SalesProjection(ProductManager productManager, SalesLedger ledger) {
+        this.productManager = productManager;
+        this.ledger = ledger;
+    }
+
+    /**
+     * Projects the current inventory as of today
+     * @return Every product, the one running out soonest first
+     */
+    public synchronized Result project() {
+        // Read the counters first, so a concurrent sale can only make the projection look stale
+        long revision = productManager instanceof StoreService
+                ? ((StoreService) productManager).getStockRevision() : -1;
+        long sales = ledger.getRecordedCount();
+        List<Product> inventory = productManager.getInventory();
+        LocalDate today = LocalDate.now();
+        if (cached != null && inventory == cachedInventory && revision == cachedRevision
+                && sales == cachedSales && today.equals(cached.date)) {
+            return cached;
+        }
+
+        List<Line> lines = inventory.parallelStream()
+                .map(product -> new Line(product, ledger, today))
+                .sorted(SOONEST_FIRST)
+                .toList();
+        cached = new Result(today, lines);
+        cachedInventory = inventory;
+        cachedRevision = revision;
+        cachedSales = sales;
+        return cached;
+    }
+
+    /**
+     * One product's projection
+     */
+    public static final class Line {
+        private final Product product;
+        private final int quantity;
+        private final double shortAverage;
+        private final double longAverage;
+        private final double daysRemaining;
+
+        private Line(Product product, SalesLedger ledger, LocalDate today) {
+            this.product = product;
+            this.quantity = product.getQuantity();
+            int foldedNameId = product.getFoldedNameId();
+            this.shortAverage = (double) ledger.unitsSold(foldedNameId, today, SHORT_WINDOW_DAYS) / SHORT_WINDOW_DAYS;
+            this.longAverage = (double) ledger.unitsSold(foldedNameId, today, LONG_WINDOW_DAYS) / LONG_WINDOW_DAYS;
+            double rate = shortAverage > 0 ? shortAverage : longAverage;
+            this.daysRemaining = rate > 0 ? quantity / rate : Double.POSITIVE_INFINITY;
+        }
+
+        public Product getProduct() {
+            return product;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        /**
+         * @return Units sold per day over the last 7 days
+         */
+        public double getShortAverage() {
+            return shortAverage;
+        }
+
+        /**
+         * @return Units sold per day over the last 28 days
+         */
+        public double getLongAverage() {
+            return longAverage;
+        }
+
+        /**
+         * @return Days until the stock runs out, infinite if the product does not sell
+         */
+        public double getDaysRemaining() {
+            return daysRemaining;
+        }
+
+        /**
+         * @return true if the product sold anything in the last 28 days
+         */
+        public boolean isSelling() {
+            return longAverage > 0;
+        }
+    }
+
+    /**
+     * A finished projection. Immutable.
+     */
+    public static final class Result {
+        private final LocalDate date;
+        private final List<Line> lines;
+
+        private Result(LocalDate date, List<Line> lines) {
+            this.date = date;
+            this.lines = lines;
+        }
+
+        /**
+         * @return The day the moving averages end on
+         */
+        public LocalDate getDate() {
+            return date;
+        }
+
+        /**
+         * @return One line per product, the one running out soonest first
+         */
+        public List<Line> getLines() {
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.store.service;
+
+/**
+ * Plain loop implementation of {@link ValuationKernel}.
+ * Used whenever the Vector API is not available at runtime.
+ */
+public final class ScalarValuationKernel implements ValuationKernel {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long grossCents(ValuationColumns columns) {
+        long[] price = columns.priceCents();
+        long[] quantity = columns.quantities();
+        long sum = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            sum += price[i] * quantity[i];
+        }
+        return sum;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long valueCents(ValuationColumns columns) {
+        long[] price = columns.priceCents();
+        long[] quantity = columns.quantities();
+        long[] keep = columns.keepPercent();
+        long[] tier = columns.tierTenths();
+        long sum = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            // Discounted value rounded HALF_UP to cents, then the expiration tier rounded HALF_UP again
+            long base = (price[i] * quantity[i] * keep[i] + 50) / 100;
+            sum += (base * tier[i] + 5) / 10;
+        }
+        return sum;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
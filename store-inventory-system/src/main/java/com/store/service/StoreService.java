@@ -5,8 +5,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.store.model.NameDictionary;
 import com.store.model.Product;
 import com.store.model.PerishableProduct;
+import com.store.util.InventoryFileCoordinator;
+import com.store.util.ProductJson;
 
 import java.io.File;
 import java.io.IOException;
@@ -16,23 +19,102 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 /**
  * Service class that implements ProductManager interface to handle 
  * inventory management operations and data persistence.
  * This class follows the Singleton pattern to ensure only one instance exists
  * throughout the application lifecycle.
+ * 
+ * Concurrency model:
+ * - The inventory is an immutable {@link InventorySnapshot} guarded by a StampedLock.
+ * - Mutations take the write lock, so there is a single writer at a time. The writer
+ *   builds the next snapshot and publishes it before releasing the lock; it never
+ *   blocks on disk I/O while holding it.
+ * - Queries and aggregates use an optimistic read to grab the current snapshot and
+ *   fall back to a read lock only if a writer interfered. Every read therefore sees
+ *   exactly one published version, and the version a read sees is never older than
+ *   any write that completed before the read started (reads are linearizable).
+ * - Persistence is serialized separately and always writes the latest snapshot,
+ *   so an older version can never overwrite a newer one on disk.
+ * - Stock adjustments (adjustQuantity, sell, restock) bypass the lock entirely: each
+ *   product's quantity is updated with a compare-and-set, so they are atomic per
+ *   product but not across products, and are persisted by a coalesced background save.
+ * - Other processes (a second GUI, the console app) may share the inventory file.
+ *   Loads and saves hold an {@link InventoryFileCoordinator} lock, and each save
+ *   bumps the file's change sequence. A save that finds the sequence moved on
+ *   first merges the other process's changes into this inventory instead of
+ *   overwriting them; {@link #refreshFromDisk()} does the same without saving.
+ * - Every change is also published as {@link InventoryChange} events through
+ *   {@link #changes()}. Snapshots are swapped and their events submitted under the
+ *   publisher's monitor, so subscribers see changes in version order.
+ * The service is safe to use from any number of threads (GUI, background imports,
+ * schedulers).
  */
 public class StoreService implements ProductManager {
     // Singleton instance
     private static StoreService instance;
 
-    private List<Product> inventory;
+    // Current immutable inventory version, only replaced while holding the write lock
+    private final StampedLock lock = new StampedLock();
+    private InventorySnapshot inventory = InventorySnapshot.empty();
     private final ObjectMapper objectMapper;
     
+    // Serializes writes to the inventory file. Not a monitor: a virtual thread (e.g. an
+    // HTTP request) waiting for it or saving under it must not pin its carrier thread
+    private final ReentrantLock persistLock = new ReentrantLock();
+    
+    // Cross-process coordination; the synced fields are guarded by persistLock and
+    // describe the file contents as of this service's last load or save
+    private InventoryFileCoordinator fileCoordinator;
+    private InventoryJournal journal;
+    private SalesLedger salesLedger;
+    private long syncedSequence;
+    private List<ObjectNode> syncedState;
+    
+    // Coalesces saves requested by stock adjustments into one background write
+    private final AtomicBoolean saveRequested = new AtomicBoolean();
+    private final ExecutorService persistExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-persist");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Counts in-place quantity changes; striped so hot SKUs don't contend on one counter
+    private final LongAdder stockRevision = new LongAdder();
+    
+    // Fine-grained change events; its monitor orders them with snapshot versions
+    private final InventoryChangePublisher changes = new InventoryChangePublisher();
+    
+    // Primitive columns for the valuation kernels, rebuilt lazily for each new snapshot
+    private final ValuationKernel valuationKernel = ValuationKernels.preferred();
+    private volatile ValuationCache valuationCache;
+    
+    // Category totals, kept up to date once first asked for; changed under the changes monitor
+    private volatile CategoryRollups categoryRollups;
+    
+    // Sorted copies of the current snapshot for paged views, built on first use per order
+    private final Map<ProductSort, SortIndex> sortIndexes = new ConcurrentHashMap<>();
+    
     // File configuration constants
     private static final String USER_INVENTORY_DIR = ".store-inventory";
     private static final String USER_INVENTORY_FILENAME = "inventory.json";
@@ -54,21 +136,44 @@ public class StoreService implements ProductManager {
      * Note: For proper singleton implementation, use getInstance() instead.
      */
     public StoreService() {
-        this.inventory = new ArrayList<>();
-        
-        // Create a simple ObjectMapper without type information
-        this.objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        this.objectMapper = createObjectMapper();
         
         // Initialize inventory file in dedicated directory
         setupUserInventoryFile();
+        if (inventoryFile != null) {
+            fileCoordinator = new InventoryFileCoordinator(inventoryFile.toPath());
+            journal = new InventoryJournal(inventoryFile.toPath());
+            salesLedger = new SalesLedger(inventoryFile.toPath());
+        }
         
         // Load inventory data
         loadInventory();
     }
 
+    /**
+     * Creates a StoreService backed by a specific inventory file instead of the
+     * user's default one. A missing file starts an empty inventory.
+     * 
+     * @param inventoryPath The inventory file to load from and save to
+     */
+    public StoreService(Path inventoryPath) {
+        this.objectMapper = createObjectMapper();
+        this.inventoryFile = inventoryPath.toFile();
+        this.fileCoordinator = new InventoryFileCoordinator(inventoryPath);
+        this.journal = new InventoryJournal(inventoryPath);
+        this.salesLedger = new SalesLedger(inventoryPath);
+        loadInventory();
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        // Create a simple ObjectMapper without type information
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        return mapper;
+    }
+
     /**
      * Sets up the user-specific inventory file in the .store-inventory directory
      * within the user's home directory. Creates the directory if it doesn't exist.
@@ -245,7 +350,7 @@ public class StoreService implements ProductManager {
             JsonNode rootNode = objectMapper.readTree(inventoryFile);
                 
             if (rootNode.isArray()) {
-                inventory.clear();
+                List<Product> loaded = new ArrayList<>();
                 
                 for (JsonNode productNode : rootNode) {
                     Product product;
@@ -270,14 +375,14 @@ public class StoreService implements ProductManager {
                         product = new Product(name, price, quantity, discount);
                     }
                     
-                    inventory.add(product);
+                    loaded.add(product);
                 }
+                publish(loaded);
             }
         } catch (IOException e) {
             System.err.println("Error creating empty inventory: " + e.getMessage());
             // Fallback to in-memory inventory
-            inventory = new ArrayList<>();
-            inventory.add(new Product("Sample Product", 9.99, 10, 0.0));
+            publish(List.of(new Product("Sample Product", 9.99, 10, 0.0)));
         }
     }
 
@@ -287,26 +392,27 @@ public class StoreService implements ProductManager {
      */
     public void createDefaultInventory() {
         try {
-            // Clear existing inventory
-            inventory.clear();
+            List<Product> defaults = new ArrayList<>();
             
             // Add perishable products
-            inventory.add(new PerishableProduct("Apples", 1.99, 50, "2025-04-25", 0.05));
-            inventory.add(new PerishableProduct("Bananas", 0.89, 40, "2025-04-20", 0.0));
-            inventory.add(new PerishableProduct("Strawberries", 3.49, 20, "2025-04-19", 0.1));
-            inventory.add(new PerishableProduct("Tomatoes", 2.29, 30, "2025-04-24", 0.0));
-            inventory.add(new PerishableProduct("Lettuce", 1.79, 15, "2025-04-18", 0.05));
-            inventory.add(new PerishableProduct("Cucumbers", 0.99, 25, "2025-04-23", 0.0));
-            inventory.add(new PerishableProduct("Broccoli", 2.49, 18, "2025-04-21", 0.05));
+            defaults.add(new PerishableProduct("Apples", 1.99, 50, "2025-04-25", 0.05));
+            defaults.add(new PerishableProduct("Bananas", 0.89, 40, "2025-04-20", 0.0));
+            defaults.add(new PerishableProduct("Strawberries", 3.49, 20, "2025-04-19", 0.1));
+            defaults.add(new PerishableProduct("Tomatoes", 2.29, 30, "2025-04-24", 0.0));
+            defaults.add(new PerishableProduct("Lettuce", 1.79, 15, "2025-04-18", 0.05));
+            defaults.add(new PerishableProduct("Cucumbers", 0.99, 25, "2025-04-23", 0.0));
+            defaults.add(new PerishableProduct("Broccoli", 2.49, 18, "2025-04-21", 0.05));
             
             // Add non-perishable products
-            inventory.add(new Product("Potatoes", 0.79, 60, 0.0));
-            inventory.add(new Product("Onions", 0.89, 45, 0.05));
-            inventory.add(new Product("Rice", 3.99, 30, 0.0));
+            defaults.add(new Product("Potatoes", 0.79, 60, 0.0));
+            defaults.add(new Product("Onions", 0.89, 45, 0.05));
+            defaults.add(new Product("Rice", 3.99, 30, 0.0));
+            
+            publish(defaults);
             
             // Save the newly created inventory
             saveInventory();
-            System.out.println("Default inventory created with " + inventory.size() + " products");
+            System.out.println("Default inventory created with " + readSnapshot().size() + " products");
         } catch (Exception e) {
             System.err.println("Error creating default inventory: " + e.getMessage());
             e.printStackTrace();
@@ -318,7 +424,20 @@ public class StoreService implements ProductManager {
      */
     @Override
     public void addProduct(Product product) {
-        inventory.add(product);
+        long stamp = lock.writeLock();
+        try {
+            synchronized (changes) {
+                inventory = inventory.with(product);
+                if (categoryRollups != null) {
+                    categoryRollups.added(product);
+                }
+                if (changes.hasSubscribers()) {
+                    changes.submit(InventoryChange.added(product, inventory.size() - 1, inventory.getVersion()));
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
         saveInventory();
     }
 
@@ -327,13 +446,432 @@ public class StoreService implements ProductManager {
      */
     @Override
     public boolean removeProduct(int index) {
-        if (index >= 0 && index < inventory.size()) {
-            inventory.remove(index);
-            saveInventory();
-            return true;
-        } else {
-            System.err.println("Invalid product index: " + index);
-            return false;
+        long stamp = lock.writeLock();
+        try {
+            if (index < 0 || index >= inventory.size()) {
+                System.err.println("Invalid product index: " + index);
+                return false;
+            }
+            synchronized (changes) {
+                Product removed = inventory.get(index);
+                inventory = inventory.without(index);
+                if (categoryRollups != null) {
+                    categoryRollups.removed(removed);
+                }
+                if (changes.hasSubscribers()) {
+                    changes.submit(InventoryChange.removed(removed, index, inventory.getVersion()));
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        saveInventory();
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addProducts(Collection<? extends Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            synchronized (changes) {
+                int first = inventory.size();
+                inventory = inventory.withAll(products);
+                if (categoryRollups != null) {
+                    products.forEach(categoryRollups::added);
+                }
+                if (changes.hasSubscribers()) {
+                    List<InventoryChange> added = new ArrayList<>(products.size());
+                    for (int i = first; i < inventory.size(); i++) {
+                        added.add(InventoryChange.added(inventory.get(i), i, inventory.getVersion()));
+                    }
+                    changes.submit(added);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        saveInventory();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int removeIf(Predicate<? super Product> filter) {
+        int removed;
+        long stamp = lock.writeLock();
+        try {
+            List<Product> kept = new ArrayList<>(inventory.size());
+            List<Integer> removedIndexes = new ArrayList<>();
+            for (int i = 0; i < inventory.size(); i++) {
+                Product product = inventory.get(i);
+                if (filter.test(product)) {
+                    removedIndexes.add(i);
+                } else {
+                    kept.add(product);
+                }
+            }
+            removed = removedIndexes.size();
+            if (removed == 0) {
+                return 0;
+            }
+            synchronized (changes) {
+                InventorySnapshot previous = inventory;
+                inventory = inventory.replaceAll(kept);
+                if (categoryRollups != null) {
+                    for (int index : removedIndexes) {
+                        categoryRollups.removed(previous.get(index));
+                    }
+                }
+                if (changes.hasSubscribers()) {
+                    List<InventoryChange> events = new ArrayList<>(removed);
+                    for (int i = 0; i < removed; i++) {
+                        // Each position accounts for the removals before it
+                        int index = removedIndexes.get(i);
+                        events.add(InventoryChange.removed(previous.get(index), index - i, inventory.getVersion()));
+                    }
+                    changes.submit(events);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        saveInventory();
+        return removed;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Updates are applied under the write lock, so the updater must not call back into this service.
+     */
+    @Override
+    public void updateAll(UnaryOperator<Product> updater) {
+        long stamp = lock.writeLock();
+        try {
+            List<Product> updated = new ArrayList<>(inventory.size());
+            for (Product product : inventory) {
+                updated.add(Objects.requireNonNull(updater.apply(product), "updated product"));
+            }
+            // Publish even if every product was modified in place, so caches keyed by version refresh
+            synchronized (changes) {
+                inventory = inventory.replaceAll(updated);
+                if (categoryRollups != null) {
+                    // Categories and prices may have changed
+                    categoryRollups.rebuild(updated);
+                }
+                if (changes.hasSubscribers()) {
+                    List<InventoryChange> events = new ArrayList<>(updated.size());
+                    for (int i = 0; i < updated.size(); i++) {
+                        events.add(InventoryChange.updated(updated.get(i), i, inventory.getVersion()));
+                    }
+                    changes.submit(events);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        saveInventory();
+    }
+
+    /**
+     * Starts a transaction whose operations are applied together or not at all
+     * @return A new transaction; nothing changes until it is committed
+     */
+    public InventoryTransaction beginTransaction() {
+        return new InventoryTransaction(this);
+    }
+
+    /**
+     * Commits transaction operations with one journal entry and one save
+     * @return null on success, otherwise why nothing was applied
+     */
+    String commitTransaction(List<InventoryTransaction.Operation> operations) {
+        if (operations.isEmpty()) {
+            return null;
+        }
+        persistLock.lock();
+        try {
+            try (InventoryFileCoordinator.Lease lease = lockInventoryFile()) {
+                // Validate against changes other processes saved, not a stale copy
+                if (lease != null && lease.getSequence() != syncedSequence && inventoryFile.exists()) {
+                    mergeFromFile();
+                }
+                // Validate before journaling, so only transactions that can apply are journaled,
+                // and journal before taking the write lock, so readers and stock adjustments
+                // never wait for the journal's fsync
+                TransactionPlan plan = planOperations(operations, readSnapshot());
+                if (plan.failure != null) {
+                    return plan.failure;
+                }
+                long journalSize = -1;
+                if (lease != null && journal != null) {
+                    try {
+                        journalSize = journal.append(lease.getSequence() + 1, operations);
+                    } catch (IOException e) {
+                        return "Error writing transaction journal: " + e.getMessage();
+                    }
+                }
+                String failure;
+                long stamp = lock.writeLock();
+                try {
+                    // Another writer may have published a new snapshot meanwhile; planning again is cheap
+                    if (plan.snapshot != inventory) {
+                        plan = planOperations(operations, inventory);
+                    }
+                    failure = plan.failure != null ? plan.failure : applyPlan(plan);
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+                if (failure != null) {
+                    discardJournalEntry(journalSize);
+                    return failure;
+                }
+                if (writeAndAdvanceSequence(lease) && journal != null) {
+                    // The inventory file now reflects the transaction, so its journal entry is obsolete
+                    journal.clear();
+                }
+                return null;
+            } catch (IOException e) {
+                return "Error coordinating inventory file access: " + e.getMessage();
+            }
+        } finally {
+            persistLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the journal entry of a transaction that failed after it was journaled,
+     * so it is not replayed after a crash
+     * @param journalSize The journal's size before the entry, or -1 if it was not journaled
+     */
+    private void discardJournalEntry(long journalSize) {
+        if (journalSize < 0) {
+            return;
+        }
+        try {
+            journal.truncate(journalSize);
+        } catch (IOException e) {
+            System.err.println("Error removing failed transaction from the journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Validates and applies transaction operations as one change without journaling
+     * them, e.g. when replaying the journal. Called with the write lock held.
+     * 
+     * @return null on success, otherwise why nothing was applied
+     */
+    private String applyOperations(List<InventoryTransaction.Operation> operations) {
+        TransactionPlan plan = planOperations(operations, inventory);
+        return plan.failure != null ? plan.failure : applyPlan(plan);
+    }
+
+    /**
+     * Validates transaction operations in order against a snapshot without changing
+     * anything. Structural changes are built on a copy of the snapshot; stock changes
+     * are checked against the quantities seen now and become net deltas, which
+     * {@link #applyPlan} applies with compare-and-set.
+     * 
+     * @return The plan, or a failed one saying why the transaction cannot apply
+     */
+    private static TransactionPlan planOperations(List<InventoryTransaction.Operation> operations,
+                                                  InventorySnapshot snapshot) {
+        TransactionPlan plan = new TransactionPlan(snapshot);
+        List<Product> working = plan.working;
+        Map<Product, Integer> baseQuantities = new IdentityHashMap<>();
+        Map<Product, Integer> quantities = new IdentityHashMap<>();
+
+        for (InventoryTransaction.Operation operation : operations) {
+            switch (operation.kind) {
+                case ADD:
+                    working.add(operation.product);
+                    plan.events.add(InventoryChange.added(operation.product, working.size() - 1, snapshot.getVersion() + 1));
+                    plan.added.put(operation.product, Boolean.TRUE);
+                    quantities.put(operation.product, operation.product.getQuantity());
+                    plan.structural = true;
+                    break;
+                case REMOVE: {
+                    int index = indexOfName(working, operation.name);
+                    if (index < 0) {
+                        return plan.fail("No product named \"" + operation.name + "\" to remove");
+                    }
+                    plan.events.add(InventoryChange.removed(working.remove(index), index, snapshot.getVersion() + 1));
+                    plan.structural = true;
+                    break;
+                }
+                case ADJUST: {
+                    int index = indexOfName(working, operation.name);
+                    if (index < 0) {
+                        return plan.fail("No product named \"" + operation.name + "\" to adjust");
+                    }
+                    Product product = working.get(index);
+                    int base = baseQuantities.computeIfAbsent(product, Product::getQuantity);
+                    long quantity = (long) quantities.getOrDefault(product, base) + operation.delta;
+                    if (quantity < 0 || quantity > Integer.MAX_VALUE) {
+                        return plan.fail("Insufficient stock for \"" + operation.name + "\"");
+                    }
+                    quantities.put(product, (int) quantity);
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Unknown operation " + operation.kind);
+            }
+        }
+
+        // Final quantities of added products; net stock change per existing product that survives
+        Map<Product, Boolean> kept = new IdentityHashMap<>();
+        working.forEach(product -> kept.put(product, Boolean.TRUE));
+        quantities.forEach((product, quantity) -> {
+            if (plan.added.containsKey(product)) {
+                plan.addedQuantities.put(product, quantity);
+            }
+        });
+        baseQuantities.forEach((product, base) -> {
+            int delta = quantities.get(product) - base;
+            if (delta != 0 && !plan.added.containsKey(product) && kept.containsKey(product)) {
+                plan.deltas.put(product, delta);
+            }
+        });
+        return plan;
+    }
+
+    /**
+     * Applies a plan made from the current snapshot as one change. Called with the
+     * write lock held; does no I/O. Stock changes use compare-and-set (decreases
+     * first, so only they can be refused by concurrent sales) and are reversed if
+     * the transaction fails part way; the new snapshot is published at the end.
+     * 
+     * @return null on success, otherwise why nothing was applied
+     */
+    private String applyPlan(TransactionPlan plan) {
+        List<Map.Entry<Product, Integer>> applied = new ArrayList<>();
+        for (int pass = 0; pass < 2; pass++) {
+            for (Map.Entry<Product, Integer> delta : plan.deltas.entrySet()) {
+                if ((delta.getValue() < 0) != (pass == 0)) {
+                    continue;
+                }
+                if (delta.getKey().tryAdjustQuantity(delta.getValue()) == Product.ADJUSTMENT_REFUSED) {
+                    undoAdjustments(applied);
+                    return "Insufficient stock for \"" + delta.getKey().getName() + "\"";
+                }
+                applied.add(delta);
+            }
+        }
+
+        plan.addedQuantities.forEach(Product::setQuantity);
+        if (!applied.isEmpty()) {
+            stockRevision.increment();
+        }
+        List<InventoryChange> events = plan.events;
+        synchronized (changes) {
+            if (plan.structural) {
+                inventory = inventory.replaceAll(plan.working);
+            }
+            if (categoryRollups != null) {
+                for (InventoryChange event : events) {
+                    if (event.getType() == InventoryChange.Type.ADDED) {
+                        categoryRollups.added(event.getProduct());
+                    } else if (event.getType() == InventoryChange.Type.REMOVED) {
+                        categoryRollups.removed(event.getProduct());
+                    }
+                }
+                for (Map.Entry<Product, Integer> delta : applied) {
+                    categoryRollups.adjusted(delta.getKey());
+                }
+            }
+            if (changes.hasSubscribers()) {
+                // Stock changes are reported at the products' final positions
+                for (Map.Entry<Product, Integer> delta : applied) {
+                    events.add(InventoryChange.updated(delta.getKey(), inventory.positionOf(delta.getKey()),
+                            inventory.getVersion()));
+                }
+                changes.submit(events);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A validated transaction, ready to be applied to the snapshot it was made from
+     */
+    private static final class TransactionPlan {
+        private final InventorySnapshot snapshot;
+        private final List<Product> working;
+        private final Map<Product, Boolean> added = new IdentityHashMap<>();
+        private final Map<Product, Integer> addedQuantities = new IdentityHashMap<>();
+        private final Map<Product, Integer> deltas = new IdentityHashMap<>();
+        private final List<InventoryChange> events = new ArrayList<>();
+        private boolean structural;
+        private String failure;
+
+        private TransactionPlan(InventorySnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.working = new ArrayList<>(snapshot);
+        }
+
+        private TransactionPlan fail(String reason) {
+            failure = reason;
+            return this;
+        }
+    }
+
+    private static void undoAdjustments(List<Map.Entry<Product, Integer>> applied) {
+        for (Map.Entry<Product, Integer> delta : applied) {
+            if (delta.getKey().tryAdjustQuantity(-delta.getValue()) == Product.ADJUSTMENT_REFUSED) {
+                System.err.println("Could not roll back stock change of " + delta.getKey().getName());
+            }
+        }
+    }
+
+    private static int indexOfName(List<Product> products, String name) {
+        int foldedNameId = NameDictionary.global().lookupFoldedId(name);
+        if (foldedNameId == NameDictionary.NO_NAME) {
+            return -1;
+        }
+        for (int i = 0; i < products.size(); i++) {
+            if (products.get(i).getFoldedNameId() == foldedNameId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replays journaled transactions whose save was interrupted, then clears the journal.
+     * Called while loading, with the persist lock and the file lease held.
+     */
+    private void replayJournal(InventoryFileCoordinator.Lease lease) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            List<List<InventoryTransaction.Operation>> unsaved = journal.readUnsaved(lease.getSequence());
+            for (List<InventoryTransaction.Operation> operations : unsaved) {
+                String failure;
+                long stamp = lock.writeLock();
+                try {
+                    failure = applyOperations(operations);
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+                if (failure != null) {
+                    System.err.println("Skipped journaled transaction: " + failure);
+                } else {
+                    System.out.println("Recovered journaled transaction with " + operations.size() + " operations");
+                }
+            }
+            if (!unsaved.isEmpty()) {
+                saveInventory();
+            }
+            journal.clear();
+        } catch (IOException e) {
+            System.err.println("Error replaying transaction journal: " + e.getMessage());
         }
     }
 
@@ -342,7 +880,44 @@ public class StoreService implements ProductManager {
      */
     @Override
     public List<Product> getInventory() {
-        return new ArrayList<>(inventory);
+        // Snapshots are immutable, so they can be shared without copying
+        return readSnapshot();
+    }
+    
+    /**
+     * Returns the current inventory snapshot together with its version number
+     * @return The current immutable snapshot
+     */
+    public InventorySnapshot getSnapshot() {
+        return readSnapshot();
+    }
+    
+    /**
+     * Returns a counter that changes whenever a stock adjustment modifies a
+     * product in place. Together with the snapshot version it identifies the
+     * complete state of the inventory.
+     * @return The number of in-place stock changes so far
+     */
+    public long getStockRevision() {
+        return stockRevision.sum();
+    }
+    
+    /**
+     * Reads the current snapshot with an optimistic read, falling back
+     * to a read lock if a writer published a new version concurrently
+     */
+    private InventorySnapshot readSnapshot() {
+        long stamp = lock.tryOptimisticRead();
+        InventorySnapshot snapshot = inventory;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                snapshot = inventory;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return snapshot;
     }
 
     /**
@@ -350,9 +925,103 @@ public class StoreService implements ProductManager {
      */
     @Override
     public Optional<Product> findProductByName(String name) {
-        return inventory.stream()
-                .filter(product -> product.getName().equalsIgnoreCase(name))
-                .findFirst();
+        // Unknown names cannot match any product, so skip the scan entirely
+        int foldedNameId = NameDictionary.global().lookupFoldedId(name);
+        if (foldedNameId == NameDictionary.NO_NAME) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(readSnapshot().findByFoldedNameId(foldedNameId));
+    }
+
+    /**
+     * Atomically changes the stock of a product without locking the inventory.
+     * 
+     * @param productName The product name (matched ignoring case)
+     * @param delta       The amount to add, negative to remove stock
+     * @return true if the stock was changed, false if the product was not found
+     *         or the stock would drop below zero
+     */
+    public boolean adjustQuantity(String productName, int delta) {
+        int foldedNameId = NameDictionary.global().lookupFoldedId(productName);
+        if (foldedNameId == NameDictionary.NO_NAME) {
+            return false;
+        }
+        Product product = readSnapshot().findByFoldedNameId(foldedNameId);
+        return product != null && adjustQuantity(product, delta);
+    }
+    
+    /**
+     * Atomically changes the stock of a product without locking the inventory.
+     * The product should belong to this inventory; changes to a product removed
+     * concurrently are lost with it.
+     * 
+     * @param product The product to adjust
+     * @param delta   The amount to add, negative to remove stock
+     * @return true if the stock was changed, false if it would drop below zero
+     */
+    public boolean adjustQuantity(Product product, int delta) {
+        if (delta == 0) {
+            return true;
+        }
+        if (product.tryAdjustQuantity(delta) == Product.ADJUSTMENT_REFUSED) {
+            return false;
+        }
+        stockRevision.increment();
+        CategoryRollups rollups = categoryRollups;
+        if (rollups != null) {
+            rollups.adjusted(product);
+        }
+        if (changes.hasSubscribers()) {
+            publishStockChange(product);
+        }
+        requestSave();
+        return true;
+    }
+    
+    private void publishStockChange(Product product) {
+        synchronized (changes) {
+            // Snapshots are only swapped under this monitor, so the field is current here
+            int index = inventory.positionOf(product);
+            if (index >= 0) {
+                changes.submit(InventoryChange.updated(product, index, inventory.getVersion()));
+            }
+        }
+    }
+    
+    /**
+     * Removes sold units from stock, refusing to sell more than is available,
+     * and records the sale in the sales ledger
+     * 
+     * @param productName The product name (matched ignoring case)
+     * @param quantity    The number of units sold, must be positive
+     * @return true if the sale was recorded
+     */
+    public boolean sell(String productName, int quantity) {
+        if (quantity <= 0 || !adjustQuantity(productName, -quantity)) {
+            return false;
+        }
+        if (salesLedger != null) {
+            salesLedger.record(productName, quantity);
+        }
+        return true;
+    }
+    
+    /**
+     * @return The ledger of sales made through {@link #sell}, or null without an inventory file
+     */
+    public SalesLedger getSalesLedger() {
+        return salesLedger;
+    }
+    
+    /**
+     * Adds received units to stock
+     * 
+     * @param productName The product name (matched ignoring case)
+     * @param quantity    The number of units received, must be positive
+     * @return true if the stock was updated
+     */
+    public boolean restock(String productName, int quantity) {
+        return quantity > 0 && adjustQuantity(productName, quantity);
     }
 
     /**
@@ -360,7 +1029,7 @@ public class StoreService implements ProductManager {
      */
     @Override
     public int getTotalQuantity() {
-        return inventory.stream()
+        return readSnapshot().stream()
                 .mapToInt(Product::getQuantity)
                 .sum();
     }
@@ -370,7 +1039,14 @@ public class StoreService implements ProductManager {
      */
     @Override
     public BigDecimal getTotalGrossPrice() {
-        return inventory.stream()
+        InventorySnapshot snapshot = readSnapshot();
+        ValuationColumns columns = currentValuationColumns(snapshot);
+        if (columns != null) {
+            return ValuationColumns.toMoney(valuationKernel.grossCents(columns));
+        }
+        
+        // Fall back to BigDecimal arithmetic for values the kernels cannot represent
+        return snapshot.stream()
                 .map(product -> product.getPrice().multiply(BigDecimal.valueOf(product.getQuantity())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add)
                 .setScale(2, RoundingMode.HALF_UP);
@@ -381,7 +1057,14 @@ public class StoreService implements ProductManager {
      */
     @Override
     public BigDecimal getTotalPriceWithPerishableDiscount() {
-        return inventory.stream()
+        InventorySnapshot snapshot = readSnapshot();
+        ValuationColumns columns = currentValuationColumns(snapshot);
+        if (columns != null) {
+            return ValuationColumns.toMoney(valuationKernel.valueCents(columns));
+        }
+        
+        // Fall back to BigDecimal arithmetic for values the kernels cannot represent
+        return snapshot.stream()
                 .map(Product::getTotalValue)
                 .reduce(BigDecimal.ZERO, BigDecimal::add)
                 .setScale(2, RoundingMode.HALF_UP);
@@ -397,10 +1080,262 @@ public class StoreService implements ProductManager {
                 .setScale(2, RoundingMode.HALF_UP);
     }
 
+    /**
+     * Returns the valuation columns for the current inventory, rebuilding them
+     * if the snapshot changed or the date rolled over since they were built.
+     * Products must be modified through this service for the cache to stay valid.
+     * 
+     * @param snapshot The snapshot being valued
+     * @return The columns, or null if the inventory cannot be valued with the kernels
+     */
+    private ValuationColumns currentValuationColumns(InventorySnapshot snapshot) {
+        LocalDate today = LocalDate.now();
+        // Read the revision before the quantities so a concurrent adjustment
+        // can only make the cache look stale, never fresh
+        long revision = stockRevision.sum();
+        ValuationCache cache = valuationCache;
+        if (cache != null && cache.snapshot == snapshot && cache.stockRevision == revision
+                && cache.valuationDate.equals(today)) {
+            return cache.columns;
+        }
+        ValuationColumns columns = ValuationColumns.from(snapshot, today);
+        valuationCache = new ValuationCache(snapshot, revision, today, columns);
+        return columns;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * The totals are kept up to date as products are added, removed and sold, so
+     * this costs O(depth of the category) once the tree was built by the first call.
+     */
+    @Override
+    public CategoryRollup getCategoryRollup(String category) {
+        CategoryRollups rollups = categoryRollups;
+        if (rollups == null) {
+            synchronized (changes) {
+                rollups = categoryRollups;
+                if (rollups == null) {
+                    rollups = new CategoryRollups();
+                    rollups.rebuild(inventory);
+                    categoryRollups = rollups;
+                    // Stock changes made while building did not see the rollups yet
+                    rollups.syncAll();
+                }
+            }
+        }
+        return rollups.get(category);
+    }
+    
+    /**
+     * {@inheritDoc}
+     * Sorted orders are served from an index built once per inventory version
+     * (and, for stock-dependent orders, per stock revision and day).
+     */
+    @Override
+    public InventoryPage getPage(int offset, int limit, ProductSort sort, boolean ascending) {
+        // Read the revision first, so a concurrent stock change can only make the index look stale
+        long revision = sort.isStockDependent() ? stockRevision.sum() : 0;
+        InventorySnapshot snapshot = readSnapshot();
+        List<Product> ordered = snapshot;
+        if (sort != ProductSort.INVENTORY_ORDER) {
+            LocalDate today = sort.isStockDependent() ? LocalDate.now() : null;
+            SortIndex index = sortIndexes.get(sort);
+            if (index == null || index.snapshot != snapshot || index.stockRevision != revision
+                    || !Objects.equals(index.date, today)) {
+                index = new SortIndex(snapshot, revision, today, Arrays.asList(sort.sort(snapshot)));
+                sortIndexes.put(sort, index);
+            }
+            ordered = index.products;
+        }
+        return InventoryPage.of(ordered, offset, limit, ascending, snapshot.getVersion());
+    }
+    
+    private static final class SortIndex {
+        private final InventorySnapshot snapshot;
+        private final long stockRevision;
+        private final LocalDate date;
+        private final List<Product> products;
+
+        private SortIndex(InventorySnapshot snapshot, long stockRevision, LocalDate date, List<Product> products) {
+            this.snapshot = snapshot;
+            this.stockRevision = stockRevision;
+            this.date = date;
+            this.products = products;
+        }
+    }
+    
+    /**
+     * Columns cached together with the snapshot they were built from,
+     * published as a single object so concurrent readers never mix them up
+     */
+    private static final class ValuationCache {
+        private final InventorySnapshot snapshot;
+        private final long stockRevision;
+        private final LocalDate valuationDate;
+        private final ValuationColumns columns;
+
+        private ValuationCache(InventorySnapshot snapshot, long stockRevision, LocalDate valuationDate,
+                ValuationColumns columns) {
+            this.snapshot = snapshot;
+            this.stockRevision = stockRevision;
+            this.valuationDate = valuationDate;
+            this.columns = columns;
+        }
+    }
+    
+    /**
+     * Atomically replaces the whole inventory with a new snapshot
+     * @param products The products of the new inventory version
+     */
+    private void publish(List<Product> products) {
+        long stamp = lock.writeLock();
+        try {
+            resetInventory(products);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replaces the inventory without describing individual changes.
+     * Called with the write lock held.
+     */
+    private void resetInventory(List<Product> products) {
+        synchronized (changes) {
+            inventory = inventory.replaceAll(products);
+            if (categoryRollups != null) {
+                categoryRollups.rebuild(products);
+            }
+            if (changes.hasSubscribers()) {
+                changes.submit(InventoryChange.reset(inventory.getVersion()));
+            }
+        }
+    }
+    
+    /**
+     * @return Publisher of fine-grained changes to the inventory list, see {@link InventoryChange}
+     */
+    public InventoryChangePublisher changes() {
+        return changes;
+    }
+    
     /**
      * Reloads inventory data from disk after template refreshes
      */
     public void loadInventory() {
+        persistLock.lock();
+        try {
+            try (InventoryFileCoordinator.Lease lease = lockInventoryFile()) {
+                // Saves made while loading (repairs, restored backups) start from the file as it is
+                syncedSequence = lease != null ? lease.getSequence() : 0;
+                syncedState = null;
+                readInventoryFile();
+                if (lease != null) {
+                    replayJournal(lease);
+                    syncedSequence = lease.getSequence();
+                    syncedState = toNodes(readSnapshot());
+                }
+            } catch (IOException e) {
+                System.err.println("Error locking inventory file: " + e.getMessage());
+                readInventoryFile();
+            }
+        } finally {
+            persistLock.unlock();
+        }
+    }
+    
+    /**
+     * Merges changes that other processes saved to the inventory file since this
+     * service last loaded or saved it. Local changes are kept; see {@link InventoryMerger}.
+     * 
+     * @return true if the file had changed and was merged into the inventory
+     */
+    public boolean refreshFromDisk() {
+        if (fileCoordinator == null) {
+            return false;
+        }
+        persistLock.lock();
+        try {
+            try (InventoryFileCoordinator.Lease lease = fileCoordinator.lock()) {
+                long sequence = lease.getSequence();
+                if (sequence == syncedSequence) {
+                    return false;
+                }
+                List<ObjectNode> remote = mergeFromFile();
+                syncedSequence = sequence;
+                syncedState = remote;
+                return true;
+            } catch (IOException e) {
+                System.err.println("Error refreshing inventory from file: " + e.getMessage());
+                return false;
+            }
+        } finally {
+            persistLock.unlock();
+        }
+    }
+    
+    /**
+     * Three-way merges the inventory file into the in-memory inventory.
+     * Called with the persist lock and the file lease held.
+     * 
+     * @return The file contents that were merged
+     */
+    private List<ObjectNode> mergeFromFile() throws IOException {
+        JsonNode rootNode = objectMapper.readTree(inventoryFile);
+        List<ObjectNode> remote = new ArrayList<>();
+        if (rootNode != null && rootNode.isArray()) {
+            for (JsonNode productNode : rootNode) {
+                if (productNode.isObject()) {
+                    remote.add((ObjectNode) productNode);
+                }
+            }
+        }
+        
+        long stamp = lock.writeLock();
+        try {
+            // Unchanged local products keep their identity, so references held elsewhere stay valid
+            Map<JsonNode, Product> localProducts = new IdentityHashMap<>();
+            List<ObjectNode> local = new ArrayList<>(inventory.size());
+            for (Product product : inventory) {
+                ObjectNode node = ProductJson.toNode(product);
+                localProducts.put(node, product);
+                local.add(node);
+            }
+            
+            List<Product> merged = new ArrayList<>();
+            for (JsonNode node : InventoryMerger.merge(syncedState, local, remote)) {
+                Product product = localProducts.get(node);
+                if (product == null) {
+                    try {
+                        product = ProductJson.fromNode(node);
+                    } catch (Exception e) {
+                        System.err.println("Error processing merged product: " + e.getMessage());
+                        continue;
+                    }
+                }
+                merged.add(product);
+            }
+            resetInventory(merged);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        System.out.println("Merged inventory changes saved by another process from " + inventoryFile.getPath());
+        return remote;
+    }
+    
+    private InventoryFileCoordinator.Lease lockInventoryFile() throws IOException {
+        return fileCoordinator != null ? fileCoordinator.lock() : null;
+    }
+    
+    private static List<ObjectNode> toNodes(List<Product> products) {
+        List<ObjectNode> nodes = new ArrayList<>(products.size());
+        for (Product product : products) {
+            nodes.add(ProductJson.toNode(product));
+        }
+        return nodes;
+    }
+    
+    private void readInventoryFile() {
         if (inventoryFile != null && inventoryFile.exists()) {
             try {
                 // First try to fix any format issues in the inventory file
@@ -410,37 +1345,25 @@ public class StoreService implements ProductManager {
                 JsonNode rootNode = objectMapper.readTree(inventoryFile);
                 
                 if (rootNode.isArray()) {
-                    inventory.clear();
+                    List<Product> loaded = new ArrayList<>();
                     
                     for (JsonNode productNode : rootNode) {
                         Product product;
                         
                         try {
-                            // Safely get required values with null checks
-                            String type = productNode.has("type") ? productNode.get("type").asText("non-perishable") : "non-perishable";
-                            String name = productNode.has("name") ? productNode.get("name").asText("Unnamed Product") : "Unnamed Product";
-                            double price = productNode.has("price") ? productNode.get("price").asDouble(0.0) : 0.0;
-                            int quantity = productNode.has("quantity") ? productNode.get("quantity").asInt(0) : 0;
-                            double discount = productNode.has("discount") ? productNode.get("discount").asDouble(0.0) : 0.0;
-                            
-                            // Determine which product type to instantiate
-                            if ("perishable".equals(type) && productNode.has("expirationDate")) {
-                                String expirationDate = productNode.get("expirationDate").asText("2025-12-31");
-                                product = new PerishableProduct(name, price, quantity, expirationDate, discount);
-                            } else {
-                                product = new Product(name, price, quantity, discount);
-                            }
-                            
-                            inventory.add(product);
+                            // Missing values get defaults, see ProductJson
+                            product = ProductJson.fromNode(productNode);
+                            loaded.add(product);
                         } catch (Exception e) {
                             System.err.println("Error processing product: " + e.getMessage());
                             // Create a default product if there's an error with one item
                             product = new Product("Error Product", 0.0, 0, 0.0);
-                            inventory.add(product);
+                            loaded.add(product);
                         }
                     }
+                    publish(loaded);
                     
-                    System.out.println("Inventory loaded successfully with " + inventory.size() + 
+                    System.out.println("Inventory loaded successfully with " + readSnapshot().size() + 
                         " products from " + inventoryFile.getPath());
                 } else {
                     System.err.println("Invalid inventory format: root element is not an array");
@@ -453,7 +1376,7 @@ public class StoreService implements ProductManager {
             }
         } else {
             System.out.println("No valid inventory file. Starting with empty inventory.");
-            inventory = new ArrayList<>();
+            publish(List.of());
             saveInventory();
         }
     }
@@ -536,36 +1459,21 @@ public class StoreService implements ProductManager {
                 JsonNode rootNode = objectMapper.readTree(backupPath.toFile());
                 
                 if (rootNode.isArray()) {
-                    inventory.clear();
+                    List<Product> restored = new ArrayList<>();
                     
                     for (JsonNode productNode : rootNode) {
                         try {
-                            Product product;
-                            
-                            // Safely get required values with null checks
-                            String type = productNode.has("type") ? productNode.get("type").asText("non-perishable") : "non-perishable";
-                            String name = productNode.has("name") ? productNode.get("name").asText("Unnamed Product") : "Unnamed Product";
-                            double price = productNode.has("price") ? productNode.get("price").asDouble(0.0) : 0.0;
-                            int quantity = productNode.has("quantity") ? productNode.get("quantity").asInt(0) : 0;
-                            double discount = productNode.has("discount") ? productNode.get("discount").asDouble(0.0) : 0.0;
-                            
-                            if ("perishable".equals(type) && productNode.has("expirationDate")) {
-                                String expirationDate = productNode.get("expirationDate").asText("2025-12-31");
-                                product = new PerishableProduct(name, price, quantity, expirationDate, discount);
-                            } else {
-                                product = new Product(name, price, quantity, discount);
-                            }
-                            
-                            inventory.add(product);
+                            restored.add(ProductJson.fromNode(productNode));
                         } catch (Exception e) {
                             System.err.println("Error processing backup product: " + e.getMessage());
                             // Create a default product if there's an error with one item
                             Product product = new Product("Backup Error Product", 0.0, 0, 0.0);
-                            inventory.add(product);
+                            restored.add(product);
                         }
                     }
+                    publish(restored);
                     
-                    System.out.println("Successfully restored " + inventory.size() + " products from backup file");
+                    System.out.println("Successfully restored " + readSnapshot().size() + " products from backup file");
                     
                     // Save the restored data back to the main file
                     saveInventory();
@@ -584,9 +1492,80 @@ public class StoreService implements ProductManager {
     }
 
     /**
-     * Saves the current inventory to the user-specific inventory file.
+     * Schedules a background save. Requests made while one is pending are
+     * merged into it, so a burst of stock adjustments costs a single write.
+     */
+    private void requestSave() {
+        if (saveRequested.compareAndSet(false, true)) {
+            persistExecutor.execute(() -> {
+                // Clear the flag first so changes made during the write trigger another save
+                saveRequested.set(false);
+                saveInventory();
+            });
+        }
+    }
+    
+    /**
+     * Waits for background saves that were already requested
+     */
+    private void awaitPendingSave() {
+        try {
+            // The executor runs tasks in order, so an empty task completes after them
+            persistExecutor.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            System.err.println("Error waiting for background save: " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Saves the current inventory to the user-specific inventory file,
+     * first merging in any changes another process saved in the meantime.
      */
     private void saveInventory() {
+        persistLock.lock();
+        try {
+            try (InventoryFileCoordinator.Lease lease = lockInventoryFile()) {
+                if (lease != null && lease.getSequence() != syncedSequence && inventoryFile.exists()) {
+                    mergeFromFile();
+                }
+                writeAndAdvanceSequence(lease);
+            } catch (IOException e) {
+                // Without a lock (e.g. file systems that do not support it) fall back to a plain write
+                System.err.println("Error coordinating inventory file access: " + e.getMessage());
+                writeInventoryFile(readSnapshot());
+            }
+        } finally {
+            persistLock.unlock();
+        }
+    }
+    
+    /**
+     * Writes the latest snapshot and records the new change sequence.
+     * Called with the persist lock and the file lease (if any) held.
+     * 
+     * @return true if the file was written and its change sequence advanced
+     */
+    private boolean writeAndAdvanceSequence(InventoryFileCoordinator.Lease lease) {
+        // Always write the latest version, even if it was published by another writer
+        List<ObjectNode> written = writeInventoryFile(readSnapshot());
+        if (lease != null && written != null) {
+            try {
+                syncedSequence = lease.advanceSequence();
+                syncedState = written;
+                return true;
+            } catch (IOException e) {
+                System.err.println("Error updating inventory change sequence: " + e.getMessage());
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * @return The products written, or null if nothing was written
+     */
+    private List<ObjectNode> writeInventoryFile(InventorySnapshot inventory) {
         if (inventoryFile != null) {
             try {
                 // First check if inventory is empty but file exists with content
@@ -608,30 +1587,12 @@ public class StoreService implements ProductManager {
                 // Only save if we actually have data
                 if (!inventory.isEmpty()) {
                     // Create JSON array node manually
-                    ObjectNode[] productNodes = new ObjectNode[inventory.size()];
-                    for (int i = 0; i < inventory.size(); i++) {
-                        Product product = inventory.get(i);
-                        ObjectNode node = objectMapper.createObjectNode();
-                        
-                        // Common properties
-                        if (product instanceof PerishableProduct) {
-                            node.put("type", "perishable");
-                            node.put("expirationDate", ((PerishableProduct) product).getExpirationDate().toString());
-                        } else {
-                            node.put("type", "non-perishable");
-                        }
-                        
-                        node.put("name", product.getName());
-                        node.put("price", product.getPrice().doubleValue());
-                        node.put("quantity", product.getQuantity());
-                        node.put("discount", product.getDiscount().doubleValue());
-                        
-                        productNodes[i] = node;
-                    }
+                    List<ObjectNode> productNodes = toNodes(inventory);
                     
                     // Write directly to file
                     objectMapper.writerWithDefaultPrettyPrinter().writeValue(inventoryFile, productNodes);
                     System.out.println("Inventory saved with " + inventory.size() + " products to " + inventoryFile.getPath());
+                    return productNodes;
                 } else {
                     System.out.println("Skipping save since inventory is empty!");
                 }
@@ -642,6 +1603,7 @@ public class StoreService implements ProductManager {
         } else {
             System.err.println("Cannot save inventory: No valid inventory file path.");
         }
+        return null;
     }
 
     /**
@@ -649,9 +1611,16 @@ public class StoreService implements ProductManager {
      * before application exit
      */
     public void saveAndCloseInventory() {
+        if (salesLedger != null) {
+            try {
+                salesLedger.close();
+            } catch (IOException e) {
+                System.err.println("Error closing sales ledger: " + e.getMessage());
+            }
+        }
         try {
             // Check if inventory is empty before saving
-            if (inventory.isEmpty()) {
+            if (readSnapshot().isEmpty()) {
                 System.out.println("WARNING: Inventory is empty! Checking if this is correct...");
                 
                 // Double-check by trying to load from file directly
@@ -670,6 +1639,9 @@ public class StoreService implements ProductManager {
                 }
             }
             
+            // Let a pending background save finish so nothing is written after this
+            awaitPendingSave();
+            
             // Final save to ensure latest changes are persisted
             saveInventory();
             
@@ -0,0 +1,126 @@
+package com.store.service;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Column-oriented (structure of arrays) view of the inventory used by the
+ * valuation kernels. Every monetary value is stored as a whole number of cents
+ * so totals can be computed with primitive long arithmetic instead of BigDecimal.
+ *
+ * The columns are a point-in-time copy: the expiration tiers are evaluated for
+ * the date passed to {@link #from(List, LocalDate)}.
+ */
+public final class ValuationColumns {
+    private final long[] priceCents;
+    private final long[] quantities;
+    private final long[] keepPercent;
+    private final long[] tierTenths;
+    private final int size;
+    private final LocalDate valuationDate;
+    private long unscaledTotal;
+
+    private ValuationColumns(int size, LocalDate valuationDate) {
+        this.priceCents = new long[size];
+        this.quantities = new long[size];
+        this.keepPercent = new long[size];
+        this.tierTenths = new long[size];
+        this.size = size;
+        this.valuationDate = valuationDate;
+    }
+
+    /**
+     * Builds the columns for the given products.
+     *
+     * @param products The products to convert
+     * @param today    The date used to evaluate perishable expiration tiers
+     * @return The columns, or null if a product cannot be represented exactly
+     *         (negative values, discount outside 0-100% or totals that would overflow)
+     */
+    public static ValuationColumns from(List<Product> products, LocalDate today) {
+        ValuationColumns columns = new ValuationColumns(products.size(), today);
+        long unscaledTotal = 0;
+
+        try {
+            for (int i = 0; i < columns.size; i++) {
+                Product product = products.get(i);
+                if (product.getPrice() == null || product.getDiscount() == null) {
+                    return null;
+                }
+
+                long price = product.getPrice().movePointRight(2).longValueExact();
+                long quantity = product.getQuantity();
+                long discount = product.getDiscount().movePointRight(2).longValueExact();
+                if (price < 0 || quantity < 0 || discount < 0 || discount > 100) {
+                    return null;
+                }
+
+                columns.priceCents[i] = price;
+                columns.quantities[i] = quantity;
+                columns.keepPercent[i] = 100 - discount;
+                columns.tierTenths[i] = (product instanceof PerishableProduct)
+                        ? ((PerishableProduct) product).getExpiryMultiplierTenths(today)
+                        : 10;
+
+                // price * quantity * 100 bounds every intermediate value the kernels compute
+                unscaledTotal = Math.addExact(unscaledTotal,
+                        Math.multiplyExact(Math.multiplyExact(price, quantity), 100L));
+            }
+        } catch (ArithmeticException e) {
+            return null;
+        }
+        columns.unscaledTotal = unscaledTotal;
+        return columns;
+    }
+
+    /**
+     * Converts a cent amount back to the two-decimal BigDecimal used everywhere else
+     */
+    public static BigDecimal toMoney(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    long[] priceCents() {
+        return priceCents;
+    }
+
+    long[] quantities() {
+        return quantities;
+    }
+
+    long[] keepPercent() {
+        return keepPercent;
+    }
+
+    long[] tierTenths() {
+        return tierTenths;
+    }
+
+    /**
+     * Every intermediate value is bounded by the sum of price × quantity × 100,
+     * so below 2^46 the rounding divisions can be done exactly in double precision.
+     * 
+     * @return true if the kernels may use floating point lanes for division
+     */
+    boolean isExactInDouble() {
+        return unscaledTotal < (1L << 46);
+    }
+
+    /**
+     * @return The number of products in the columns
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The date the expiration tiers were evaluated for
+     */
+    public LocalDate getValuationDate() {
+        return valuationDate;
+    }
+}
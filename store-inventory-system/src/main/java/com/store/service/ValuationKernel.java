@@ -0,0 +1,25 @@
+package com.store.service;
+
+/**
+ * Aggregation kernel computing inventory totals over {@link ValuationColumns}.
+ * Implementations must produce exactly the same results as summing
+ * {@code Product.getTotalValue()} with BigDecimal arithmetic.
+ */
+public interface ValuationKernel {
+    /**
+     * @param columns The inventory columns
+     * @return The sum of price × quantity, in cents
+     */
+    long grossCents(ValuationColumns columns);
+
+    /**
+     * @param columns The inventory columns
+     * @return The sum of all product values with regular and perishable discounts, in cents
+     */
+    long valueCents(ValuationColumns columns);
+
+    /**
+     * @return A short name identifying the implementation
+     */
+    String name();
+}
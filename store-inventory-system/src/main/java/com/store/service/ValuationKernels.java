@@ -0,0 +1,65 @@
+package com.store.service;
+
+/**
+ * Selects the valuation kernel at runtime.
+ * The SIMD kernel is used when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}; otherwise the scalar loop is used.
+ * The choice can be forced with {@code -Dinventory.valuation.kernel=scalar|vector}.
+ */
+public final class ValuationKernels {
+    private static final String KERNEL_PROPERTY = "inventory.valuation.kernel";
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL_CLASS = "com.store.service.VectorValuationKernel";
+
+    private static final ValuationKernel SCALAR = new ScalarValuationKernel();
+    private static final ValuationKernel PREFERRED = selectKernel();
+
+    private ValuationKernels() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @return The kernel selected for this JVM
+     */
+    public static ValuationKernel preferred() {
+        return PREFERRED;
+    }
+
+    /**
+     * @return The portable scalar kernel
+     */
+    public static ValuationKernel scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * @return The SIMD kernel, or null if the Vector API module is not available
+     */
+    public static ValuationKernel vector() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            // Loaded reflectively so this class never links against the incubator module
+            return (ValuationKernel) Class.forName(VECTOR_KERNEL_CLASS)
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("Vector valuation kernel unavailable: " + e);
+            return null;
+        }
+    }
+
+    private static ValuationKernel selectKernel() {
+        String requested = System.getProperty(KERNEL_PROPERTY, "auto");
+        if ("scalar".equalsIgnoreCase(requested)) {
+            return SCALAR;
+        }
+
+        ValuationKernel vector = vector();
+        if (vector == null && "vector".equalsIgnoreCase(requested)) {
+            System.err.println("Vector valuation kernel requested but not available, using scalar kernel");
+        }
+        return vector != null ? vector : SCALAR;
+    }
+}
@@ -0,0 +1,96 @@
+package com.store.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation of {@link ValuationKernel} built on the incubating Vector API.
+ * This class must only be loaded through {@link ValuationKernels}, which checks
+ * that the jdk.incubator.vector module is present before instantiating it.
+ */
+public final class VectorValuationKernel implements ValuationKernel {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long grossCents(ValuationColumns columns) {
+        long[] price = columns.priceCents();
+        long[] quantity = columns.quantities();
+        int size = columns.size();
+        int upperBound = SPECIES.loopBound(size);
+
+        LongVector acc = LongVector.zero(SPECIES);
+        int i = 0;
+        for (; i < upperBound; i += SPECIES.length()) {
+            LongVector p = LongVector.fromArray(SPECIES, price, i);
+            LongVector q = LongVector.fromArray(SPECIES, quantity, i);
+            acc = acc.add(p.mul(q));
+        }
+
+        long sum = acc.reduceLanes(VectorOperators.ADD);
+        // Scalar tail for the remaining elements
+        for (; i < size; i++) {
+            sum += price[i] * quantity[i];
+        }
+        return sum;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long valueCents(ValuationColumns columns) {
+        long[] price = columns.priceCents();
+        long[] quantity = columns.quantities();
+        long[] keep = columns.keepPercent();
+        long[] tier = columns.tierTenths();
+        int size = columns.size();
+        int upperBound = SPECIES.loopBound(size);
+        boolean exactInDouble = columns.isExactInDouble();
+
+        LongVector acc = LongVector.zero(SPECIES);
+        int i = 0;
+        for (; i < upperBound; i += SPECIES.length()) {
+            LongVector p = LongVector.fromArray(SPECIES, price, i);
+            LongVector q = LongVector.fromArray(SPECIES, quantity, i);
+            LongVector k = LongVector.fromArray(SPECIES, keep, i);
+            LongVector t = LongVector.fromArray(SPECIES, tier, i);
+
+            LongVector base = divide(p.mul(q).mul(k).add(50), 100, exactInDouble);
+            acc = acc.add(divide(base.mul(t).add(5), 10, exactInDouble));
+        }
+
+        long sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < size; i++) {
+            long base = (price[i] * quantity[i] * keep[i] + 50) / 100;
+            sum += (base * tier[i] + 5) / 10;
+        }
+        return sum;
+    }
+
+    /**
+     * Divides non-negative lanes by a constant, truncating the result.
+     * Integer lane division has no SIMD instruction on common hardware, so when the
+     * values are small enough for the quotient to be exact the division is done
+     * on double lanes and truncated back to longs.
+     */
+    private static LongVector divide(LongVector dividend, long divisor, boolean exactInDouble) {
+        if (!exactInDouble) {
+            return dividend.div(divisor);
+        }
+        DoubleVector quotient = ((DoubleVector) dividend.convert(VectorOperators.L2D, 0)).div(divisor);
+        return (LongVector) quotient.convert(VectorOperators.D2L, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String name() {
+        return "vector(" + SPECIES.length() + "x64)";
+    }
+}
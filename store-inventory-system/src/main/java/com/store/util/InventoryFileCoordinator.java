@@ -0,0 +1,165 @@
+package com.store.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coordinates access to an inventory file between processes.
+ *
+ * A sidecar file ("inventory.json.lock") is locked with a FileChannel lock while
+ * the inventory file is read or rewritten. Its first 8 bytes hold the change
+ * sequence: a counter incremented by every process that writes the inventory.
+ * A process remembers the sequence of the state it last loaded or saved; if the
+ * header moved on since, another process changed the file and the in-memory
+ * state is stale.
+ *
+ * FileChannel locks are held on behalf of the whole JVM, so threads (and
+ * separate StoreService instances) of one process are serialized with an
+ * in-process lock per file first. Leases are reentrant for the owning thread,
+ * also across coordinator instances for the same file: the in-process lock, the
+ * open lock file and its FileChannel lock are shared per file.
+ */
+public final class InventoryFileCoordinator {
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final ConcurrentHashMap<Path, LockedFile> LOCKED_FILES = new ConcurrentHashMap<>();
+
+    private final Path lockFile;
+    private final LockedFile lockedFile;
+    private final ReentrantLock processLock;
+
+    /**
+     * @param inventoryFile The inventory file to coordinate access to
+     */
+    public InventoryFileCoordinator(Path inventoryFile) {
+        Path absolute = inventoryFile.toAbsolutePath().normalize();
+        this.lockFile = absolute.resolveSibling(absolute.getFileName() + LOCK_SUFFIX);
+        this.lockedFile = LOCKED_FILES.computeIfAbsent(lockFile, path -> new LockedFile());
+        this.processLock = lockedFile.processLock;
+    }
+
+    /**
+     * Locks the inventory file against other threads and processes.
+     * Must be closed in a finally block or try-with-resources.
+     *
+     * @return The lease, giving access to the change sequence
+     * @throws IOException if the lock file cannot be opened or locked
+     */
+    public Lease lock() throws IOException {
+        processLock.lock();
+        try {
+            if (processLock.getHoldCount() == 1) {
+                Path parent = lockFile.getParent();
+                if (parent != null && !Files.exists(parent)) {
+                    Files.createDirectories(parent);
+                }
+                lockedFile.channel = FileChannel.open(lockFile,
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                lockedFile.fileLock = lockedFile.channel.lock();
+            }
+            return new Lease();
+        } catch (IOException | RuntimeException e) {
+            releaseFileLock();
+            processLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the current change sequence
+     * @return The sequence, 0 if no process has written the inventory yet
+     * @throws IOException if the lock file cannot be read
+     */
+    public long readSequence() throws IOException {
+        try (Lease lease = lock()) {
+            return lease.getSequence();
+        }
+    }
+
+    private void releaseFileLock() throws IOException {
+        if (processLock.getHoldCount() != 1) {
+            return;
+        }
+        try {
+            if (lockedFile.fileLock != null) {
+                lockedFile.fileLock.release();
+            }
+        } finally {
+            lockedFile.fileLock = null;
+            if (lockedFile.channel != null) {
+                lockedFile.channel.close();
+                lockedFile.channel = null;
+            }
+        }
+    }
+
+    /**
+     * The in-process lock of one lock file, and the channel and FileChannel lock
+     * held while the outermost lease of any coordinator for that file is open
+     */
+    private static final class LockedFile {
+        private final ReentrantLock processLock = new ReentrantLock();
+
+        // Only accessed by the thread holding processLock
+        private FileChannel channel;
+        private FileLock fileLock;
+    }
+
+    /**
+     * Exclusive access to the inventory file and its change sequence
+     */
+    public final class Lease implements Closeable {
+        private boolean closed;
+
+        private Lease() {
+        }
+
+        /**
+         * @return The change sequence stored in the lock file
+         * @throws IOException if the header cannot be read
+         */
+        public long getSequence() throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(Long.BYTES);
+            while (header.hasRemaining()) {
+                if (lockedFile.channel.read(header, header.position()) < 0) {
+                    return 0; // New or truncated lock file
+                }
+            }
+            return header.flip().getLong();
+        }
+
+        /**
+         * Records that the inventory file was rewritten
+         * @return The new change sequence
+         * @throws IOException if the header cannot be written
+         */
+        public long advanceSequence() throws IOException {
+            long next = getSequence() + 1;
+            ByteBuffer header = ByteBuffer.allocate(Long.BYTES).putLong(next).flip();
+            while (header.hasRemaining()) {
+                lockedFile.channel.write(header, header.position());
+            }
+            return next;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                releaseFileLock();
+            } finally {
+                processLock.unlock();
+            }
+        }
+    }
+}
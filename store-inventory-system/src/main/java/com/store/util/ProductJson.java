@@ -0,0 +1,101 @@
+package com.store.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+import java.io.IOException;
+
+/**
+ * Converts products to and from the JSON objects stored in inventory.json.
+ * Keeps the on-disk format in one place for saving, merging, import and export.
+ */
+public final class ProductJson {
+
+    private ProductJson() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Creates the JSON object for a product
+     * @param product The product to convert
+     * @return A new object node in the inventory file format
+     */
+    public static ObjectNode toNode(Product product) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+
+        // Common properties
+        if (product instanceof PerishableProduct) {
+            node.put("type", "perishable");
+            node.put("expirationDate", ((PerishableProduct) product).getExpirationDate().toString());
+        } else {
+            node.put("type", "non-perishable");
+        }
+
+        node.put("name", product.getName());
+        node.put("price", product.getPrice().doubleValue());
+        node.put("quantity", product.getQuantity());
+        node.put("discount", product.getDiscount().doubleValue());
+        if (product.getCategory() != null) {
+            node.put("category", product.getCategory());
+        }
+        return node;
+    }
+
+    /**
+     * Streams a product in the same format as {@link #toNode(Product)} without building a tree
+     * @param generator The generator to write the object to
+     * @param product   The product to write
+     * @throws IOException if the generator cannot write
+     */
+    public static void write(JsonGenerator generator, Product product) throws IOException {
+        generator.writeStartObject();
+        if (product instanceof PerishableProduct) {
+            generator.writeStringField("type", "perishable");
+            generator.writeStringField("expirationDate", ((PerishableProduct) product).getExpirationDate().toString());
+        } else {
+            generator.writeStringField("type", "non-perishable");
+        }
+        generator.writeStringField("name", product.getName());
+        generator.writeNumberField("price", product.getPrice().doubleValue());
+        generator.writeNumberField("quantity", product.getQuantity());
+        generator.writeNumberField("discount", product.getDiscount().doubleValue());
+        if (product.getCategory() != null) {
+            generator.writeStringField("category", product.getCategory());
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Creates a product from a JSON object, using the same defaults as loading
+     * the inventory file for missing properties
+     *
+     * @param productNode The JSON object
+     * @return The product
+     * @throws RuntimeException if a value cannot be parsed (e.g. an invalid date)
+     */
+    public static Product fromNode(JsonNode productNode) {
+        // Safely get required values with null checks
+        String type = productNode.has("type") ? productNode.get("type").asText("non-perishable") : "non-perishable";
+        String name = productNode.has("name") ? productNode.get("name").asText("Unnamed Product") : "Unnamed Product";
+        double price = productNode.has("price") ? productNode.get("price").asDouble(0.0) : 0.0;
+        int quantity = productNode.has("quantity") ? productNode.get("quantity").asInt(0) : 0;
+        double discount = productNode.has("discount") ? productNode.get("discount").asDouble(0.0) : 0.0;
+
+        // Determine which product type to instantiate
+        Product product;
+        if ("perishable".equals(type) && productNode.has("expirationDate")) {
+            String expirationDate = productNode.get("expirationDate").asText("2025-12-31");
+            product = new PerishableProduct(name, price, quantity, expirationDate, discount);
+        } else {
+            product = new Product(name, price, quantity, discount);
+        }
+        if (productNode.path("category").isTextual()) {
+            product.setCategory(productNode.get("category").asText());
+        }
+        return product;
+    }
+}
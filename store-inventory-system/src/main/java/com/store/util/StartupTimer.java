@@ -0,0 +1,45 @@
+package com.store.util;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Logs startup milestones, such as the first frame of the GUI or the first
+ * console prompt, as the time since the process started.
+ *
+ * Each milestone is logged once per process, so returning to the console after
+ * the GUI does not report a second "first" prompt.
+ */
+public final class StartupTimer {
+    // The operating system's start time of the process, or when this class was loaded if unknown
+    private static final long PROCESS_START_MILLIS = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli)
+            .orElseGet(System::currentTimeMillis);
+
+    private static final Set<String> logged = ConcurrentHashMap.newKeySet();
+
+    private StartupTimer() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @return Milliseconds since the process started
+     */
+    public static long elapsedMillis() {
+        return System.currentTimeMillis() - PROCESS_START_MILLIS;
+    }
+
+    /**
+     * Logs a milestone the first time it is reached
+     * @param milestone What was reached, e.g. "first frame"
+     * @return true if this was the first time
+     */
+    public static boolean mark(String milestone) {
+        if (!logged.add(milestone)) {
+            return false;
+        }
+        System.out.printf("Startup: %s after %d ms%n", milestone, elapsedMillis());
+        return true;
+    }
+}
@@ -0,0 +1,91 @@
+package com.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.PerishableProduct;
+import com.store.service.StoreService;
+
+class BatchModeTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StoreService service;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+    private BatchMode batch;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        batch = new BatchMode(service, new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.saveAndCloseInventory();
+    }
+
+    private boolean run(String script) throws IOException {
+        return batch.run(new BufferedReader(new StringReader(script)));
+    }
+
+    @Test
+    void runsCommandsInOrderAndPrintsResults() throws IOException {
+        boolean succeeded = run(String.join("\n",
+                "# stock the shelves",
+                "add \"Apple Pie\" 7.50 4 10 - bakery/pies",
+                "add Milk 2.00 10 0 2030-01-31",
+                "adjust milk -3",
+                "query \"apple pie\"",
+                "query Milk",
+                "",
+                "remove \"Apple Pie\"",
+                "summary"));
+
+        assertTrue(succeeded, err.toString(StandardCharsets.UTF_8));
+        assertEquals(String.join(System.lineSeparator(),
+                "product\tApple Pie\t7.50\t4\t0.10\t-\tbakery/pies",
+                "product\tMilk\t2.00\t7\t0.00\t2030-01-31\t-",
+                "summary\t7\t14.00\t14.00\t11.90", ""), out.toString(StandardCharsets.UTF_8));
+        assertEquals(7, batch.getOperationCount());
+        assertEquals(1, service.getInventory().size());
+        assertInstanceOf(PerishableProduct.class, service.getInventory().get(0));
+    }
+
+    @Test
+    void reportsFailuresWithoutStopping() throws IOException {
+        boolean succeeded = run(String.join("\n",
+                "add Bread 2.50 5",
+                "remove Bread",
+                "remove Bread",
+                "adjust Bread 1",
+                "add Jam -1 3",
+                "add \"Jam 3",
+                "sell Jam 1",
+                "add Jam 4.00 3",
+                "query jam"));
+
+        assertFalse(succeeded);
+        assertEquals(5, batch.getFailureCount());
+        String[] errors = err.toString(StandardCharsets.UTF_8).split("\\R");
+        assertEquals(5, errors.length);
+        assertTrue(errors[0].startsWith("line 3: "), errors[0]);
+        assertTrue(errors[4].startsWith("line 7: unknown command"), errors[4]);
+        assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("product\tJam\t4.00\t3\t"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.store.benchmark;
+
+import com.store.model.Product;
+import com.store.server.InventoryDaemon;
+import com.store.server.RemoteProductManager;
+import com.store.service.StoreService;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares what a console or GUI session pays before it can show the inventory:
+ * loading and parsing inventory.json itself, against connecting to a running
+ * daemon and fetching the inventory over its Unix domain socket.
+ *
+ * Run with:
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main DaemonStartupBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaemonStartupBenchmark {
+
+    @Param({"1000", "10000"})
+    private int productCount;
+
+    private Path directory;
+    private Path inventoryPath;
+    private Path socketPath;
+    private StoreService service;
+    private InventoryDaemon daemon;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("daemon-bench");
+        inventoryPath = directory.resolve("inventory.json");
+        socketPath = directory.resolve("inventory.sock");
+        service = new StoreService(inventoryPath);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < productCount; i++) {
+            products.add(new Product("SKU-" + i, 1.00, 100, 0.0));
+        }
+        service.addProducts(products);
+
+        daemon = new InventoryDaemon(service, socketPath);
+        daemon.start();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        daemon.stop();
+        service.saveAndCloseInventory();
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public int loadFromFile() {
+        return new StoreService(inventoryPath).getInventory().size();
+    }
+
+    @Benchmark
+    public int connectToDaemon() throws IOException {
+        try (RemoteProductManager client = RemoteProductManager.connect(socketPath)) {
+            return client.getInventory().size();
+        }
+    }
+
+    @Benchmark
+    public int connectToDaemonAndPing() throws IOException {
+        try (RemoteProductManager client = RemoteProductManager.connect(socketPath)) {
+            return client.ping() ? 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.store.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.store.model.Product;
+import com.store.service.StoreService;
+import com.store.util.InventoryFileCoordinator;
+import com.store.util.ProductJson;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what cross-process coordination adds to a save: taking the file lock
+ * and bumping the change sequence, against the plain JSON write it protects and
+ * a full coordinated save through StoreService.
+ *
+ * Run with:
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main FileCoordinationBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileCoordinationBenchmark {
+
+    @Param({"10", "1000"})
+    private int productCount;
+
+    private Path directory;
+    private Path rawFile;
+    private StoreService service;
+    private InventoryFileCoordinator coordinator;
+    private List<ObjectNode> nodes;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("coordination-bench");
+        rawFile = directory.resolve("raw.json");
+        Path inventoryPath = directory.resolve("inventory.json");
+        service = new StoreService(inventoryPath);
+        coordinator = new InventoryFileCoordinator(inventoryPath);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < productCount; i++) {
+            products.add(new Product("SKU-" + i, 1.00, 100, 0.0));
+        }
+        products.forEach(service::addProduct);
+        nodes = new ArrayList<>();
+        for (Product product : products) {
+            nodes.add(ProductJson.toNode(product));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long lockAndAdvanceSequence() throws IOException {
+        try (InventoryFileCoordinator.Lease lease = coordinator.lock()) {
+            return lease.advanceSequence();
+        }
+    }
+
+    @Benchmark
+    public void uncoordinatedJsonWrite() throws IOException {
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(rawFile.toFile(), nodes);
+    }
+
+    @Benchmark
+    public void coordinatedSave() {
+        service.saveAndCloseInventory();
+    }
+}
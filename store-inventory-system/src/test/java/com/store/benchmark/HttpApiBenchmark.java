@@ -0,0 +1,114 @@
+package com.store.benchmark;
+
+import com.store.model.Product;
+import com.store.server.InventoryHttpServer;
+import com.store.service.StoreService;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test for the embedded HTTP API: 64 concurrent clients querying a
+ * 10,000 product inventory over loopback. The "mixed" group has 8 of the
+ * clients add and remove products, each write saving the inventory file.
+ *
+ * Run with:
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main HttpApiBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class HttpApiBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+
+    private Path directory;
+    private InventoryHttpServer server;
+    private HttpClient client;
+    private HttpRequest summary;
+    private List<HttpRequest> lookups;
+    private String base;
+    private final AtomicInteger written = new AtomicInteger();
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("http-bench");
+        StoreService service = new StoreService(directory.resolve("inventory.json"));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Product("SKU-" + i, 1.00 + i % 100, 10, 0.0));
+        }
+        service.addProducts(products);
+
+        server = new InventoryHttpServer(service, 0);
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        base = "http://localhost:" + server.getPort();
+        summary = HttpRequest.newBuilder(URI.create(base + "/summary")).build();
+        lookups = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            lookups.add(HttpRequest.newBuilder(URI.create(base + "/products/sku-" + i * 7)).build());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.stop();
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public int getSummary() throws Exception {
+        return client.send(summary, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+    }
+
+    @Benchmark
+    public int lookupProduct() throws Exception {
+        HttpRequest request = lookups.get(ThreadLocalRandom.current().nextInt(lookups.size()));
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(56)
+    public int mixedLookup() throws Exception {
+        return lookupProduct();
+    }
+
+    /**
+     * Adds a product and removes it again: two writes, each saving the inventory
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public int mixedAddAndRemove() throws Exception {
+        String name = "new-" + written.incrementAndGet();
+        HttpRequest add = HttpRequest.newBuilder(URI.create(base + "/products"))
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"name\":\"" + name + "\",\"price\":2.5,\"quantity\":1}"))
+                .build();
+        HttpRequest remove = HttpRequest.newBuilder(URI.create(base + "/products/" + name)).DELETE().build();
+        return client.send(add, HttpResponse.BodyHandlers.ofByteArray()).statusCode()
+                + client.send(remove, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+    }
+}
@@ -0,0 +1,101 @@
+package com.store.benchmark;
+
+import com.store.model.Product;
+import com.store.service.StoreService;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention benchmark for stock adjustments with 32 concurrent point-of-sale threads.
+ * Compares the lock-free per-product compare-and-set against a single global monitor,
+ * both on one hot SKU and spread across many SKUs. The global lock variants do the
+ * same work inside the monitor (zero-stock floor, stock revision, coalesced save),
+ * so the difference between them is the locking alone.
+ *
+ * Run with:
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main StockAdjustmentBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+public class StockAdjustmentBenchmark {
+
+    private static final int SKUS = 1024;
+
+    private StoreService service;
+    private Product[] products;
+    private Path directory;
+    private final Object globalLock = new Object();
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("stock-bench");
+        service = new StoreService(directory.resolve("inventory.json"));
+        products = new Product[SKUS];
+        for (int i = 0; i < SKUS; i++) {
+            products[i] = new Product("SKU-" + i, 1.00, 1_000_000, 0.0);
+            service.addProduct(products[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        service.saveAndCloseInventory();
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    // Alternates sells and restocks so the stock level stays stable
+    private static int delta() {
+        return ThreadLocalRandom.current().nextBoolean() ? 1 : -1;
+    }
+
+    private Product randomProduct() {
+        return products[ThreadLocalRandom.current().nextInt(SKUS)];
+    }
+
+    // Serializes every adjustment, so the compare-and-set inside always succeeds at once
+    private boolean adjustUnderGlobalLock(Product product, int delta) {
+        synchronized (globalLock) {
+            return service.adjustQuantity(product, delta);
+        }
+    }
+
+    @Benchmark
+    public boolean hotSkuLockFree() {
+        return service.adjustQuantity(products[0], delta());
+    }
+
+    @Benchmark
+    public boolean hotSkuGlobalLock() {
+        return adjustUnderGlobalLock(products[0], delta());
+    }
+
+    @Benchmark
+    public boolean spreadSkusLockFree() {
+        return service.adjustQuantity(randomProduct(), delta());
+    }
+
+    @Benchmark
+    public boolean spreadSkusGlobalLock() {
+        return adjustUnderGlobalLock(randomProduct(), delta());
+    }
+
+    @Benchmark
+    public boolean spreadSkusByName() {
+        return service.sell(randomProduct().getName(), 1) || service.restock(randomProduct().getName(), 1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.store.benchmark;
+
+import com.store.model.Product;
+import com.store.service.InventoryTransaction;
+import com.store.service.StoreService;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares receiving a shipment (new products plus restocks) and clearing it again
+ * as individual calls, each saving on its own, against one transaction with a single
+ * journal entry and save.
+ *
+ * Run with:
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main TransactionBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionBenchmark {
+
+    private static final int SHIPMENT_LINES = 5;
+
+    @Param({"100", "1000"})
+    private int productCount;
+
+    private Path directory;
+    private StoreService service;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("transaction-bench");
+        service = new StoreService(directory.resolve("inventory.json"));
+        for (int i = 0; i < productCount; i++) {
+            service.addProduct(new Product("SKU-" + i, 1.00, 100, 0.0));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void individualOperations() {
+        for (int i = 0; i < SHIPMENT_LINES; i++) {
+            service.addProduct(new Product("Shipment-" + i, 2.00, 10, 0.0));
+        }
+        for (int i = 0; i < SHIPMENT_LINES; i++) {
+            service.removeProduct(productCount);
+        }
+    }
+
+    @Benchmark
+    public boolean transaction() {
+        InventoryTransaction tx = service.beginTransaction();
+        for (int i = 0; i < SHIPMENT_LINES; i++) {
+            tx.add(new Product("Shipment-" + i, 2.00, 10, 0.0));
+        }
+        for (int i = 0; i < SHIPMENT_LINES; i++) {
+            tx.remove("Shipment-" + i);
+        }
+        return tx.commit();
+    }
+}
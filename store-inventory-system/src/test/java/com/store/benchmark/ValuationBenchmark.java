@@ -0,0 +1,109 @@
+package com.store.benchmark;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+import com.store.service.ValuationColumns;
+import com.store.service.ValuationKernel;
+import com.store.service.ValuationKernels;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the stream-based BigDecimal totals in StoreService against the
+ * primitive scalar and SIMD valuation kernels.
+ *
+ * Run with:
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="--add-modules jdk.incubator.vector -cp %classpath org.openjdk.jmh.Main ValuationBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ValuationBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private List<Product> products;
+    private ValuationColumns columns;
+    private ValuationKernel scalar;
+    private ValuationKernel vector;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        LocalDate today = LocalDate.now();
+        products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            double price = random.nextInt(10_000) / 100.0;
+            int quantity = random.nextInt(200);
+            double discount = random.nextInt(30) / 100.0;
+            if (i % 2 == 0) {
+                String expiration = today.plusDays(random.nextInt(14) - 2).toString();
+                products.add(new PerishableProduct("Item " + i, price, quantity, expiration, discount));
+            } else {
+                products.add(new Product("Item " + i, price, quantity, discount));
+            }
+        }
+        columns = ValuationColumns.from(products, today);
+        scalar = ValuationKernels.scalar();
+        vector = ValuationKernels.vector();
+        if (vector == null) {
+            vector = scalar;
+        }
+    }
+
+    // Same pipeline StoreService uses when the kernels cannot be applied
+    @Benchmark
+    public BigDecimal grossStream() {
+        return products.stream()
+                .map(product -> product.getPrice().multiply(BigDecimal.valueOf(product.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public long grossScalar() {
+        return scalar.grossCents(columns);
+    }
+
+    @Benchmark
+    public long grossVector() {
+        return vector.grossCents(columns);
+    }
+
+    @Benchmark
+    public BigDecimal perishableStream() {
+        return products.stream()
+                .map(Product::getTotalValue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public long perishableScalar() {
+        return scalar.valueCents(columns);
+    }
+
+    @Benchmark
+    public long perishableVector() {
+        return vector.valueCents(columns);
+    }
+
+    // Includes the cost of rebuilding the columns after an inventory change
+    @Benchmark
+    public long perishableScalarWithRebuild() {
+        return scalar.valueCents(ValuationColumns.from(products, LocalDate.now()));
+    }
+}
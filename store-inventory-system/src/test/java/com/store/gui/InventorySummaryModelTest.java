@@ -0,0 +1,148 @@
+package com.store.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.Product;
+import com.store.service.StoreService;
+
+/**
+ * Runs the model without the FX toolkit, like {@link InventoryTableModelTest}
+ */
+class InventorySummaryModelTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final BlockingQueue<Runnable> fxTasks = new LinkedBlockingQueue<>();
+    private final List<String> shownQuantities = new ArrayList<>();
+    private StoreService service;
+    private InventorySummaryModel model;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        service.addProducts(List.of(
+                new Product("Rice", 3.99, 30, 0.0),
+                new Product("Beans", 1.49, 20, 0.1)));
+        model = new InventorySummaryModel(service, fxTasks::add);
+        model.totalQuantityProperty().addListener((obs, old, quantity) -> shownQuantities.add(quantity));
+    }
+
+    @AfterEach
+    void tearDown() {
+        model.close();
+        service.saveAndCloseInventory();
+    }
+
+    @Test
+    void totalsFollowChangesOncePerPulse() throws Exception {
+        model.setActive(true);
+        assertTotalsMatchService();
+        shownQuantities.clear();
+
+        Product flour = new Product("Flour", 2.25, 10, 0.05);
+        service.addProduct(flour);
+        assertTrue(service.sell("Rice", 4));
+        assertTrue(service.adjustQuantity(flour, 5));
+        assertTrue(service.removeProduct(1));
+
+        pulse();
+        assertTotalsMatchService();
+        assertEquals(List.of("41"), shownQuantities, "The whole burst shows as one update");
+        assertEquals(1, model.getRecomputations(), "Changes are applied without recomputing");
+    }
+
+    @Test
+    void hiddenSummaryComputesNothing() throws Exception {
+        assertFalse(model.isFollowingChanges());
+        service.addProduct(new Product("Flour", 2.25, 10, 0.0));
+        assertTrue(service.sell("Rice", 4));
+
+        assertNull(fxTasks.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(0, model.getRecomputations());
+        assertEquals("0", model.totalQuantityProperty().get());
+
+        model.setActive(true);
+        assertTotalsMatchService();
+        model.setActive(false);
+        service.addProduct(new Product("Salt", 0.99, 5, 0.0));
+        assertNull(fxTasks.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void totalsAreRecomputedAtMidnight() throws Exception {
+        ZoneId zone = ZoneId.systemDefault();
+        MutableClock clock = new MutableClock(
+                LocalDate.of(2030, 1, 1).atTime(23, 59, 59, 500_000_000).atZone(zone).toInstant(), zone);
+        InventorySummaryModel nightly = new InventorySummaryModel(service, fxTasks::add, clock);
+        nightly.setActive(true);
+        assertEquals(1, nightly.getRecomputations());
+
+        // Perishable values change with the date, without an inventory change
+        clock.now = clock.now.plusSeconds(2);
+        Runnable midnight = fxTasks.poll(5, TimeUnit.SECONDS);
+        assertNotNull(midnight, "No recomputation was scheduled for midnight");
+        midnight.run();
+        assertEquals(2, nightly.getRecomputations());
+        nightly.close();
+    }
+
+    private void assertTotalsMatchService() {
+        assertEquals(String.valueOf(service.getTotalQuantity()), model.totalQuantityProperty().get());
+        assertEquals("$" + service.getTotalGrossPrice(), model.totalGrossPriceProperty().get());
+        assertEquals("$" + service.getTotalPriceWithPerishableDiscount(), model.totalPerishablePriceProperty().get());
+        assertEquals("$" + service.getTotalNetPriceWithDiscount(), model.totalNetPriceProperty().get());
+    }
+
+    /**
+     * Waits for the changes to be delivered, then runs the single pending FX task
+     */
+    private void pulse() throws InterruptedException {
+        Runnable task = fxTasks.poll(5, TimeUnit.SECONDS);
+        assertNotNull(task, "No update was scheduled");
+        Thread.sleep(200);
+        task.run();
+        assertTrue(fxTasks.isEmpty());
+    }
+
+    private static final class MutableClock extends Clock {
+        private final ZoneId zone;
+        private volatile Instant now;
+
+        private MutableClock(Instant now, ZoneId zone) {
+            this.now = now;
+            this.zone = zone;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new MutableClock(now, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
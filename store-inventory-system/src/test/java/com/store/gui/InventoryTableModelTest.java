@@ -0,0 +1,113 @@
+package com.store.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.Product;
+import com.store.server.InventoryDaemon;
+import com.store.server.RemoteProductManager;
+import com.store.service.StoreService;
+
+import javafx.collections.ListChangeListener;
+
+/**
+ * Runs the model without the FX toolkit: the tasks it would pass to
+ * Platform.runLater are queued and run by the test, one "pulse" at a time.
+ */
+class InventoryTableModelTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final BlockingQueue<Runnable> fxTasks = new LinkedBlockingQueue<>();
+    private final List<ListChangeListener.Change<? extends Product>> listChanges = new ArrayList<>();
+    private StoreService service;
+    private InventoryTableModel model;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        service.addProducts(List.of(
+                new Product("Rice", 3.99, 30, 0.0),
+                new Product("Beans", 1.49, 20, 0.0)));
+        model = new InventoryTableModel(service, fxTasks::add);
+        model.getProducts().addListener((ListChangeListener<Product>) listChanges::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        model.close();
+        service.saveAndCloseInventory();
+    }
+
+    @Test
+    void burstOfChangesIsAppliedAsOneListChange() throws Exception {
+        Product rice = model.getProducts().get(0);
+        service.addProduct(new Product("Flour", 2.25, 10, 0.0));
+        assertTrue(service.sell("Rice", 2));
+        assertTrue(service.removeProduct(1));
+
+        pulse();
+        assertEquals(1, listChanges.size());
+        assertEquals(service.getSnapshot(), model.getProducts());
+        assertSame(rice, model.getProducts().get(0), "Unchanged rows keep their product");
+        assertEquals(28, model.getProducts().get(0).getQuantity());
+    }
+
+    @Test
+    void resetReloadsTheList() throws Exception {
+        service.addProduct(new Product("Flour", 2.25, 10, 0.0));
+        service.loadInventory();
+
+        pulse();
+        assertEquals(1, listChanges.size());
+        assertEquals(service.getSnapshot(), model.getProducts());
+        assertFalse(model.refresh(), "A local inventory is followed through its changes");
+    }
+
+    @Test
+    void remoteChangesAreCheckedOffTheFxThread() throws Exception {
+        Path socket = tempDir.resolve("inventory.sock");
+        InventoryDaemon daemon = new InventoryDaemon(service, socket);
+        daemon.start();
+        try (RemoteProductManager client = RemoteProductManager.connect(socket)) {
+            InventoryTableModel remote = new InventoryTableModel(client, fxTasks::add);
+            assertEquals(2, remote.getProducts().size());
+            assertFalse(remote.checkForChanges());
+
+            service.addProduct(new Product("Flour", 2.25, 10, 0.0));
+            assertTrue(CompletableFuture.supplyAsync(remote::checkForChanges).get(5, TimeUnit.SECONDS));
+            assertEquals(2, remote.getProducts().size(), "The list is only reloaded on the FX thread");
+            remote.reloadChanged();
+            assertEquals(3, remote.getProducts().size());
+            assertFalse(remote.refresh(), "The change was already seen");
+            remote.close();
+        } finally {
+            daemon.stop();
+        }
+    }
+
+    /**
+     * Waits for the changes to be delivered, then runs the single pending FX task
+     */
+    private void pulse() throws InterruptedException {
+        Runnable task = fxTasks.poll(5, TimeUnit.SECONDS);
+        assertNotNull(task, "No update was scheduled");
+        // Changes keep arriving into the scheduled update until it runs
+        Thread.sleep(200);
+        task.run();
+        assertTrue(fxTasks.isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package com.store.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.Product;
+import com.store.service.InventoryPage;
+import com.store.service.ProductSort;
+import com.store.service.StoreService;
+
+class PagedProductListTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StoreService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            // Prices run against insertion order so sorting visibly reorders them
+            products.add(new Product("Item " + i, 10_000 - i, i % 50, 0.0));
+        }
+        service.addProducts(products);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.saveAndCloseInventory();
+    }
+
+    @Test
+    void onlyTheShownWindowIsFetched() {
+        PagedProductList list = new PagedProductList(service);
+        list.reload();
+
+        assertEquals(10_000, list.size());
+        assertEquals("Item 0", list.get(0).getName());
+        assertEquals("Item 5000", list.get(5000).getName());
+        assertEquals("Item 5001", list.get(5001).getName(), "Neighbouring rows come from the same fetch");
+        assertEquals(2, list.getPageFetches());
+    }
+
+    @Test
+    void sortingUsesTheServiceIndex() {
+        PagedProductList list = new PagedProductList(service);
+        list.setSort(ProductSort.PRICE, true);
+        assertEquals("Item 9999", list.get(0).getName());
+        assertEquals("Item 0", list.get(9999).getName());
+
+        list.setSort(ProductSort.PRICE, false);
+        assertEquals("Item 0", list.get(0).getName());
+    }
+
+    @Test
+    void stockDependentOrderFollowsSales() {
+        InventoryPage before = service.getPage(0, 1, ProductSort.QUANTITY, false);
+        Product top = before.getProducts().get(0);
+        assertEquals(49, top.getQuantity());
+
+        assertTrue(service.adjustQuantity(top, -49));
+        InventoryPage after = service.getPage(0, 1, ProductSort.QUANTITY, false);
+        assertNotSame(top, after.getProducts().get(0), "The sold-out product no longer leads");
+        assertEquals(49, after.getProducts().get(0).getQuantity());
+    }
+
+    @Test
+    void searchResultIsShownUntilShowAll() {
+        PagedProductList list = new PagedProductList(service);
+        list.reload();
+        Product found = list.get(42);
+
+        list.showOnly(List.of(found));
+        assertEquals(1, list.size());
+        assertSame(found, list.get(0));
+
+        list.showAll();
+        assertEquals(10_000, list.size());
+    }
+}
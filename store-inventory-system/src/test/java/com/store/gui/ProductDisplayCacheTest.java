@@ -0,0 +1,61 @@
+package com.store.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+class ProductDisplayCacheTest {
+
+    @Test
+    void reusesStringsUntilTheProductChanges() {
+        ProductDisplayCache cache = new ProductDisplayCache();
+        Product rice = new Product("Rice", 3.99, 30, 0.05);
+        ProductDisplayCache.Display display = cache.of(rice);
+
+        assertEquals("Rice", display.name());
+        assertEquals("3.99", display.price());
+        assertEquals("30", display.quantity());
+        assertEquals("5.00%", display.discount());
+        assertNull(display.expirationDate());
+        assertEquals("$" + rice.getTotalValue(), display.totalValue());
+
+        // Redrawing an unchanged product returns the very same strings and cell value
+        assertSame(display, cache.of(rice));
+        assertSame(display.quantity(), display.quantity());
+        assertSame(display.totalValue(), display.totalValue());
+        assertSame(cache.valueOf(rice), cache.valueOf(rice));
+        assertSame(rice, cache.valueOf(rice).getValue());
+
+        String oldValue = display.totalValue();
+        rice.tryAdjustQuantity(-10);
+        rice.setPrice(4.25);
+        assertEquals("20", display.quantity());
+        assertEquals("4.25", display.price());
+        assertNotEquals(oldValue, display.totalValue());
+        assertEquals("$" + rice.getTotalValue(), display.totalValue());
+
+        PerishableProduct milk = new PerishableProduct("Milk", 2.49, 12, LocalDate.now().plusDays(1).toString(), 0.1);
+        assertEquals(LocalDate.now().plusDays(1).toString(), cache.of(milk).expirationDate());
+        assertEquals("$" + milk.getTotalValue(), cache.of(milk).totalValue());
+    }
+
+    @Test
+    void keepsOnlyTheMostRecentlyShownProducts() {
+        ProductDisplayCache cache = new ProductDisplayCache(100);
+        Product first = new Product("Item 0", 1.0, 1, 0.0);
+        ProductDisplayCache.Display display = cache.of(first);
+        for (int i = 1; i < 1000; i++) {
+            cache.of(new Product("Item " + i, 1.0, 1, 0.0));
+            if (i % 50 == 0) {
+                cache.of(first);
+            }
+        }
+        assertEquals(100, cache.size());
+        assertSame(display, cache.of(first));
+    }
+}
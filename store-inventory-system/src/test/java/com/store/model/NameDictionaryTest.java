@@ -0,0 +1,50 @@
+package com.store.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class NameDictionaryTest {
+
+    private final NameDictionary dictionary = new NameDictionary();
+
+    @Test
+    void sameNameIsInternedOnce() {
+        int first = dictionary.intern(new String("Organic Apples"));
+        int second = dictionary.intern(new String("Organic Apples"));
+
+        assertEquals(first, second);
+        assertSame(dictionary.name(first), dictionary.name(second));
+    }
+
+    @Test
+    void namesDifferingByCaseShareFoldedId() {
+        int lower = dictionary.intern("milk");
+        int upper = dictionary.intern("MILK");
+
+        assertNotEquals(lower, upper);
+        assertEquals(dictionary.foldedId(lower), dictionary.foldedId(upper));
+        assertEquals(dictionary.foldedId(lower), dictionary.lookupFoldedId("Milk"));
+        assertEquals(NameDictionary.NO_NAME, dictionary.lookupFoldedId("Bread"));
+    }
+
+    @Test
+    void foldingMatchesEqualsIgnoreCase() {
+        String[][] pairs = {
+            {"Straße", "STRASSE"}, {"İstanbul", "istanbul"}, {"ǅemal", "ǆemal"}, {"Ω", "ω"}
+        };
+        for (String[] pair : pairs) {
+            boolean expected = pair[0].equalsIgnoreCase(pair[1]);
+            assertEquals(expected, NameDictionary.fold(pair[0]).equals(NameDictionary.fold(pair[1])),
+                    pair[0] + " vs " + pair[1]);
+        }
+    }
+
+    @Test
+    void productExposesInternedName() {
+        Product product = new Product("Yogurt", 1.0, 1, 0.0);
+
+        assertEquals("Yogurt", product.getName());
+        assertEquals(NameDictionary.global().lookupFoldedId("YOGURT"), product.getFoldedNameId());
+    }
+}
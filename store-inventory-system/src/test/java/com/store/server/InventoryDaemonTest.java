@@ -0,0 +1,128 @@
+package com.store.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+import com.store.service.InventoryPage;
+import com.store.service.ProductSort;
+import com.store.service.StoreService;
+
+class InventoryDaemonTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StoreService service;
+    private InventoryDaemon daemon;
+    private RemoteProductManager client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        service.addProducts(List.of(
+                new Product("Coffee", 8.50, 10, 0.0),
+                new PerishableProduct("Milk", 1.25, 4, "2030-01-01", 0.0)));
+        Path socket = tempDir.resolve("inventory.sock");
+        daemon = new InventoryDaemon(service, socket);
+        daemon.start();
+        client = RemoteProductManager.connect(socket);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        daemon.stop();
+        service.saveAndCloseInventory();
+    }
+
+    @Test
+    void sharesTheDaemonInventory() {
+        List<Product> inventory = client.getInventory();
+        assertEquals(2, inventory.size());
+        assertEquals(new BigDecimal("8.50"), inventory.get(0).getPrice());
+        PerishableProduct milk = assertInstanceOf(PerishableProduct.class, inventory.get(1));
+        assertEquals("2030-01-01", milk.getExpirationDate().toString());
+
+        // An unchanged inventory is not transferred again
+        assertSame(inventory, client.getInventory());
+        assertTrue(client.findProductByName("MILK").isPresent());
+
+        client.addProduct(new Product("Tea", 4.00, 5, 0.0));
+        assertEquals(3, service.getInventory().size());
+        assertNotSame(inventory, client.getInventory());
+
+        // Stock changes made on the daemon side invalidate the client copy too
+        List<Product> cached = client.getInventory();
+        assertTrue(service.adjustQuantity(service.getInventory().get(0), -9));
+        assertEquals(1, client.getInventory().get(0).getQuantity());
+        assertNotSame(cached, client.getInventory());
+
+        assertEquals(10, client.getTotalQuantity());
+        assertEquals(new BigDecimal("33.50"), client.getTotalGrossPrice());
+    }
+
+    @Test
+    void appliesBatchOperations() {
+        client.addProducts(List.of(new Product("Tea", 4.00, 5, 0.0), new Product("Sugar", 2.00, 0, 0.0)));
+        assertEquals(4, service.getInventory().size());
+
+        assertEquals(1, client.removeIf(product -> product.getQuantity() == 0));
+        assertTrue(client.removeProduct(0));
+        assertFalse(client.removeProduct(10));
+        assertEquals(List.of("Milk", "Tea"), service.getInventory().stream().map(Product::getName).toList());
+
+        client.updateAll(product -> {
+            product.setQuantity(product.getQuantity() + 1);
+            return product;
+        });
+        assertEquals(List.of(5, 6), service.getInventory().stream().map(Product::getQuantity).toList());
+    }
+
+    @Test
+    void servesSortedPagesOfTheClientCopy() {
+        client.addProduct(new Product("Apples", 3.00, 7, 0.0));
+        InventoryPage page = client.getPage(0, 2, ProductSort.NAME, true);
+        List<Product> inventory = client.getInventory();
+        assertEquals(3, page.getTotalCount());
+        assertEquals(List.of(inventory.get(2), inventory.get(0)), page.getProducts(),
+                "Pages hold the products of the client's copy");
+
+        // A stock change on the daemon side reorders the page and refreshes the copy
+        assertTrue(service.adjustQuantity(service.getInventory().get(1), 20));
+        page = client.getPage(0, 1, ProductSort.QUANTITY, false);
+        assertEquals("Milk", page.getProducts().get(0).getName());
+        assertEquals(24, page.getProducts().get(0).getQuantity());
+        assertSame(client.getInventory().get(1), page.getProducts().get(0));
+
+        assertEquals(List.of(), client.getPage(5, 10, ProductSort.INVENTORY_ORDER, true).getProducts());
+    }
+
+    @Test
+    void replacesStaleSocketFile() throws Exception {
+        Path stale = tempDir.resolve("stale.sock");
+        Files.createFile(stale);
+        assertFalse(InventoryDaemon.isListening(stale));
+
+        InventoryDaemon second = new InventoryDaemon(service, stale);
+        second.start();
+        try (RemoteProductManager other = RemoteProductManager.connect(stale)) {
+            assertTrue(other.ping());
+            assertEquals(2, other.getInventory().size());
+        } finally {
+            second.stop();
+        }
+        assertFalse(Files.exists(stale));
+        assertThrows(java.io.IOException.class, () -> daemon.start());
+    }
+}
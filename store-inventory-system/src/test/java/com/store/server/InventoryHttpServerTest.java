@@ -0,0 +1,128 @@
+package com.store.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.model.Product;
+import com.store.service.StoreService;
+
+class InventoryHttpServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private StoreService service;
+    private InventoryHttpServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        service.addProducts(List.of(
+                new Product("Coffee", 8.50, 10, 0.0),
+                new Product("Tea", 4.00, 5, 0.0)));
+        server = new InventoryHttpServer(service, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+        request.method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body));
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode json(HttpResponse<String> response) throws Exception {
+        return objectMapper.readTree(response.body());
+    }
+
+    @Test
+    void queriesProductsAndSummary() throws Exception {
+        HttpResponse<String> all = send("GET", "/products", null);
+        assertEquals(200, all.statusCode());
+        assertEquals(2, json(all).size());
+        assertEquals("Coffee", json(all).get(0).get("name").asText());
+        // The listing is streamed rather than buffered to compute a Content-Length
+        assertTrue(all.headers().firstValue("Content-Length").isEmpty());
+
+        HttpResponse<String> tea = send("GET", "/products/tea", null);
+        assertEquals(200, tea.statusCode());
+        assertEquals(5, json(tea).get("quantity").asInt());
+        assertEquals(404, send("GET", "/products/Cocoa", null).statusCode());
+
+        JsonNode summary = json(send("GET", "/summary", null));
+        assertEquals(2, summary.get("productCount").asInt());
+        assertEquals(15, summary.get("totalQuantity").asInt());
+        assertEquals(105.0, summary.get("totalGrossPrice").asDouble(), 0.001);
+    }
+
+    @Test
+    void addsAndRemovesProducts() throws Exception {
+        HttpResponse<String> added = send("POST", "/products",
+                "[{\"name\":\"Milk\",\"price\":1.2,\"quantity\":3},"
+                + "{\"type\":\"perishable\",\"name\":\"Cream\",\"price\":2.5,\"quantity\":2,\"expirationDate\":\"2030-01-01\"}]");
+        assertEquals(201, added.statusCode());
+        assertEquals(2, json(added).get("added").asInt());
+        assertEquals(4, service.getInventory().size());
+
+        assertEquals(200, send("DELETE", "/products/MILK", null).statusCode());
+        assertEquals(200, send("DELETE", "/products?index=0", null).statusCode());
+        assertEquals(List.of("Tea", "Cream"), service.getInventory().stream().map(Product::getName).toList());
+
+        assertEquals(404, send("DELETE", "/products/Milk", null).statusCode());
+        assertEquals(400, send("POST", "/products", "{not json").statusCode());
+        assertEquals(400, send("POST", "/products", "{\"price\":1}").statusCode());
+        assertEquals(405, send("PUT", "/products", "{}").statusCode());
+    }
+
+    @Test
+    void recordsSales() throws Exception {
+        HttpResponse<String> sold = send("POST", "/sales",
+                "[{\"name\":\"coffee\",\"quantity\":3},{\"name\":\"Tea\",\"quantity\":1}]");
+        assertEquals(200, sold.statusCode());
+        assertEquals(2, json(sold).get("sold").asInt());
+        assertEquals(7, service.findProductByName("Coffee").get().getQuantity());
+        assertEquals(2, service.getSalesLedger().getRecordedCount());
+
+        HttpResponse<String> refused = send("POST", "/sales", "{\"name\":\"Tea\",\"quantity\":50}");
+        assertEquals(409, refused.statusCode());
+        assertEquals("Tea", json(refused).get("refused").get(0).asText());
+        assertEquals(400, send("POST", "/sales", "{\"name\":\"Tea\",\"quantity\":0}").statusCode());
+        assertEquals(405, send("GET", "/sales", null).statusCode());
+    }
+
+        @Test
+    void servesManyConcurrentClients() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String path = i % 2 == 0 ? "/summary" : "/products/coffee";
+            responses.add(client.sendAsync(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path)).build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get().statusCode());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.Product;
+
+class AsyncProductManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Stands in for the JavaFX application thread
+    private final ExecutorService uiThread = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "ui"));
+    private final List<Integer> pendingCounts = new CopyOnWriteArrayList<>();
+    private StoreService service;
+    private AsyncProductManager asyncProducts;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        asyncProducts = new AsyncProductManager(service, uiThread);
+        asyncProducts.setPendingListener(pendingCounts::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncProducts.close();
+        uiThread.shutdown();
+        service.saveAndCloseInventory();
+    }
+
+    @Test
+    void callsRunInOrderAndCompleteOnTheCallbackThread() throws Exception {
+        Product rice = new Product("Rice", 3.99, 30, 0.0);
+        asyncProducts.addProduct(rice);
+        asyncProducts.addProduct(new Product("Beans", 1.49, 20, 0.0));
+        String callbackThread = asyncProducts.removeProduct(rice)
+                .thenApply(removed -> {
+                    assertTrue(removed);
+                    return Thread.currentThread().getName();
+                })
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals("ui", callbackThread);
+        assertEquals(List.of("Beans"), service.getInventory().stream().map(Product::getName).toList());
+        assertFalse(asyncProducts.removeProduct(rice).get(5, TimeUnit.SECONDS), "Already removed");
+
+        // Every submission raised the count and every completion lowered it again
+        uiThread.submit(() -> { }).get();
+        assertEquals(0, asyncProducts.getPendingCount());
+        assertEquals(0, (int) pendingCounts.get(pendingCounts.size() - 1));
+        assertTrue(pendingCounts.stream().anyMatch(count -> count > 0));
+    }
+
+    @Test
+    void removesSeveralProductsByIdentity() throws Exception {
+        Product rice = new Product("Rice", 3.99, 30, 0.0);
+        Product beans = new Product("Beans", 1.49, 20, 0.0);
+        Product otherRice = new Product("Rice", 3.99, 30, 0.0);
+        service.addProducts(List.of(rice, beans, otherRice));
+
+        assertEquals(2, asyncProducts.removeProducts(List.of(rice, beans)).get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(otherRice), List.copyOf(service.getInventory()));
+        assertEquals(0, asyncProducts.removeProducts(List.of(rice)).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failuresCompleteTheFutureExceptionally() {
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> asyncProducts
+                .call(manager -> manager.getInventory().get(5))
+                .get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IndexOutOfBoundsException.class, failure.getCause());
+    }
+
+    @Test
+    void closeWaitsForSubmittedWork() {
+        asyncProducts.addProduct(new Product("Flour", 2.25, 10, 0.0));
+        asyncProducts.run(service::saveAndCloseInventory);
+        asyncProducts.close();
+
+        assertEquals(1, new StoreService(tempDir.resolve("inventory.json")).getInventory().size());
+        assertTrue(asyncProducts.call(manager -> 1).isCompletedExceptionally(), "Closed managers reject calls");
+    }
+}
@@ -0,0 +1,150 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+class CategoryRollupsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StoreService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        service.addProducts(List.of(
+                product("Milk", 2.00, 10, " Food / Dairy "),
+                product("Cheese", 5.00, 4, "Food/Dairy/Hard"),
+                product("Bread", 3.00, 6, "Food"),
+                product("Soap", 1.50, 8, "Household"),
+                new Product("Mystery", 1.00, 1, 0.0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.saveAndCloseInventory();
+    }
+
+    private static Product product(String name, double price, int quantity, String category) {
+        Product product = new Product(name, price, quantity, 0.0);
+        product.setCategory(category);
+        return product;
+    }
+
+    private void assertMatchesScan(String category) {
+        CategoryRollup kept = service.getCategoryRollup(category);
+        CategoryRollup scanned = CategoryRollup.scan(service.getInventory(), category);
+        if (scanned == null) {
+            assertNull(kept, category);
+            return;
+        }
+        assertEquals(scanned.getProductCount(), kept.getProductCount(), category);
+        assertEquals(scanned.getQuantity(), kept.getQuantity(), category);
+        assertEquals(scanned.getGrossValue(), kept.getGrossValue(), category);
+        assertEquals(scanned.getSubcategories(), kept.getSubcategories(), category);
+    }
+
+    @Test
+    void rollsTotalsUpTheTree() {
+        CategoryRollup food = service.getCategoryRollup("Food");
+        assertEquals(3, food.getProductCount());
+        assertEquals(20, food.getQuantity());
+        assertEquals(new BigDecimal("58.00"), food.getGrossValue());
+        assertEquals(List.of("Food/Dairy"), food.getSubcategories());
+        assertEquals("Dairy", service.getCategoryRollup("Food/Dairy/").getName());
+
+        CategoryRollup all = service.getCategoryRollup(null);
+        assertEquals(5, all.getProductCount());
+        assertEquals(service.getTotalQuantity(), all.getQuantity());
+        assertEquals(service.getTotalGrossPrice(), all.getGrossValue());
+        assertEquals(List.of("Food", "Household"), all.getSubcategories());
+        assertNull(service.getCategoryRollup("Garden"));
+
+        // Stock changes, structural changes and recategorizing keep the totals exact
+        assertTrue(service.sell("cheese", 3));
+        assertTrue(service.restock("Milk", 5));
+        service.addProduct(product("Butter", 2.50, 7, "Food/Dairy"));
+        assertTrue(service.beginTransaction()
+                .add(product("Rake", 12.00, 2, "Garden"))
+                .adjustQuantity("Soap", -8)
+                .remove("Bread")
+                .commit());
+        for (String category : new String[] {null, "Food", "Food/Dairy", "Food/Dairy/Hard", "Household", "Garden"}) {
+            assertMatchesScan(category);
+        }
+
+        service.updateAll(product -> {
+            if ("Food/Dairy/Hard".equals(product.getCategory())) {
+                product.setCategory("Deli");
+            }
+            return product;
+        });
+        assertEquals(1, service.removeIf(product -> product.getName().equals("Rake")));
+        assertNull(service.getCategoryRollup("Food/Dairy/Hard"));
+        assertNull(service.getCategoryRollup("Garden"));
+        for (String category : new String[] {null, "Food", "Food/Dairy", "Deli", "Household"}) {
+            assertMatchesScan(category);
+        }
+    }
+
+    @Test
+    void concurrentSalesAreCountedOnce() throws Exception {
+        assertEquals(14, service.getCategoryRollup("Food/Dairy").getQuantity());
+        service.addProduct(product("Eggs", 0.25, 40_000, "Food/Dairy"));
+        ExecutorService tills = Executors.newFixedThreadPool(4);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            done.add(tills.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    assertTrue(service.sell("Eggs", 1));
+                }
+            }));
+        }
+        // Rebuilds while selling must neither lose nor double count a sale
+        for (int i = 0; i < 20; i++) {
+            service.updateAll(product -> product);
+        }
+        for (Future<?> future : done) {
+            future.get();
+        }
+        tills.shutdown();
+
+        assertEquals(20_000 + 10 + 4, service.getCategoryRollup("Food/Dairy").getQuantity());
+        assertMatchesScan("Food");
+    }
+
+    @Test
+    void categoriesArePersisted() {
+        service.addProduct(new PerishableProduct("Yogurt", 1.20, 6, "2030-01-01", 0.0));
+        service.updateAll(product -> {
+            if (product.getName().equals("Yogurt")) {
+                product.setCategory("Food/Dairy");
+            }
+            return product;
+        });
+        service.saveAndCloseInventory();
+
+        StoreService reloaded = new StoreService(tempDir.resolve("inventory.json"));
+        assertEquals("Food/Dairy", reloaded.findProductByName("Milk").get().getCategory());
+        assertEquals("Food/Dairy", reloaded.findProductByName("Yogurt").get().getCategory());
+        assertNull(reloaded.findProductByName("Mystery").get().getCategory());
+        assertEquals(3, reloaded.getCategoryRollup("Food/Dairy").getProductCount());
+        reloaded.saveAndCloseInventory();
+    }
+}
@@ -0,0 +1,99 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.Product;
+
+/**
+ * Batches are applied by tasks the test runs itself, like pulses of the FX thread
+ */
+class CoalescingChangeSubscriberTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+    private final List<String> batches = new ArrayList<>();
+    private StoreService service;
+    private CoalescingChangeSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        subscriber = new CoalescingChangeSubscriber("Test subscriber", tasks::add) {
+            @Override
+            protected void apply(List<InventoryChange> changes, boolean reset) {
+                batches.add((reset ? "reset " : "") + changes.stream()
+                        .map(change -> change.getType() + " " + change.getProduct().getName())
+                        .collect(Collectors.joining(", ")));
+            }
+        };
+        subscriber.subscribeTo(service);
+    }
+
+    @AfterEach
+    void tearDown() {
+        subscriber.cancel();
+        service.saveAndCloseInventory();
+    }
+
+    @Test
+    void burstIsAppliedAsOneBatch() throws Exception {
+        service.addProduct(new Product("Rice", 3.99, 30, 0.0));
+        service.addProduct(new Product("Beans", 1.49, 20, 0.0));
+        assertTrue(service.removeProduct(0));
+
+        runPendingTask();
+        assertEquals(List.of("ADDED Rice, ADDED Beans, REMOVED Rice"), batches);
+    }
+
+    @Test
+    void changesBeforeTheLastResetAreDropped() throws Exception {
+        service.addProduct(new Product("Rice", 3.99, 30, 0.0));
+        service.loadInventory();
+        service.addProduct(new Product("Beans", 1.49, 20, 0.0));
+
+        runPendingTask();
+        assertEquals(List.of("reset ADDED Beans"), batches);
+    }
+
+    @Test
+    void cancelledSubscriberAppliesNothing() throws Exception {
+        service.addProduct(new Product("Rice", 3.99, 30, 0.0));
+        subscriber.cancel();
+
+        Runnable task = tasks.poll(1, TimeUnit.SECONDS);
+        if (task != null) {
+            task.run();
+        }
+        service.addProduct(new Product("Beans", 1.49, 20, 0.0));
+        Thread.sleep(200);
+        tasks.forEach(Runnable::run);
+        assertEquals(List.of(), batches);
+    }
+
+    /**
+     * Waits for the changes to be delivered, then runs the single pending task
+     */
+    private void runPendingTask() throws InterruptedException {
+        Runnable task = tasks.poll(5, TimeUnit.SECONDS);
+        assertNotNull(task, "No batch was scheduled");
+        // Changes keep arriving into the scheduled batch until it runs
+        Thread.sleep(200);
+        task.run();
+        assertTrue(tasks.isEmpty());
+    }
+}
@@ -0,0 +1,122 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+class ExpirySchedulerTest {
+
+    // Well after the real date, so catching up with the clock never moves the wheel
+    private static final LocalDate TODAY = LocalDate.of(2040, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    private final BlockingQueue<ExpiryScheduler.Event> events = new LinkedBlockingQueue<>();
+    private StoreService service;
+    private ExpiryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        scheduler = new ExpiryScheduler(service, TODAY);
+        scheduler.addListener(events::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+        service.saveAndCloseInventory();
+    }
+
+    @Test
+    void productsMoveThroughTheStagesOnTheirDays() {
+        PerishableProduct milk = perishable("Milk", TODAY.plusDays(10));
+        PerishableProduct cheese = perishable("Cheese", TODAY.plusDays(300));
+        PerishableProduct honey = perishable("Honey", TODAY.plusYears(20));
+        service.addProducts(List.of(milk, cheese, honey, new Product("Rice", 3.99, 30, 0.0)));
+        scheduler.refresh();
+        assertEquals(ExpiryStage.FRESH, scheduler.stageOf(milk));
+        assertNull(scheduler.stageOf(service.getInventory().get(3)), "Not perishable");
+        assertTrue(events.isEmpty());
+
+        scheduler.advanceTo(TODAY.plusDays(11));
+        assertEquals(List.of(
+                "Milk FRESH->EXPIRING_SOON " + TODAY.plusDays(3),
+                "Milk EXPIRING_SOON->EXPIRING " + TODAY.plusDays(8),
+                "Milk EXPIRING->EXPIRED " + TODAY.plusDays(11)), drain());
+
+        scheduler.advanceTo(TODAY.plusDays(300));
+        assertEquals(List.of(
+                "Cheese FRESH->EXPIRING_SOON " + TODAY.plusDays(293),
+                "Cheese EXPIRING_SOON->EXPIRING " + TODAY.plusDays(298)), drain());
+
+        // Twenty years out is on the wheel's top level and cascades down twice
+        scheduler.advanceTo(TODAY.plusYears(21));
+        assertEquals(List.of(
+                "Cheese EXPIRING->EXPIRED " + TODAY.plusDays(301),
+                "Honey FRESH->EXPIRING_SOON " + TODAY.plusYears(20).minusDays(7),
+                "Honey EXPIRING_SOON->EXPIRING " + TODAY.plusYears(20).minusDays(2),
+                "Honey EXPIRING->EXPIRED " + TODAY.plusYears(20).plusDays(1)), drain());
+        assertEquals(ExpiryStage.EXPIRED, scheduler.stageOf(honey));
+    }
+
+    @Test
+    void followsInventoryChanges() throws InterruptedException {
+        scheduler.start();
+        PerishableProduct yogurt = perishable("Yogurt", TODAY.plusDays(1));
+        service.addProducts(List.of(yogurt, perishable("Bread", TODAY.plusDays(5)), perishable("Jam", TODAY.plusDays(90))));
+
+        List<String> added = List.of(take(), take());
+        assertTrue(added.contains("Yogurt null->EXPIRING " + TODAY));
+        assertTrue(added.contains("Bread null->EXPIRING_SOON " + TODAY));
+        assertEquals(List.of("Yogurt", "Bread"), scheduler.getExpiringProducts().stream()
+                .map(event -> event.getProduct().getName()).toList(), "Soonest expiration first");
+
+        assertTrue(service.removeProduct(0));
+        assertEquals("Yogurt EXPIRING->null " + TODAY, take());
+        assertNull(scheduler.stageOf(yogurt));
+
+        // A removed product stays on the wheel but no longer fires
+        scheduler.advanceTo(TODAY.plusDays(3));
+        assertEquals("Bread EXPIRING_SOON->EXPIRING " + TODAY.plusDays(3), take());
+        assertNull(events.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    private static PerishableProduct perishable(String name, LocalDate expirationDate) {
+        return new PerishableProduct(name, 2.49, 10, expirationDate.toString(), 0.0);
+    }
+
+    private String take() throws InterruptedException {
+        ExpiryScheduler.Event event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event, "No expiry event");
+        return describe(event);
+    }
+
+    private List<String> drain() {
+        List<String> drained = new ArrayList<>();
+        ExpiryScheduler.Event event;
+        while ((event = events.poll()) != null) {
+            drained.add(describe(event));
+        }
+        return drained;
+    }
+
+    private static String describe(ExpiryScheduler.Event event) {
+        return event.getProduct().getName() + " " + event.getPrevious() + "->" + event.getCurrent() + " " + event.getDate();
+    }
+}
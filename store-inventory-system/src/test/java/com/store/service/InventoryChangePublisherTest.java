@@ -0,0 +1,152 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.Product;
+
+class InventoryChangePublisherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StoreService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        service.addProducts(List.of(
+                new Product("Rice", 3.99, 30, 0.0),
+                new Product("Beans", 1.49, 20, 0.0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.saveAndCloseInventory();
+    }
+
+    @Test
+    void subscriberCanMirrorTheInventory() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        service.changes().subscribe(subscriber);
+        subscriber.awaitSubscription().request(Long.MAX_VALUE);
+        List<Product> mirror = new ArrayList<>(service.getSnapshot());
+
+        service.addProduct(new Product("Flour", 2.25, 10, 0.0));
+        service.addProducts(List.of(new Product("Sugar", 1.75, 12, 0.0), new Product("Salt", 0.99, 0, 0.0)));
+        assertTrue(service.removeProduct(0));
+        assertEquals(1, service.removeIf(product -> product.getQuantity() == 0));
+        assertTrue(service.sell("Beans", 5));
+        service.updateAll(product -> new Product(product.getName(), 1.00, product.getQuantity(), 0.0));
+        try (InventoryTransaction transaction = service.beginTransaction()) {
+            assertTrue(transaction.add(new Product("Oats", 4.10, 8, 0.0))
+                    .remove("Flour")
+                    .adjustQuantity("Sugar", -2)
+                    .commit());
+        }
+
+        // A transaction's changes share its version, so wait for the delivery to go quiet
+        long version = service.getSnapshot().getVersion();
+        InventoryChange change = subscriber.next();
+        while (change != null) {
+            apply(mirror, change);
+            assertTrue(change.getVersion() <= version);
+            change = subscriber.changes.poll(200, TimeUnit.MILLISECONDS);
+        }
+
+        assertSame(service.getSnapshot().get(0), mirror.get(0));
+        assertEquals(service.getSnapshot(), mirror);
+        assertEquals(List.of("Beans", "Sugar", "Oats"), mirror.stream().map(Product::getName).toList());
+    }
+
+    @Test
+    void subscriberThatFallsBehindIsSentOneReset() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        service.changes().subscribe(subscriber, 2);
+        Flow.Subscription subscription = subscriber.awaitSubscription();
+
+        for (int i = 0; i < 5; i++) {
+            service.addProduct(new Product("Item " + i, 1.00, 1, 0.0));
+        }
+        subscription.request(1);
+        assertEquals(InventoryChange.Type.RESET, subscriber.next().getType());
+        assertNull(subscriber.changes.poll(100, TimeUnit.MILLISECONDS), "Nothing more was requested");
+
+        // Changes made after the overflow follow the reset
+        subscription.request(10);
+        assertEquals("Item 3", subscriber.next().getProduct().getName());
+        assertEquals("Item 4", subscriber.next().getProduct().getName());
+
+        subscription.cancel();
+        assertEquals(0, service.changes().getSubscriberCount());
+    }
+
+    @Test
+    void reloadIsPublishedAsReset() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        service.changes().subscribe(subscriber);
+        subscriber.awaitSubscription().request(Long.MAX_VALUE);
+
+        service.loadInventory();
+        InventoryChange change = subscriber.next();
+        assertEquals(InventoryChange.Type.RESET, change.getType());
+        assertEquals(service.getSnapshot().getVersion(), change.getVersion());
+    }
+
+    private static void apply(List<Product> mirror, InventoryChange change) {
+        switch (change.getType()) {
+            case ADDED -> mirror.add(change.getIndex(), change.getProduct());
+            case REMOVED -> assertSame(change.getProduct(), mirror.remove(change.getIndex()));
+            case UPDATED -> mirror.set(change.getIndex(), change.getProduct());
+            case RESET -> fail("Unexpected reset");
+        }
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<InventoryChange> {
+        private final BlockingQueue<Flow.Subscription> subscription = new LinkedBlockingQueue<>();
+        private final BlockingQueue<InventoryChange> changes = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription.add(subscription);
+        }
+
+        @Override
+        public void onNext(InventoryChange item) {
+            changes.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        Flow.Subscription awaitSubscription() throws InterruptedException {
+            Flow.Subscription result = subscription.poll(5, TimeUnit.SECONDS);
+            assertNotNull(result, "onSubscribe was not called");
+            return result;
+        }
+
+        InventoryChange next() throws InterruptedException {
+            InventoryChange change = changes.poll(5, TimeUnit.SECONDS);
+            assertNotNull(change, "No change was delivered");
+            return change;
+        }
+    }
+}
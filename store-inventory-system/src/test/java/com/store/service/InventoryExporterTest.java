@@ -0,0 +1,70 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.api.Test;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+class InventoryExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StoreService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        service.addProducts(List.of(
+                new Product("Rice, long grain", 3.99, 30, 0.0),
+                new PerishableProduct("Milk \"whole\"", 2.49, 12, "2030-01-31", 0.1),
+                new Product("Beans", 1.49, 20, 0.05)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.saveAndCloseInventory();
+    }
+
+    @ParameterizedTest
+    @EnumSource(InventoryFormat.class)
+    void exportedFilesImportBackUnchanged(InventoryFormat format) throws IOException {
+        Path file = tempDir.resolve("export." + format.name().toLowerCase());
+        assertEquals(3, new InventoryExporter(service).export(file));
+        assertFalse(Files.exists(tempDir.resolve(file.getFileName() + ".part")));
+
+        StoreService copy = new StoreService(tempDir.resolve("copy.json"));
+        try {
+            InventoryImporter.Result result = new InventoryImporter(copy, 1).importFile(file, null);
+            assertEquals(0, result.getRejectedCount(), () -> result.getErrors().toString());
+            assertEquals(describe(service.getInventory()), describe(copy.getInventory()));
+        } finally {
+            copy.saveAndCloseInventory();
+        }
+    }
+
+    @Test
+    void failedExportLeavesNoFile() {
+        Path file = tempDir.resolve("missing-dir").resolve("export.csv");
+        assertThrows(IOException.class, () -> new InventoryExporter(service).export(file));
+        assertFalse(Files.exists(file));
+    }
+
+    private static List<String> describe(List<Product> products) {
+        return products.stream()
+                .map(product -> product.getClass().getSimpleName() + " " + product)
+                .toList();
+    }
+}
@@ -0,0 +1,123 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.Product;
+import com.store.util.InventoryFileCoordinator;
+
+/**
+ * Two StoreService instances on one file stand in for two processes sharing it:
+ * neither sees the other's in-memory state, only what reaches the file.
+ */
+class InventoryFileCoordinationTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path inventoryPath;
+    private StoreService first;
+    private StoreService second;
+
+    @BeforeEach
+    void setUp() {
+        inventoryPath = tempDir.resolve("inventory.json");
+        StoreService seed = new StoreService(inventoryPath);
+        seed.addProduct(new Product("Rice", 3.99, 30, 0.0));
+        seed.addProduct(new Product("Beans", 1.49, 20, 0.0));
+        first = new StoreService(inventoryPath);
+        second = new StoreService(inventoryPath);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Background saves must finish before the temp directory is deleted
+        first.saveAndCloseInventory();
+        second.saveAndCloseInventory();
+    }
+
+    @Test
+    void saveMergesChangesFromAnotherInstance() throws Exception {
+        long sequence = new InventoryFileCoordinator(inventoryPath).readSequence();
+        first.addProduct(new Product("Flour", 2.25, 10, 0.0));
+        second.addProduct(new Product("Sugar", 1.75, 12, 0.0));
+
+        // The stale instance merged instead of overwriting the first one's product
+        assertEquals(List.of("Rice", "Beans", "Flour", "Sugar"), names(second));
+        assertEquals(List.of("Rice", "Beans", "Flour", "Sugar"), names(new StoreService(inventoryPath)));
+        assertEquals(sequence + 2, new InventoryFileCoordinator(inventoryPath).readSequence());
+
+        assertTrue(first.refreshFromDisk());
+        assertEquals(List.of("Rice", "Beans", "Flour", "Sugar"), names(first));
+        assertFalse(first.refreshFromDisk(), "Nothing changed since the last refresh");
+    }
+
+    @Test
+    void concurrentStockChangesAreAdded() {
+        assertTrue(first.sell("Rice", 5));
+        first.saveAndCloseInventory();
+        assertTrue(second.sell("Rice", 3));
+        assertTrue(second.restock("Beans", 4));
+        second.saveAndCloseInventory();
+
+        StoreService reloaded = new StoreService(inventoryPath);
+        assertEquals(22, reloaded.findProductByName("Rice").orElseThrow().getQuantity());
+        assertEquals(24, reloaded.findProductByName("Beans").orElseThrow().getQuantity());
+    }
+
+    @Test
+    void removalIsKeptUnlessTheOtherSideChangedTheProduct() {
+        assertTrue(first.removeProduct(0));
+
+        // The second instance restocked the removed product, so it survives the merge
+        assertTrue(second.restock("Rice", 5));
+        second.addProduct(new Product("Oats", 4.10, 8, 0.0));
+        assertEquals(List.of("Beans", "Rice", "Oats"), names(second));
+        assertEquals(35, second.findProductByName("Rice").orElseThrow().getQuantity());
+
+        // Beans were not changed by the first instance, so their removal sticks
+        assertTrue(second.removeProduct(0));
+        assertTrue(first.refreshFromDisk());
+        assertEquals(List.of("Rice", "Oats"), names(first));
+        assertEquals(35, first.findProductByName("Rice").orElseThrow().getQuantity());
+    }
+
+    @Test
+    void refreshKeepsIdentityOfUnchangedProducts() {
+        Product beans = first.findProductByName("Beans").orElseThrow();
+        second.addProduct(new Product("Salt", 0.99, 40, 0.0));
+
+        assertTrue(first.refreshFromDisk());
+        assertSame(beans, first.findProductByName("Beans").orElseThrow());
+        assertTrue(first.findProductByName("Salt").isPresent());
+    }
+
+    @Test
+    void nestedLeasesShareTheLockFileAcrossCoordinators() throws Exception {
+        InventoryFileCoordinator outer = new InventoryFileCoordinator(inventoryPath);
+        InventoryFileCoordinator inner = new InventoryFileCoordinator(inventoryPath);
+        long sequence;
+        try (InventoryFileCoordinator.Lease outerLease = outer.lock()) {
+            sequence = outerLease.getSequence();
+            try (InventoryFileCoordinator.Lease innerLease = inner.lock()) {
+                assertEquals(sequence, innerLease.getSequence());
+                assertEquals(sequence + 1, innerLease.advanceSequence());
+            }
+            // Closing the inner lease keeps the outer one usable
+            assertEquals(sequence + 1, outerLease.getSequence());
+        }
+        assertEquals(sequence + 1, inner.readSequence());
+    }
+
+    private static List<String> names(StoreService service) {
+        return service.getInventory().stream().map(Product::getName).collect(Collectors.toList());
+    }
+}
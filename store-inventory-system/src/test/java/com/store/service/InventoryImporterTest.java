@@ -0,0 +1,108 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+class InventoryImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StoreService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.saveAndCloseInventory();
+    }
+
+    @Test
+    void importsJsonArrayAndNdjson() throws IOException {
+        Path json = Files.writeString(tempDir.resolve("products.json"), "[\n"
+                + "{\"type\":\"non-perishable\",\"name\":\"Rice\",\"price\":3.99,\"quantity\":30,\"discount\":0.0},\n"
+                + "{\"type\":\"perishable\",\"name\":\"Milk\",\"price\":2.49,\"quantity\":12,\"discount\":0.1,"
+                + "\"expirationDate\":\"2030-01-31\"}\n]");
+        Path ndjson = Files.writeString(tempDir.resolve("products.ndjson"),
+                "{\"name\":\"Beans\",\"price\":1.49,\"quantity\":20}\n"
+                + "{\"name\":\"Salt\",\"price\":-1,\"quantity\":5}\n");
+
+        InventoryImporter importer = new InventoryImporter(service, 2);
+        assertEquals(2, importer.importFile(json, null).getImportedCount());
+        InventoryImporter.Result result = importer.importFile(ndjson, null);
+
+        assertEquals(1, result.getImportedCount());
+        assertEquals(1, result.getRejectedCount());
+        assertEquals(List.of("Line 2: price must not be negative"), result.getErrors());
+        assertEquals(List.of("Rice", "Milk", "Beans"), service.getInventory().stream().map(Product::getName).toList());
+        assertInstanceOf(PerishableProduct.class, service.getInventory().get(1));
+    }
+
+    @Test
+    void largeCsvIsAddedInFileOrderAsOneChange() throws IOException {
+        StringBuilder csv = new StringBuilder("type,name,price,quantity,discount,expirationDate\n");
+        for (int i = 0; i < 10_000; i++) {
+            csv.append("non-perishable,\"Item, no. ").append(i).append("\",1.25,").append(i).append(",0.05,\n");
+        }
+        csv.append("perishable,\"Cheese \"\"aged\"\"\",7.50,3,0,2030-06-01\n");
+        csv.append("perishable,Yogurt,1.00,3,0,not-a-date\n");
+        Path file = Files.writeString(tempDir.resolve("products.csv"), csv);
+
+        long version = service.getSnapshot().getVersion();
+        List<InventoryImporter.Progress> progress = new ArrayList<>();
+        InventoryImporter.Result result = new InventoryImporter(service, 3).importFile(file, progress::add);
+
+        assertEquals(10_001, result.getImportedCount());
+        assertEquals(List.of("Line 10003: invalid expirationDate \"not-a-date\""), result.getErrors());
+        assertEquals(version + 1, service.getSnapshot().getVersion(), "One commit for the whole file");
+        assertEquals("Item, no. 0", service.getInventory().get(0).getName());
+        assertEquals(9_999, service.getInventory().get(9_999).getQuantity());
+        assertEquals("Cheese \"aged\"", service.getInventory().get(10_000).getName());
+
+        assertTrue(progress.size() > 1, "Progress is reported per chunk");
+        assertEquals(10_002, progress.get(progress.size() - 1).getRecordsRead());
+    }
+
+    @Test
+    void readFileLeavesAddingToTheCaller() throws Exception {
+        Path ndjson = Files.writeString(tempDir.resolve("products.ndjson"),
+                "{\"name\":\"Beans\",\"price\":1.49,\"quantity\":20}\n"
+                + "{\"name\":\"Salt\",\"price\":0.99,\"quantity\":5}\n");
+
+        InventoryImporter.Result result = new InventoryImporter(service, 2).readFile(ndjson, null);
+        assertEquals(List.of("Beans", "Salt"), result.getProducts().stream().map(Product::getName).toList());
+        assertTrue(service.getInventory().isEmpty(), "Nothing is added while reading");
+
+        // The GUI adds through its I/O thread, which cancelling the import dialog does not interrupt
+        try (AsyncProductManager async = new AsyncProductManager(service, Runnable::run)) {
+            async.addProducts(result.getProducts()).get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(result.getProducts(), service.getInventory());
+    }
+
+    @Test
+    void malformedJsonImportsNothing() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("broken.json"),
+                "[{\"name\":\"Rice\",\"price\":3.99,\"quantity\":30}, {\"name\":");
+
+        assertThrows(IOException.class, () -> new InventoryImporter(service, 2).importFile(file, null));
+        assertTrue(service.getInventory().isEmpty());
+    }
+}
@@ -0,0 +1,71 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.Product;
+
+class InventorySnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StoreService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        service.addProducts(List.of(
+                new Product("Flour", 3.00, 20, 0.0),
+                new Product("Sugar", 2.00, 15, 0.0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.saveAndCloseInventory();
+    }
+
+    @Test
+    void inventoryCannotBeModified() {
+        List<Product> inventory = service.getInventory();
+        Product product = new Product("Salt", 1.00, 5, 0.0);
+
+        assertThrows(UnsupportedOperationException.class, () -> inventory.add(product));
+        assertThrows(UnsupportedOperationException.class, () -> inventory.remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> inventory.set(0, product));
+        assertThrows(UnsupportedOperationException.class, inventory::clear);
+        assertEquals(2, service.getInventory().size());
+    }
+
+    @Test
+    void snapshotIsUnaffectedByLaterWrites() {
+        InventorySnapshot before = service.getSnapshot();
+        List<Product> products = List.copyOf(before);
+
+        service.addProduct(new Product("Salt", 1.00, 5, 0.0));
+        service.removeProduct(0);
+
+        assertEquals(products, before);
+        assertEquals(2, before.size());
+        assertNotSame(before, service.getInventory());
+        assertTrue(service.getSnapshot().getVersion() > before.getVersion());
+    }
+
+    @Test
+    void unchangedInventoryIsTheSameInstance() {
+        List<Product> first = service.getInventory();
+
+        assertSame(first, service.getInventory());
+        assertSame(first, service.getSnapshot());
+
+        service.addProduct(new Product("Salt", 1.00, 5, 0.0));
+        assertNotSame(first, service.getInventory());
+    }
+}
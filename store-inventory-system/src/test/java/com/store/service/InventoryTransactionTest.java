@@ -0,0 +1,133 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.Product;
+import com.store.util.InventoryFileCoordinator;
+
+class InventoryTransactionTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path inventoryPath;
+    private StoreService service;
+    private InventoryFileCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        inventoryPath = tempDir.resolve("inventory.json");
+        service = new StoreService(inventoryPath);
+        service.addProducts(List.of(
+                new Product("Flour", 2.25, 10, 0.0),
+                new Product("Sugar", 1.75, 4, 0.0)));
+        coordinator = new InventoryFileCoordinator(inventoryPath);
+    }
+
+    @Test
+    void commitAppliesAllOperationsWithOneSave() throws Exception {
+        long sequence = coordinator.readSequence();
+        long version = service.getSnapshot().getVersion();
+
+        try (InventoryTransaction tx = service.beginTransaction()) {
+            tx.add(new Product("Yeast", 0.99, 5, 0.0))
+              .adjustQuantity("yeast", 15)
+              .adjustQuantity("Flour", -4)
+              .adjustQuantity("Sugar", 6)
+              .remove("Sugar");
+            assertTrue(tx.commit());
+            assertNull(tx.getFailureReason());
+        }
+
+        assertEquals(sequence + 1, coordinator.readSequence());
+        assertEquals(version + 1, service.getSnapshot().getVersion());
+        assertEquals(List.of("Flour", "Yeast"), service.getInventory().stream().map(Product::getName).toList());
+        assertEquals(6, service.findProductByName("Flour").orElseThrow().getQuantity());
+        assertEquals(20, service.findProductByName("Yeast").orElseThrow().getQuantity());
+
+        StoreService reloaded = new StoreService(inventoryPath);
+        assertEquals(26, reloaded.getTotalQuantity());
+    }
+
+    @Test
+    void failedOperationRollsBackTheWholeTransaction() throws Exception {
+        long sequence = coordinator.readSequence();
+        InventorySnapshot before = service.getSnapshot();
+
+        InventoryTransaction tx = service.beginTransaction()
+                .adjustQuantity("Flour", 5)
+                .add(new Product("Salt", 0.50, 3, 0.0))
+                .adjustQuantity("Sugar", -5);
+        assertFalse(tx.commit());
+        assertTrue(tx.getFailureReason().contains("Sugar"));
+
+        assertSame(before, service.getSnapshot());
+        assertEquals(10, service.findProductByName("Flour").orElseThrow().getQuantity());
+        assertEquals(4, service.findProductByName("Sugar").orElseThrow().getQuantity());
+        assertEquals(sequence, coordinator.readSequence());
+        assertFalse(Files.exists(tempDir.resolve("inventory.json.journal")));
+
+        assertFalse(service.beginTransaction().remove("Unknown").commit());
+        assertThrows(IllegalStateException.class, () -> tx.adjustQuantity("Flour", 1));
+    }
+
+    @Test
+    void uncommittedTransactionChangesNothing() throws Exception {
+        long sequence = coordinator.readSequence();
+        try (InventoryTransaction tx = service.beginTransaction()) {
+            tx.remove("Flour").adjustQuantity("Sugar", 100);
+        }
+        assertEquals(2, service.getInventory().size());
+        assertEquals(14, service.getTotalQuantity());
+        assertEquals(sequence, coordinator.readSequence());
+    }
+
+    @Test
+    void loadReplaysJournaledTransactionsThatWereNotSaved() throws Exception {
+        assertTrue(service.beginTransaction().adjustQuantity("Flour", -1).commit());
+        long sequence = coordinator.readSequence();
+
+        // Simulate a crash after journaling a transaction but before saving it
+        InventoryJournal journal = new InventoryJournal(inventoryPath);
+        journal.append(sequence + 1, List.of(
+                new InventoryTransaction.Operation(InventoryTransaction.Operation.Kind.ADD,
+                        new Product("Oats", 3.10, 7, 0.0), null, 0),
+                new InventoryTransaction.Operation(InventoryTransaction.Operation.Kind.ADJUST,
+                        null, "Sugar", -2)));
+
+        StoreService recovered = new StoreService(inventoryPath);
+        assertEquals(9, recovered.findProductByName("Flour").orElseThrow().getQuantity(),
+                "Saved transactions are not replayed again");
+        assertEquals(2, recovered.findProductByName("Sugar").orElseThrow().getQuantity());
+        assertEquals(7, recovered.findProductByName("Oats").orElseThrow().getQuantity());
+        assertFalse(Files.exists(tempDir.resolve("inventory.json.journal")));
+        assertEquals(18, new StoreService(inventoryPath).getTotalQuantity());
+    }
+
+    @Test
+    void journalEntryOfAFailedTransactionCanBeRemoved() throws Exception {
+        InventoryJournal journal = new InventoryJournal(inventoryPath);
+        List<InventoryTransaction.Operation> restock = List.of(new InventoryTransaction.Operation(
+                InventoryTransaction.Operation.Kind.ADJUST, null, "Flour", 5));
+        List<InventoryTransaction.Operation> sale = List.of(new InventoryTransaction.Operation(
+                InventoryTransaction.Operation.Kind.ADJUST, null, "Sugar", -4));
+
+        assertEquals(0, journal.append(100, restock));
+        long size = journal.append(101, sale);
+        assertTrue(size > 0);
+        journal.truncate(size);
+
+        List<List<InventoryTransaction.Operation>> unsaved = journal.readUnsaved(0);
+        assertEquals(1, unsaved.size());
+        assertEquals("Flour", unsaved.get(0).get(0).name);
+        journal.clear();
+    }
+}
@@ -0,0 +1,86 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+class InventoryValueReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StoreService service;
+    private InventoryValueReport engine;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            products.add(new Product("Item " + i, 1.25 + i, 10 + i % 7, 0.05));
+        }
+        products.add(new PerishableProduct("Milk", 2.49, 12, LocalDate.now().plusDays(1).toString(), 0.1));
+        service.addProducts(products);
+        engine = new InventoryValueReport(service);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.saveAndCloseInventory();
+    }
+
+    @Test
+    void totalsMatchTheService() {
+        InventoryValueReport.Result report = engine.generate();
+
+        assertEquals(service.getTotalQuantity(), report.getTotalQuantity());
+        assertEquals(service.getTotalGrossPrice(), report.getTotalGross());
+        assertEquals(service.getTotalPriceWithPerishableDiscount(), report.getTotalValue());
+        assertEquals(service.getTotalNetPriceWithDiscount(), report.getTotalNet());
+        assertEquals(List.of("Non-perishable", "Perishable"),
+                report.getGroups().stream().map(InventoryValueReport.Group::getName).toList());
+        assertEquals(1000, report.getGroups().get(0).getProductCount());
+        assertEquals(1001, report.getValuedCount());
+    }
+
+    @Test
+    void rerunsOnlyValueWhatChanged() {
+        InventoryValueReport.Result first = engine.generate();
+        assertSame(first, engine.generate(), "Nothing changed");
+
+        assertTrue(service.sell("Item 3", 2));
+        service.addProduct(new Product("Flour", 2.25, 10, 0.0));
+        assertTrue(service.removeProduct(0));
+        InventoryValueReport.Result second = engine.generate();
+
+        assertEquals(2, second.getValuedCount(), "The sold and the added product");
+        assertEquals(1001, second.getLines().size());
+        assertEquals("Item 1", second.getLines().get(0).getProduct().getName());
+        assertEquals(service.getTotalGrossPrice(), second.getTotalGross());
+        assertEquals(service.getTotalPriceWithPerishableDiscount(), second.getTotalValue());
+        assertEquals(1000, second.getGroups().get(0).getProductCount());
+    }
+
+    @Test
+    void writesEveryProductAsCsv() throws Exception {
+        StringWriter out = new StringWriter();
+        engine.generate().writeTo(out);
+
+        List<String> lines = out.toString().lines().toList();
+        assertTrue(lines.contains("Product,Group,Quantity,Unit Price,Discount,Gross,Value"));
+        assertEquals("Milk,Perishable,12,2.49,0.10,29.88,13.45", lines.get(lines.size() - 1));
+        assertEquals(1 + 1 + 1 + 2 + 2 + 1 + 1 + 1001, lines.size());
+    }
+}
@@ -0,0 +1,96 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.NameDictionary;
+
+class SalesLedgerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static int foldedId(String name) {
+        return NameDictionary.global().foldedId(NameDictionary.global().intern(name));
+    }
+
+    private static long millisAt(LocalDate day) {
+        return day.atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Test
+    void concurrentSalesAreWrittenAndReadBack() throws Exception {
+        Path inventory = tempDir.resolve("inventory.json");
+        SalesLedger ledger = new SalesLedger(inventory);
+        ExecutorService tills = Executors.newFixedThreadPool(8);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String product = t % 2 == 0 ? "Ledger Coffee" : "Ledger Tea";
+            done.add(tills.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    ledger.record(product, 2);
+                }
+            }));
+        }
+        for (Future<?> future : done) {
+            future.get();
+        }
+        tills.shutdown();
+        ledger.close();
+
+        LocalDate today = LocalDate.now();
+        assertEquals(16_000, ledger.getRecordedCount());
+        assertEquals(16_000, ledger.unitsSold(foldedId("Ledger Coffee"), today, 1));
+        assertEquals(16_000 * 14L + 8_000 * ("Ledger Coffee".length() + "Ledger Tea".length()),
+                Files.size(tempDir.resolve("inventory.json.sales")));
+
+        // A new process rebuilds the daily totals from the file; names match ignoring case
+        SalesLedger reopened = new SalesLedger(inventory);
+        assertEquals(16_000, reopened.unitsSold(foldedId("LEDGER TEA"), today, 1));
+        assertEquals(0, reopened.unitsSold(foldedId("Ledger Cocoa"), today, 28));
+        assertEquals(0, reopened.getRecordedCount());
+    }
+
+    @Test
+    void keepsTheLast28DaysAndCutsOffATornRecord() throws Exception {
+        Path inventory = tempDir.resolve("inventory.json");
+        LocalDate today = LocalDate.now();
+        SalesLedger ledger = new SalesLedger(inventory);
+        ledger.record("Ledger Rice", 100, millisAt(today.minusDays(30)));
+        ledger.record("Ledger Rice", 5, millisAt(today.minusDays(10)));
+        ledger.record("Ledger Rice", 3, millisAt(today.minusDays(2)));
+        ledger.record("Ledger Rice", 1, millisAt(today));
+        ledger.close();
+
+        assertEquals(4, ledger.unitsSold(foldedId("Ledger Rice"), today, 7));
+        assertEquals(9, ledger.unitsSold(foldedId("Ledger Rice"), today, 28));
+        assertEquals(1, ledger.unitsSold(foldedId("Ledger Rice"), today, 1));
+        assertThrows(IllegalArgumentException.class, () -> ledger.unitsSold(foldedId("Ledger Rice"), today, 29));
+        assertThrows(IllegalArgumentException.class, () -> ledger.record("Ledger Rice", 0));
+
+        // A crash in the middle of a write leaves part of a record behind
+        Path file = tempDir.resolve("inventory.json.sales");
+        long complete = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        SalesLedger reopened = new SalesLedger(inventory);
+        assertEquals(9, reopened.unitsSold(foldedId("Ledger Rice"), today, 28));
+        assertEquals(complete, Files.size(file));
+        reopened.record("Ledger Rice", 2);
+        reopened.close();
+        assertEquals(11, new SalesLedger(inventory).unitsSold(foldedId("Ledger Rice"), today, 28));
+    }
+}
@@ -0,0 +1,87 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.Product;
+
+class SalesProjectionTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StoreService service;
+    private SalesProjection projection;
+
+    @BeforeEach
+    void setUp() {
+        service = new StoreService(tempDir.resolve("inventory.json"));
+        service.addProducts(List.of(
+                new Product("Bread", 2.50, 70, 0.0),
+                new Product("Jam", 4.00, 30, 0.0),
+                new Product("Candles", 6.00, 12, 0.0)));
+        projection = new SalesProjection(service);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.saveAndCloseInventory();
+    }
+
+    private static long millisAt(LocalDate day) {
+        return day.atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Test
+    void projectsDaysOfStockFromMovingAverages() {
+        LocalDate today = LocalDate.now();
+        SalesLedger ledger = service.getSalesLedger();
+        // Jam sold 14 units three weeks ago and nothing since
+        ledger.record("Jam", 14, millisAt(today.minusDays(20)));
+        for (int day = 1; day < 7; day++) {
+            ledger.record("Bread", 2, millisAt(today.minusDays(day)));
+        }
+        assertTrue(service.sell("bread", 2));
+
+        List<SalesProjection.Line> lines = projection.project().getLines();
+        assertEquals(List.of("Bread", "Jam", "Candles"),
+                lines.stream().map(line -> line.getProduct().getName()).toList());
+
+        SalesProjection.Line bread = lines.get(0);
+        assertEquals(68, bread.getQuantity());
+        assertEquals(2.0, bread.getShortAverage(), 1e-9);
+        assertEquals(0.5, bread.getLongAverage(), 1e-9);
+        assertEquals(34.0, bread.getDaysRemaining(), 1e-9);
+
+        // Nothing sold this week, so the 28 day average applies
+        SalesProjection.Line jam = lines.get(1);
+        assertEquals(0.0, jam.getShortAverage());
+        assertEquals(60.0, jam.getDaysRemaining(), 1e-9);
+
+        assertFalse(lines.get(2).isSelling());
+        assertEquals(Double.POSITIVE_INFINITY, lines.get(2).getDaysRemaining());
+    }
+
+    @Test
+    void reusesTheProjectionUntilSomethingSells() {
+        SalesProjection.Result first = projection.project();
+        assertSame(first, projection.project());
+
+        assertTrue(service.sell("Candles", 3));
+        SalesProjection.Result second = projection.project();
+        assertNotSame(first, second);
+        assertEquals("Candles", second.getLines().get(0).getProduct().getName());
+        assertEquals(9.0 / (3.0 / 7), second.getLines().get(0).getDaysRemaining(), 1e-9);
+        assertFalse(service.sell("Candles", 10));
+        assertSame(second, projection.project());
+    }
+}
@@ -0,0 +1,93 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.Product;
+import com.store.util.InventoryFileCoordinator;
+
+class StoreServiceBatchTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path inventoryPath;
+    private StoreService service;
+    private InventoryFileCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        inventoryPath = tempDir.resolve("inventory.json");
+        service = new StoreService(inventoryPath);
+        coordinator = new InventoryFileCoordinator(inventoryPath);
+    }
+
+    @Test
+    void addProductsPublishesAndSavesOnce() throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            products.add(new Product("Item " + i, 1.00, 2, 0.0));
+        }
+        long version = service.getSnapshot().getVersion();
+        long sequence = coordinator.readSequence();
+
+        service.addProducts(products);
+
+        assertEquals(version + 1, service.getSnapshot().getVersion());
+        assertEquals(sequence + 1, coordinator.readSequence());
+        assertEquals(2_000, service.getTotalQuantity());
+        assertSame(products.get(999), service.findProductByName("item 999").orElseThrow());
+        assertEquals(1_000, new StoreService(inventoryPath).getInventory().size());
+    }
+
+    @Test
+    void removeIfRemovesMatchingProductsInOneSave() throws Exception {
+        service.addProducts(List.of(
+                new Product("Keep A", 1.00, 5, 0.0),
+                new Product("Drop B", 1.00, 0, 0.0),
+                new Product("Keep C", 1.00, 7, 0.0),
+                new Product("Drop D", 1.00, 0, 0.0)));
+        long sequence = coordinator.readSequence();
+
+        assertEquals(2, service.removeIf(product -> product.getQuantity() == 0));
+        assertEquals(sequence + 1, coordinator.readSequence());
+        assertEquals(List.of("Keep A", "Keep C"),
+                service.getInventory().stream().map(Product::getName).toList());
+
+        // Nothing matched, so nothing is published or written
+        long version = service.getSnapshot().getVersion();
+        assertEquals(0, service.removeIf(product -> product.getQuantity() == 0));
+        assertEquals(version, service.getSnapshot().getVersion());
+        assertEquals(sequence + 1, coordinator.readSequence());
+    }
+
+    @Test
+    void updateAllRefreshesTotals() throws Exception {
+        service.addProducts(List.of(
+                new Product("Pens", 2.00, 10, 0.0),
+                new Product("Paper", 5.00, 4, 0.0)));
+        assertEquals(new BigDecimal("40.00"), service.getTotalGrossPrice());
+        long sequence = coordinator.readSequence();
+
+        // Mix of in-place changes and replacements
+        service.updateAll(product -> {
+            if (product.getName().equals("Pens")) {
+                product.setPrice(3.00);
+                return product;
+            }
+            return new Product(product.getName(), 5.00, 8, 0.0);
+        });
+
+        assertEquals(sequence + 1, coordinator.readSequence());
+        assertEquals(new BigDecimal("70.00"), service.getTotalGrossPrice());
+        assertEquals(new BigDecimal("70.00"), new StoreService(inventoryPath).getTotalGrossPrice());
+    }
+}
@@ -0,0 +1,166 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.store.model.Product;
+
+/**
+ * Stress test for the single-writer / optimistic-reader concurrency model of StoreService.
+ * Writers only add products, so every observable quantity grows monotonically and
+ * each read can be checked against the snapshots taken right before and after it.
+ */
+class StoreServiceConcurrencyTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int ADDS_PER_WRITER = 150;
+    private static final int POS_THREADS = 32;
+    private static final int SALES_PER_THREAD = 2_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsStayLinearizableUnderConcurrentWrites() throws Exception {
+        StoreService service = new StoreService(tempDir.resolve("inventory.json"));
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ADDS_PER_WRITER; i++) {
+                        service.addProduct(new Product("w" + writer + "-" + i, 1.00, 1, 0.0));
+                    }
+                    return null;
+                }));
+            }
+
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    int checks = 0;
+                    InventorySnapshot previous = service.getSnapshot();
+                    while (writing.get()) {
+                        InventorySnapshot before = service.getSnapshot();
+                        int quantity = service.getTotalQuantity();
+                        int gross = service.getTotalGrossPrice().intValue();
+                        InventorySnapshot after = service.getSnapshot();
+
+                        // Versions never go backwards and each add bumps the version once
+                        assertTrue(before.getVersion() >= previous.getVersion());
+                        assertTrue(after.getVersion() >= before.getVersion());
+                        assertEquals(after.getVersion() - before.getVersion(), after.size() - before.size());
+
+                        // Each aggregate reflects a version between the surrounding reads
+                        assertTrue(quantity >= before.size() && quantity <= after.size(),
+                                "quantity " + quantity + " outside [" + before.size() + ", " + after.size() + "]");
+                        assertTrue(gross >= before.size() && gross <= after.size(),
+                                "gross " + gross + " outside [" + before.size() + ", " + after.size() + "]");
+                        previous = after;
+                        checks++;
+                    }
+                    return checks;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Product> inventory = service.getInventory();
+        assertEquals(WRITERS * ADDS_PER_WRITER, inventory.size());
+        assertEquals(WRITERS * ADDS_PER_WRITER, service.getTotalQuantity());
+
+        // Each writer's products appear in the order that writer added them
+        for (int w = 0; w < WRITERS; w++) {
+            String prefix = "w" + w + "-";
+            int expected = 0;
+            for (Product product : inventory) {
+                if (product.getName().startsWith(prefix)) {
+                    assertEquals(prefix + expected, product.getName());
+                    expected++;
+                }
+            }
+            assertEquals(ADDS_PER_WRITER, expected);
+        }
+
+        // The file holds the last version even though writers saved concurrently
+        StoreService reloaded = new StoreService(tempDir.resolve("inventory.json"));
+        assertEquals(WRITERS * ADDS_PER_WRITER, reloaded.getInventory().size());
+    }
+
+    @Test
+    void concurrentSalesNeverDriveStockNegative() throws Exception {
+        StoreService service = new StoreService(tempDir.resolve("inventory.json"));
+        service.addProduct(new Product("Hot Item", 2.50, 1_000, 0.0));
+        ExecutorService executor = Executors.newFixedThreadPool(POS_THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger restocked = new AtomicInteger();
+
+        try {
+            List<Future<?>> terminals = new ArrayList<>();
+            for (int t = 0; t < POS_THREADS; t++) {
+                int terminal = t;
+                terminals.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < SALES_PER_THREAD; i++) {
+                        // Every fourth terminal receives shipments, the rest sell
+                        if (terminal % 4 == 0 && i % 2 == 0) {
+                            assertTrue(service.restock("hot item", 1));
+                            restocked.incrementAndGet();
+                        } else if (service.sell("HOT ITEM", 1)) {
+                            sold.incrementAndGet();
+                        }
+                        assertTrue(service.getTotalQuantity() >= 0);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> terminal : terminals) {
+                terminal.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int expected = 1_000 + restocked.get() - sold.get();
+        assertTrue(expected >= 0);
+        assertEquals(expected, service.findProductByName("Hot Item").orElseThrow().getQuantity());
+        assertEquals(expected, service.getTotalQuantity());
+        assertFalse(service.sell("Hot Item", expected + 1), "Selling more than the stock must be refused");
+        assertFalse(service.sell("Unknown Item", 1));
+
+        // Let the background save finish before the temp directory is deleted
+        service.saveAndCloseInventory();
+    }
+}
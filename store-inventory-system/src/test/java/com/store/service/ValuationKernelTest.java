@@ -0,0 +1,83 @@
+package com.store.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.store.model.PerishableProduct;
+import com.store.model.Product;
+
+class ValuationKernelTest {
+
+    private List<Product> randomProducts(int count) {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double price = random.nextInt(100_000) / 100.0;
+            int quantity = random.nextInt(500);
+            double discount = random.nextInt(101) / 100.0;
+            if (random.nextBoolean()) {
+                String expiration = today.plusDays(random.nextInt(20) - 5).toString();
+                products.add(new PerishableProduct("P" + i, price, quantity, expiration, discount));
+            } else {
+                products.add(new Product("N" + i, price, quantity, discount));
+            }
+        }
+        return products;
+    }
+
+    private BigDecimal expectedGross(List<Product> products) {
+        return products.stream()
+                .map(product -> product.getPrice().multiply(BigDecimal.valueOf(product.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private BigDecimal expectedValue(List<Product> products) {
+        return products.stream()
+                .map(Product::getTotalValue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Test
+    void scalarKernelMatchesBigDecimalTotals() {
+        List<Product> products = randomProducts(1_003);
+        ValuationColumns columns = ValuationColumns.from(products, LocalDate.now());
+        ValuationKernel kernel = ValuationKernels.scalar();
+
+        assertNotNull(columns);
+        assertEquals(expectedGross(products), ValuationColumns.toMoney(kernel.grossCents(columns)));
+        assertEquals(expectedValue(products), ValuationColumns.toMoney(kernel.valueCents(columns)));
+    }
+
+    @Test
+    void vectorKernelMatchesScalarKernel() {
+        ValuationKernel vector = ValuationKernels.vector();
+        if (vector == null) {
+            return; // Vector API module not present in this JVM
+        }
+
+        ValuationColumns columns = ValuationColumns.from(randomProducts(1_003), LocalDate.now());
+        ValuationKernel scalar = ValuationKernels.scalar();
+
+        assertEquals(scalar.grossCents(columns), vector.grossCents(columns));
+        assertEquals(scalar.valueCents(columns), vector.valueCents(columns));
+    }
+
+    @Test
+    void unrepresentableProductsFallBack() {
+        List<Product> products = new ArrayList<>();
+        products.add(new Product("Negative", -1.0, 1, 0.0));
+
+        assertNull(ValuationColumns.from(products, LocalDate.now()));
+    }
+}